@@ -0,0 +1,67 @@
+package chatting.chatconsumer.config;
+
+import chatting.chatconsumer.domain.chatmessage.document.ChatMessageBucket;
+import chatting.chatconsumer.domain.chatmessage.document.ChatMessageDocument;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * chat_messages_ind / chat_message_buckets 인덱스 생성 (chat-consumer가 컬렉션 소유)
+ * - auto-index-creation이 꺼져 있어도 기동 시 보장되도록 직접 생성 (이미 있으면 no-op)
+ */
+@Slf4j
+@Configuration
+@RequiredArgsConstructor
+public class MongoIndexConfig {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(ChatMessageDocument.class);
+
+        // 방 단위 seq 이후 조회 (delta API)
+        // unique 아님 - 병합으로 옮겨온 메시지(mergeId)는 원래 방 seq를 유지하므로 타겟 방 seq와 겹칠 수 있음
+        indexOps.createIndex(new Index()
+                .on("roomId", Sort.Direction.ASC)
+                .on("seq", Sort.Direction.ASC)
+                .named("room_seq_idx"));
+
+        // 히스토리 keyset 페이지네이션 (timestamp, _id) - 양방향 모두 사용
+        indexOps.createIndex(new Index()
+                .on("roomId", Sort.Direction.ASC)
+                .on("timestamp", Sort.Direction.ASC)
+                .on("_id", Sort.Direction.ASC)
+                .named("room_timestamp_id_idx"));
+
+        // Kafka 재전달 / Outbox 재발행 시 같은 이벤트 중복 저장 방지 (sourceKey 없는 기존 문서는 제외)
+        indexOps.createIndex(new Index()
+                .on("sourceKey", Sort.Direction.ASC)
+                .unique()
+                .sparse()
+                .named("source_key_uidx"));
+
+        IndexOperations bucketIndexOps = mongoTemplate.indexOps(ChatMessageBucket.class);
+
+        // 방의 열린 버킷 찾기 / 구간 순 히스토리 조회
+        bucketIndexOps.createIndex(new Index()
+                .on("roomId", Sort.Direction.ASC)
+                .on("windowStart", Sort.Direction.ASC)
+                .named("room_window_idx"));
+
+        // 병합 롤백 시 이동된 버킷 찾기
+        bucketIndexOps.createIndex(new Index()
+                .on("mergeId", Sort.Direction.ASC)
+                .sparse()
+                .named("merge_id_idx"));
+
+        log.info("chat_messages_ind / chat_message_buckets 인덱스 확인 완료");
+    }
+}
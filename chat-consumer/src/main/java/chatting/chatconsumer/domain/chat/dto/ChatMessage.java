@@ -19,6 +19,8 @@ public class ChatMessage {
     private String sender;
     private String message;
     private Instant timestamp;
+    private String clientMessageId;
+    private Long seq;
 
     public static ChatMessage leaveMessage(String roomId, String sender) {
         return ChatMessage.builder()
@@ -0,0 +1,29 @@
+package chatting.chatconsumer.domain.chatmessage.document;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * chat_messages_ind → chat_message_buckets 마이그레이션 진행 위치
+ */
+@Document(collection = "bucket_migration_checkpoints")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class BucketMigrationCheckpoint {
+
+    @Id
+    private String name;
+
+    private String lastId;   // 마지막으로 옮긴 문서 _id
+    private String cutoffId; // 시작 시점의 마지막 _id (이후 문서는 BUCKET 모드 writer가 기록)
+    private boolean completed;
+    private long migratedCount;
+
+    // 배치를 처리 중인 인스턴스와 선점 만료 시각 (여러 consumer 인스턴스가 같은 배치를 옮기지 않도록)
+    private String owner;
+    private Instant leaseUntil;
+
+    private Instant updatedAt;
+}
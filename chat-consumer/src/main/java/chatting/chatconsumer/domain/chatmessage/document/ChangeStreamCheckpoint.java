@@ -0,0 +1,22 @@
+package chatting.chatconsumer.domain.chatmessage.document;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * Change Stream resume token 저장 (재시작 시 이어서 구독)
+ */
+@Document(collection = "change_stream_checkpoints")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ChangeStreamCheckpoint {
+
+    @Id
+    private String name;
+
+    private String resumeToken; // BsonDocument JSON
+
+    private Instant updatedAt;
+}
@@ -5,9 +5,6 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 @Document(collection = "chat_messages_ind")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -17,6 +14,7 @@ public class ChatMessageDocument {
     private String id;
 
     private String roomId;
+    private Long seq; // 방 단위 순번 (room_sequences에서 부여)
     private String sender;
 
     private Instant timestamp;
@@ -26,31 +24,8 @@ public class ChatMessageDocument {
 
     private String status;
 
-}
-
-//@Document(collection = "chat_messages")
-//@Getter
-//@Setter
-//@NoArgsConstructor
-//@AllArgsConstructor
-//@Builder
-//public class ChatMessageDocument {
-//
-//    @Id
-//    private String roomId; // MongoDB에서 _id로 설정
-//
-//    // 날짜(yyyy-MM-dd) -> 메시지 리스트
-//    private Map<String, List<Message>> messagesByDate = new HashMap<>();
-//
-//    @Getter
-//    @Setter
-//    @NoArgsConstructor
-//    @AllArgsConstructor
-//    @Builder
-//    public static class Message {
-//        private String sender;
-//        private String message;
-//        private Instant timestamp;
-//    }
-//}
+    // 멱등 키 - Outbox 이벤트는 event-{eventId}, 헤더가 없으면 원본 레코드 chat-message-{partition}-{offset}
+    // 재전달/재발행 시 중복 저장 방지용 unique 키
+    private String sourceKey;
 
+}
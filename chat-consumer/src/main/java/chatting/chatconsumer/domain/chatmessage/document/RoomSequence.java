@@ -0,0 +1,18 @@
+package chatting.chatconsumer.domain.chatmessage.document;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 방 단위 메시지 순번 카운터 (마지막으로 부여한 seq)
+ */
+@Document(collection = "room_sequences")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RoomSequence {
+
+    @Id
+    private String roomId;
+
+    private long seq;
+}
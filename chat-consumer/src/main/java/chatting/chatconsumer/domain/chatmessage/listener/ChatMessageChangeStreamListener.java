@@ -1,69 +1,285 @@
 package chatting.chatconsumer.domain.chatmessage.listener;
 
+import chatting.chatconsumer.domain.chatmessage.document.ChangeStreamCheckpoint;
 import chatting.chatconsumer.domain.chatmessage.document.ChatMessageDocument;
-import chatting.chatconsumer.domain.chatmessage.repository.ChatMessageMongoRepository;
 import chatting.chatconsumer.kafka.dto.ChatKafkaMessage;
 import chatting.chatconsumer.kafka.producer.KafkaSendMsgProducer;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.Filters;
 import com.mongodb.client.model.changestream.ChangeStreamDocument;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
 import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * chat_messages_ind insert 이벤트를 chat-message-sent로 발행
+ * - 전용 스레드에서 구독하고, 이벤트의 fullDocument를 그대로 사용 (findById 없음)
+ * - 이벤트를 배치로 모아 Kafka 전송 후 updateMany 한 번으로 SENT 처리
+ * - 배치 발행이 끝난 지점의 resume token을 주기적으로 저장하고, 재시작 시 그 지점부터 이어서 구독
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class ChatMessageChangeStreamListener {
 
+    private static final String COLLECTION = "chat_messages_ind";
+    private static final String CHECKPOINT_NAME = "chat-message-sent-publisher";
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
     private final MongoTemplate mongoTemplate;
-    private final ChatMessageMongoRepository chatMessageMongoRepository;
     private final KafkaSendMsgProducer kafkaSendMsgProducer;
-    private final ObjectMapper objectMapper;
+
+    private final int batchSize;
+    private final long maxWaitMs;
+    private final long sendTimeoutMs;
+    private final long checkpointIntervalMs;
+    private final long retryBackoffMs;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    // 마지막으로 발행까지 끝난 지점 (오류 시 여기서 다시 구독)
+    private BsonDocument resumeToken;
+    private BsonDocument checkpointedToken;
+    private long lastCheckpointAt;
+
+    public ChatMessageChangeStreamListener(MongoTemplate mongoTemplate,
+                                           KafkaSendMsgProducer kafkaSendMsgProducer,
+                                           @Value("${chat.change-stream.batch-size:500}") int batchSize,
+                                           @Value("${chat.change-stream.max-wait-ms:20}") long maxWaitMs,
+                                           @Value("${chat.change-stream.send-timeout-ms:10000}") long sendTimeoutMs,
+                                           @Value("${chat.change-stream.checkpoint-interval-ms:1000}") long checkpointIntervalMs,
+                                           @Value("${chat.change-stream.retry-backoff-ms:1000}") long retryBackoffMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.kafkaSendMsgProducer = kafkaSendMsgProducer;
+        this.batchSize = batchSize;
+        this.maxWaitMs = maxWaitMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.checkpointIntervalMs = checkpointIntervalMs;
+        this.retryBackoffMs = retryBackoffMs;
+    }
 
     @EventListener(ApplicationReadyEvent.class)
     public void listenChangeStream() {
         log.info("Change Stream Listener 시작");
 
-        mongoTemplate.getCollection("chat_messages_ind")
-                .watch()
-                .forEach((ChangeStreamDocument<Document> change) -> {
-                    Document fullDoc = change.getFullDocument();
-                    if (fullDoc == null) return;
+        ChangeStreamCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_NAME, ChangeStreamCheckpoint.class);
+        if (checkpoint != null && checkpoint.getResumeToken() != null) {
+            resumeToken = BsonDocument.parse(checkpoint.getResumeToken());
+            checkpointedToken = resumeToken;
+            log.info("Change Stream resume token 복원: updatedAt={}", checkpoint.getUpdatedAt());
+        }
 
-                    String id = fullDoc.getObjectId("_id").toHexString();
+        running = true;
+        worker = new Thread(this::run, "chat-change-stream");
+        worker.setDaemon(true);
+        worker.start();
+    }
 
-                    try {
-                        chatMessageMongoRepository.findById(id).ifPresent(doc -> {
-                            if (!"PENDING".equals(doc.getStatus())) {
-                                return; // 이미 처리됨
-                            }
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
 
-                            ChatKafkaMessage msg = ChatKafkaMessage.builder()
-                                    .roomId(doc.getRoomId())
-                                    .sender(doc.getSender())
-                                    .message(doc.getMessage())
-                                    .timestamp(doc.getTimestamp())
-                                    .messageType(doc.getMessageType())
-                                    .build();
+    private void run() {
+        boolean sweepPending = false;
+        while (running) {
+            try (MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = openCursor()) {
+                if (sweepPending) {
+                    // 새 스트림을 먼저 연 뒤 쓸어야 그 사이/이후 insert는 스트림이, 이전 insert는 스윕이 빠짐없이 잡는다
+                    // 열린 지점을 기억해 두면 스윕 중 스트림이 끊겨도 같은 지점부터 다시 구독
+                    BsonDocument openedAt = cursor.getResumeToken();
+                    if (openedAt != null) {
+                        resumeToken = openedAt;
+                    }
+                    republishPending();
+                    sweepPending = false;
+                }
+                consume(cursor);
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    // oplog에서 resume 지점이 밀려난 경우 - 현재 시점부터 구독하고 남은 PENDING을 직접 발행
+                    log.error("Change Stream resume 지점 유실, 현재 시점부터 구독 후 PENDING 메시지 재발행");
+                    resumeToken = null;
+                    sweepPending = true;
+                } else {
+                    log.error("Change Stream 오류: {}", e.getMessage(), e);
+                    sleepBackoff();
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.error("Change Stream 발행 실패: {}", e.getMessage(), e);
+                sleepBackoff();
+            }
+        }
+        log.info("Change Stream Listener 종료");
+    }
 
-                            // Kafka 퍼블리시
-                            kafkaSendMsgProducer.send(msg);
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor() {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(COLLECTION)
+                .watch(List.of(Aggregates.match(Filters.eq("operationType", "insert"))))
+                .batchSize(batchSize)
+                .maxAwaitTime(maxWaitMs, TimeUnit.MILLISECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        return stream.cursor();
+    }
 
-                            // 상태 SENT로 변경
-                            doc.setStatus("SENT");
-                            chatMessageMongoRepository.save(doc);
+    private void consume(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) throws Exception {
+        List<ChangeStreamDocument<Document>> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0;
 
-                            log.info("Change Stream 발행 완료: {}", doc.getId());
-                        });
+        while (running) {
+            ChangeStreamDocument<Document> change = cursor.tryNext();
+            if (change != null) {
+                if (batch.isEmpty()) {
+                    batchStartedAt = System.currentTimeMillis();
+                }
+                batch.add(change);
+            }
 
-                    } catch (Exception e) {
-                        log.error("Change Stream 발행 실패: {}", e.getMessage(), e);
-                    }
-                });
+            boolean flush = !batch.isEmpty()
+                    && (change == null || batch.size() >= batchSize
+                        || System.currentTimeMillis() - batchStartedAt >= maxWaitMs);
+            if (flush) {
+                publish(batch);
+                batch.clear();
+            }
+
+            if (batch.isEmpty()) {
+                // 받은 이벤트가 모두 발행된 상태에서만 전진 (유휴 상태의 post-batch token 포함)
+                BsonDocument token = cursor.getResumeToken();
+                if (token != null) {
+                    resumeToken = token;
+                }
+                maybeCheckpoint();
+            }
+        }
     }
 
+    private void publish(List<ChangeStreamDocument<Document>> batch) throws Exception {
+        List<ChatMessageDocument> documents = new ArrayList<>(batch.size());
+        for (ChangeStreamDocument<Document> change : batch) {
+            Document fullDoc = change.getFullDocument();
+            if (fullDoc == null) continue;
+            ChatMessageDocument doc = mongoTemplate.getConverter().read(ChatMessageDocument.class, fullDoc);
+            if (!"PENDING".equals(doc.getStatus())) {
+                continue; // 이미 처리됨
+            }
+            documents.add(doc);
+        }
+        sendAndMarkSent(documents);
+    }
+
+    /**
+     * Kafka로 일괄 전송 후 전체 ack를 받으면 updateMany 한 번으로 SENT 처리
+     * - 일부라도 실패하면 예외 → 마지막 resume 지점부터 다시 구독해 재발행 (중복은 producer가 seq로 걸러냄)
+     */
+    private void sendAndMarkSent(List<ChatMessageDocument> documents) throws Exception {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(documents.size());
+        List<String> ids = new ArrayList<>(documents.size());
+        for (ChatMessageDocument doc : documents) {
+            ChatKafkaMessage msg = ChatKafkaMessage.builder()
+                    .roomId(doc.getRoomId())
+                    .sender(doc.getSender())
+                    .message(doc.getMessage())
+                    .timestamp(doc.getTimestamp())
+                    .messageType(doc.getMessageType())
+                    .seq(doc.getSeq())
+                    .messageId(doc.getId())
+                    .build();
+
+            // Kafka 퍼블리시
+            futures.add(kafkaSendMsgProducer.send(msg));
+            ids.add(doc.getId());
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+
+        // 상태 SENT로 변경
+        mongoTemplate.updateMulti(
+                Query.query(Criteria.where("_id").in(ids)),
+                Update.update("status", "SENT"),
+                ChatMessageDocument.class);
+
+        log.debug("Change Stream 발행 완료: count={}", ids.size());
+    }
+
+    private void maybeCheckpoint() {
+        long now = System.currentTimeMillis();
+        if (resumeToken == null || resumeToken.equals(checkpointedToken) || now - lastCheckpointAt < checkpointIntervalMs) {
+            return;
+        }
+        mongoTemplate.save(ChangeStreamCheckpoint.builder()
+                .name(CHECKPOINT_NAME)
+                .resumeToken(resumeToken.toJson())
+                .updatedAt(Instant.now())
+                .build());
+        checkpointedToken = resumeToken;
+        lastCheckpointAt = now;
+    }
+
+    /**
+     * 남은 PENDING 전부 발행 - 실패하면 마지막으로 끝낸 _id부터 성공할 때까지 재시도
+     * - 스트림과 겹쳐 두 번 발행될 수 있음 (producer가 seq로 걸러냄)
+     */
+    private void republishPending() {
+        String lastId = null;
+        while (running) {
+            try {
+                Query query = Query.query(Criteria.where("status").is("PENDING"))
+                        .with(Sort.by("_id"))
+                        .limit(batchSize);
+                if (lastId != null) {
+                    query.addCriteria(Criteria.where("_id").gt(new ObjectId(lastId)));
+                }
+                List<ChatMessageDocument> pending = mongoTemplate.find(query, ChatMessageDocument.class);
+                if (pending.isEmpty()) {
+                    log.info("PENDING 메시지 재발행 완료");
+                    return;
+                }
+                sendAndMarkSent(pending);
+                lastId = pending.get(pending.size() - 1).getId();
+            } catch (Exception e) {
+                log.error("PENDING 메시지 재발행 실패, 재시도: lastId={}, {}", lastId, e.getMessage(), e);
+                sleepBackoff();
+            }
+        }
+    }
+
+    private void sleepBackoff() {
+        try {
+            Thread.sleep(retryBackoffMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
 }
@@ -0,0 +1,144 @@
+package chatting.chatconsumer.domain.chatmessage.service;
+
+import chatting.chatconsumer.domain.chatmessage.document.BucketMigrationCheckpoint;
+import chatting.chatconsumer.domain.chatmessage.document.ChatMessageDocument;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * 기존 chat_messages_ind 문서를 버킷으로 옮기는 백그라운드 마이그레이션
+ * - BUCKET 모드로 writer를 먼저 전환한 뒤 활성화 (cutoff 이후 문서는 writer가 이미 기록)
+ * - _id 순으로 배치 처리하고 배치마다 체크포인트 저장, 재시작 시 이어서 진행
+ * - 모든 consumer 인스턴스에서 돌지만 배치마다 체크포인트를 findAndModify로 선점 (owner + leaseUntil)
+ *   선점한 인스턴스만 배치를 옮기고, lastId가 그대로일 때만 전진 → 같은 배치가 여러 번 들어가지 않음
+ * - 선점 만료 후 다른 인스턴스가 이어받는 경우에만 마지막 배치가 한 번 더 들어갈 수 있음 (읽는 쪽에서 메시지 id로 중복 제거)
+ */
+@Slf4j
+@Component
+public class ChatMessageBucketMigrator {
+
+    private static final String CHECKPOINT_NAME = "chat_messages_ind";
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatMessageBucketService chatMessageBucketService;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long leaseMs;
+    private final String owner = UUID.randomUUID().toString();
+
+    public ChatMessageBucketMigrator(MongoTemplate mongoTemplate,
+                                     ChatMessageBucketService chatMessageBucketService,
+                                     @Value("${chat.bucket.migration.enabled:false}") boolean enabled,
+                                     @Value("${chat.bucket.migration.batch-size:1000}") int batchSize,
+                                     @Value("${chat.bucket.migration.lease-ms:60000}") long leaseMs) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatMessageBucketService = chatMessageBucketService;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.leaseMs = leaseMs;
+    }
+
+    @Scheduled(fixedDelayString = "${chat.bucket.migration.interval-ms:1000}")
+    public void migrateBatch() {
+        if (!enabled) {
+            return;
+        }
+
+        BucketMigrationCheckpoint checkpoint = mongoTemplate.findById(CHECKPOINT_NAME, BucketMigrationCheckpoint.class);
+        if (checkpoint == null) {
+            checkpoint = start();
+        }
+        if (checkpoint.isCompleted() || checkpoint.getCutoffId() == null) {
+            return;
+        }
+
+        checkpoint = claim();
+        if (checkpoint == null) {
+            return; // 다른 인스턴스가 처리 중
+        }
+
+        Criteria criteria = Criteria.where("_id").lte(new ObjectId(checkpoint.getCutoffId()));
+        if (checkpoint.getLastId() != null) {
+            criteria = criteria.gt(new ObjectId(checkpoint.getLastId()));
+        }
+        List<ChatMessageDocument> batch = mongoTemplate.find(
+                Query.query(criteria).with(Sort.by("_id")).limit(batchSize), ChatMessageDocument.class);
+
+        if (batch.isEmpty()) {
+            if (advance(checkpoint, Update.update("completed", true))) {
+                log.info("버킷 마이그레이션 완료: migratedCount={}", checkpoint.getMigratedCount());
+            }
+            return;
+        }
+
+        chatMessageBucketService.append(batch);
+
+        String lastId = batch.get(batch.size() - 1).getId();
+        if (advance(checkpoint, Update.update("lastId", lastId).inc("migratedCount", batch.size()))) {
+            log.info("버킷 마이그레이션 진행: lastId={}, migratedCount={}", lastId, checkpoint.getMigratedCount() + batch.size());
+        } else {
+            log.warn("버킷 마이그레이션 선점 만료, 다른 인스턴스가 이어받음: lastId={}", lastId);
+        }
+    }
+
+    /**
+     * 선점이 없거나 만료됐거나 내 것이면 leaseUntil 연장 후 최신 체크포인트 반환, 아니면 null
+     */
+    private BucketMigrationCheckpoint claim() {
+        Instant now = Instant.now();
+        Query query = Query.query(Criteria.where("_id").is(CHECKPOINT_NAME).and("completed").is(false)
+                .orOperator(
+                        Criteria.where("owner").is(owner),
+                        Criteria.where("leaseUntil").is(null),
+                        Criteria.where("leaseUntil").lt(now)));
+        Update update = Update.update("owner", owner).set("leaseUntil", now.plusMillis(leaseMs));
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true),
+                BucketMigrationCheckpoint.class);
+    }
+
+    /**
+     * 아직 내가 선점 중이고 선점 당시 lastId 그대로일 때만 반영
+     */
+    private boolean advance(BucketMigrationCheckpoint claimed, Update update) {
+        Query query = Query.query(Criteria.where("_id").is(CHECKPOINT_NAME)
+                .and("owner").is(owner)
+                .and("lastId").is(claimed.getLastId()));
+        return mongoTemplate.updateFirst(query, update.set("updatedAt", Instant.now()),
+                BucketMigrationCheckpoint.class).getModifiedCount() > 0;
+    }
+
+    private BucketMigrationCheckpoint start() {
+        Query lastQuery = new Query().with(Sort.by(Sort.Direction.DESC, "_id")).limit(1);
+        lastQuery.fields().include("_id");
+        ChatMessageDocument last = mongoTemplate.findOne(lastQuery, ChatMessageDocument.class);
+
+        BucketMigrationCheckpoint checkpoint = BucketMigrationCheckpoint.builder()
+                .name(CHECKPOINT_NAME)
+                .cutoffId(last != null ? last.getId() : null)
+                .completed(last == null)
+                .updatedAt(Instant.now())
+                .build();
+        try {
+            // 여러 인스턴스가 동시에 시작해도 cutoff는 먼저 기록한 하나만 사용
+            mongoTemplate.insert(checkpoint);
+        } catch (DuplicateKeyException e) {
+            return mongoTemplate.findById(CHECKPOINT_NAME, BucketMigrationCheckpoint.class);
+        }
+        log.info("버킷 마이그레이션 시작: cutoffId={}", checkpoint.getCutoffId());
+        return checkpoint;
+    }
+}
@@ -0,0 +1,104 @@
+package chatting.chatconsumer.domain.chatmessage.service;
+
+import chatting.chatconsumer.domain.chatmessage.document.ChatMessageBucket;
+import chatting.chatconsumer.domain.chatmessage.document.ChatMessageDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class ChatMessageBucketService {
+
+    private final MongoTemplate mongoTemplate;
+    private final long windowMillis;
+    private final int maxMessagesPerBucket;
+
+    public ChatMessageBucketService(MongoTemplate mongoTemplate,
+                                    @Value("${chat.bucket.window-minutes:60}") long windowMinutes,
+                                    @Value("${chat.bucket.max-messages:200}") int maxMessagesPerBucket) {
+        this.mongoTemplate = mongoTemplate;
+        this.windowMillis = windowMinutes * 60_000L;
+        this.maxMessagesPerBucket = maxMessagesPerBucket;
+    }
+
+    /**
+     * 새로 저장된 메시지와 재전달된(이미 저장돼 있던) 메시지를 버킷에 추가
+     * - 재전달분은 방의 버킷 lastSeq 이하면 이미 들어간 것으로 보고 건너뜀 (방 단위 단일 writer 전제)
+     */
+    public void append(List<ChatMessageDocument> inserted, List<ChatMessageDocument> redelivered) {
+        List<ChatMessageDocument> documents = new ArrayList<>(inserted);
+        Map<String, Long> lastSeqByRoom = new HashMap<>();
+        for (ChatMessageDocument doc : redelivered) {
+            long lastSeq = lastSeqByRoom.computeIfAbsent(doc.getRoomId(), this::lastSeqOf);
+            if (doc.getSeq() != null && doc.getSeq() > lastSeq) {
+                documents.add(doc);
+            }
+        }
+        documents.sort(Comparator.comparing(ChatMessageDocument::getSeq, Comparator.nullsFirst(Comparator.naturalOrder())));
+        append(documents);
+    }
+
+    /**
+     * 메시지마다 "열린 버킷에 $push, 없으면 upsert"를 ORDERED bulk 한 번으로 실행
+     * - 같은 구간 버킷이 max-messages에 도달하면 count 조건이 맞지 않아 새 버킷이 생성된다
+     */
+    public void append(List<ChatMessageDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        BulkOperations ops = mongoTemplate.bulkOps(BulkOperations.BulkMode.ORDERED, ChatMessageBucket.class);
+        for (ChatMessageDocument doc : documents) {
+            Instant timestamp = doc.getTimestamp();
+            // 병합으로 옮겨온 버킷(mergeId)에는 섞지 않음 - seq 공간이 다르고 롤백 시 통째로 되돌아감
+            Query query = Query.query(Criteria.where("roomId").is(doc.getRoomId())
+                    .and("windowStart").is(windowOf(timestamp))
+                    .and("count").lt(maxMessagesPerBucket)
+                    .and("mergeId").is(null));
+
+            Update update = new Update()
+                    .push("messages", ChatMessageBucket.Message.builder()
+                            .id(doc.getId())
+                            .seq(doc.getSeq())
+                            .sender(doc.getSender())
+                            .message(doc.getMessage())
+                            .timestamp(timestamp)
+                            .messageType(doc.getMessageType())
+                            .build())
+                    .inc("count", 1)
+                    .min("firstTimestamp", timestamp)
+                    .max("lastTimestamp", timestamp);
+            if (doc.getSeq() != null) {
+                update.min("firstSeq", doc.getSeq()).max("lastSeq", doc.getSeq());
+            }
+            ops.upsert(query, update);
+        }
+        ops.execute();
+    }
+
+    private long lastSeqOf(String roomId) {
+        Query query = Query.query(Criteria.where("roomId").is(roomId).and("lastSeq").ne(null).and("mergeId").is(null))
+                .with(Sort.by(Sort.Direction.DESC, "lastSeq"))
+                .limit(1);
+        query.fields().include("lastSeq");
+        ChatMessageBucket bucket = mongoTemplate.findOne(query, ChatMessageBucket.class);
+        return bucket == null || bucket.getLastSeq() == null ? 0L : bucket.getLastSeq();
+    }
+
+    private Instant windowOf(Instant timestamp) {
+        long millis = timestamp.toEpochMilli();
+        return Instant.ofEpochMilli(millis - Math.floorMod(millis, windowMillis));
+    }
+}
@@ -1,39 +1,219 @@
 package chatting.chatconsumer.domain.chatmessage.service;
 
-import chatting.chatconsumer.domain.chatmessage.repository.ChatMessageMongoRepository;
 import chatting.chatconsumer.domain.chatmessage.document.ChatMessageDocument;
-import lombok.RequiredArgsConstructor;
+import chatting.chatconsumer.kafka.dto.ChatKafkaMessage;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.Header;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.time.LocalDate;
-import java.time.ZoneOffset;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class ChatMessageMongoService {
 
-    private final ChatMessageMongoRepository chatMessageMongoRepository;
+    // chat-producer Outbox가 싣는 이벤트 ID 헤더 (KafkaChatProducer.EVENT_ID_HEADER)
+    private static final String EVENT_ID_HEADER = "eventId";
 
-    public void saveMessage(String roomId, String sender, String content, String messageType, Instant timestamp) {
+    private final MongoTemplate mongoTemplate;
+    private final RoomSequenceService roomSequenceService;
+    private final ChatMessageBucketService chatMessageBucketService;
+    private final int insertRetries;
+    private final StorageMode storageMode;
 
-        ChatMessageDocument document = ChatMessageDocument.builder()
-                .roomId(roomId)
-                .sender(sender)
-                .message(content)
-                .timestamp(timestamp)
-                .messageType(messageType)
-                .status("PENDING")
-                .build();
+    public ChatMessageMongoService(MongoTemplate mongoTemplate,
+                                   RoomSequenceService roomSequenceService,
+                                   ChatMessageBucketService chatMessageBucketService,
+                                   @Value("${chat.consumer.insert-retries:3}") int insertRetries,
+                                   @Value("${chat.storage.mode:document}") StorageMode storageMode) {
+        this.mongoTemplate = mongoTemplate;
+        this.roomSequenceService = roomSequenceService;
+        this.chatMessageBucketService = chatMessageBucketService;
+        this.insertRetries = insertRetries;
+        this.storageMode = storageMode;
+    }
+
+    /**
+     * poll된 배치를 한 번의 unordered bulk insert로 저장
+     * - 멱등 키(sourceKey): Outbox eventId 헤더, 없으면 topic-partition-offset
+     * - 이미 저장된 키는 seq 예약 전에 걸러내므로 재전달/재발행이 seq 구멍을 만들지 않는다
+     * - 실패한 문서만 개별 재시도, 그래도 실패하면 그 레코드로 BatchListenerFailedException
+     *   (그 앞까지만 커밋, 에러 핸들러가 재시도 후 DLT로 보냄)
+     * - 확인 이후 동시에 들어온 중복은 sourceKey unique 인덱스로 막고 성공으로 간주
+     * - BUCKET 모드면 저장된 메시지를 버킷에도 추가 (버킷 실패 시 예외 → 재전달 시 lastSeq 기준으로 보충)
+     */
+    public void saveMessages(List<ConsumerRecord<String, ChatKafkaMessage>> records) {
+        Map<String, ConsumerRecord<String, ChatKafkaMessage>> byKey = new LinkedHashMap<>();
+        for (ConsumerRecord<String, ChatKafkaMessage> record : records) {
+            if (record.value() != null) {
+                byKey.putIfAbsent(sourceKeyOf(record), record); // 배치 안의 같은 이벤트는 한 번만
+            }
+        }
+        if (byKey.isEmpty()) {
+            return;
+        }
+
+        List<ChatMessageDocument> stored = mongoTemplate.find(
+                Query.query(Criteria.where("sourceKey").in(byKey.keySet())), ChatMessageDocument.class);
+        stored.forEach(document -> byKey.remove(document.getSourceKey()));
+        if (!stored.isEmpty()) {
+            log.info("이미 저장된 메시지 건너뜀: count={}", stored.size());
+        }
+
+        List<ChatMessageDocument> documents = toDocuments(byKey);
+        if (documents.isEmpty()) {
+            if (storageMode == StorageMode.BUCKET) {
+                chatMessageBucketService.append(List.of(), stored);
+            }
+            return;
+        }
 
+        List<ChatMessageDocument> duplicates = new ArrayList<>();
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ChatMessageDocument.class)
+                    .insert(documents)
+                    .execute();
+        } catch (BulkOperationException e) {
+            List<ChatMessageDocument> failed = new ArrayList<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) == ErrorCategory.DUPLICATE_KEY) {
+                    duplicates.add(documents.get(error.getIndex()));
+                } else {
+                    failed.add(documents.get(error.getIndex()));
+                }
+            }
+            log.warn("bulk insert 부분 실패: total={}, errors={}, retry={}",
+                    documents.size(), e.getErrors().size(), failed.size());
+            for (ChatMessageDocument document : failed) {
+                try {
+                    if (!insertWithRetry(document)) {
+                        duplicates.add(document);
+                    }
+                } catch (RuntimeException retryFailure) {
+                    throw new BatchListenerFailedException("메시지 저장 실패: sourceKey=" + document.getSourceKey(),
+                            retryFailure, byKey.get(document.getSourceKey()));
+                }
+            }
+        }
 
-        log.info("💡 저장 직전 상태: roomId={}, status={}", roomId, document.getStatus());
+        if (storageMode == StorageMode.BUCKET) {
+            appendToBuckets(documents, duplicates, stored);
+        }
 
-        chatMessageMongoRepository.save(document);
+        log.debug("채팅 메시지 배치 저장: count={}", documents.size());
     }
 
+    /**
+     * Outbox를 거친 메시지는 eventId로 식별 (Outbox 재발행은 다른 offset으로 들어오므로)
+     */
+    private String sourceKeyOf(ConsumerRecord<String, ChatKafkaMessage> record) {
+        Header header = record.headers().lastHeader(EVENT_ID_HEADER);
+        if (header != null && header.value() != null) {
+            return "event-" + new String(header.value(), StandardCharsets.UTF_8);
+        }
+        return record.topic() + "-" + record.partition() + "-" + record.offset();
+    }
+
+    /**
+     * 새로 저장할 레코드에 대해서만 방별 seq 범위를 한 번에 예약하고 레코드 순서대로 부여
+     */
+    private List<ChatMessageDocument> toDocuments(Map<String, ConsumerRecord<String, ChatKafkaMessage>> recordsByKey) {
+        Map<String, Integer> countsByRoom = new LinkedHashMap<>();
+        for (ConsumerRecord<String, ChatKafkaMessage> record : recordsByKey.values()) {
+            countsByRoom.merge(record.value().getRoomId(), 1, Integer::sum);
+        }
+
+        // 같은 방의 메시지는 같은 파티션(key=roomId)으로 들어오므로 Kafka 순서대로 seq가 부여된다
+        Map<String, Long> nextSeqByRoom = new HashMap<>();
+        countsByRoom.forEach((roomId, count) -> nextSeqByRoom.put(roomId, roomSequenceService.reserve(roomId, count)));
+
+        List<ChatMessageDocument> documents = new ArrayList<>(recordsByKey.size());
+        for (Map.Entry<String, ConsumerRecord<String, ChatKafkaMessage>> entry : recordsByKey.entrySet()) {
+            ChatKafkaMessage message = entry.getValue().value();
+            long seq = nextSeqByRoom.merge(message.getRoomId(), 1L, Long::sum) - 1;
+            documents.add(ChatMessageDocument.builder()
+                    .id(new ObjectId().toHexString()) // 버킷에서 참조하도록 미리 발급
+                    .roomId(message.getRoomId())
+                    .seq(seq)
+                    .sender(message.getSender())
+                    .message(message.getMessage())
+                    .timestamp(message.getTimestamp() != null ? message.getTimestamp() : Instant.now())
+                    .messageType(message.getMessageType())
+                    .status("PENDING")
+                    .sourceKey(entry.getKey())
+                    .build());
+        }
+        return documents;
+    }
+
+    /**
+     * 재전달로 중복된 문서는 실제 저장돼 있는 문서(원래 seq)로 바꿔서 버킷에 넘긴다
+     */
+    private void appendToBuckets(List<ChatMessageDocument> documents, List<ChatMessageDocument> duplicates,
+                                 List<ChatMessageDocument> stored) {
+        if (duplicates.isEmpty()) {
+            if (stored.isEmpty()) {
+                chatMessageBucketService.append(documents);
+            } else {
+                chatMessageBucketService.append(documents, stored);
+            }
+            return;
+        }
+
+        Set<ChatMessageDocument> duplicateSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        duplicateSet.addAll(duplicates);
+        List<ChatMessageDocument> inserted = new ArrayList<>(documents.size());
+        for (ChatMessageDocument document : documents) {
+            if (!duplicateSet.contains(document)) {
+                inserted.add(document);
+            }
+        }
+
+        List<String> sourceKeys = duplicates.stream().map(ChatMessageDocument::getSourceKey).toList();
+        List<ChatMessageDocument> redelivered = new ArrayList<>(stored);
+        redelivered.addAll(mongoTemplate.find(
+                Query.query(Criteria.where("sourceKey").in(sourceKeys)), ChatMessageDocument.class));
+        chatMessageBucketService.append(inserted, redelivered);
+    }
+
+    /**
+     * @return 저장했으면 true, 이미 저장돼 있었으면 false
+     */
+    private boolean insertWithRetry(ChatMessageDocument document) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                mongoTemplate.insert(document);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false; // 이미 저장됨
+            } catch (RuntimeException e) {
+                if (attempt >= insertRetries) {
+                    log.error("메시지 저장 실패: roomId={}, sourceKey={}", document.getRoomId(), document.getSourceKey(), e);
+                    throw e;
+                }
+                log.warn("메시지 저장 재시도: roomId={}, sourceKey={}, attempt={}", document.getRoomId(), document.getSourceKey(), attempt);
+            }
+        }
+    }
 }
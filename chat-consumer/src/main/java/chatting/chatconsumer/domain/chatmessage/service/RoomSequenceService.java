@@ -0,0 +1,37 @@
+package chatting.chatconsumer.domain.chatmessage.service;
+
+import chatting.chatconsumer.domain.chatmessage.document.RoomSequence;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+@Service
+@RequiredArgsConstructor
+public class RoomSequenceService {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 방의 다음 seq 부여 (1부터 시작)
+     */
+    public long next(String roomId) {
+        return reserve(roomId, 1);
+    }
+
+    /**
+     * count개의 연속된 seq를 한 번에 예약하고 첫 번째 값을 반환
+     * - $inc 한 번으로 원자적으로 처리되므로 여러 스레드/인스턴스가 동시에 호출해도 범위가 겹치지 않음
+     */
+    public long reserve(String roomId, int count) {
+        RoomSequence sequence = mongoTemplate.findAndModify(
+                Query.query(Criteria.where("_id").is(roomId)),
+                new Update().inc("seq", count),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                RoomSequence.class);
+        return sequence.getSeq() - count + 1;
+    }
+}
@@ -0,0 +1,11 @@
+package chatting.chatconsumer.domain.chatmessage.service;
+
+/**
+ * chat.storage.mode
+ * - DOCUMENT: chat_messages_ind만 기록
+ * - BUCKET: chat_messages_ind + chat_message_buckets 함께 기록
+ */
+public enum StorageMode {
+    DOCUMENT,
+    BUCKET
+}
@@ -0,0 +1,16 @@
+package chatting.chatconsumer.kafka.codec;
+
+/**
+ * Kafka 레코드 값 포맷
+ * - 롤아웃 중에는 JSON/BINARY가 섞여 들어오므로 읽는 쪽은 항상 둘 다 처리한다
+ */
+public enum WireFormat {
+    JSON,
+    BINARY;
+
+    public static final String FORMAT_HEADER = "wire-format";
+    public static final String SCHEMA_VERSION_HEADER = "schema-version";
+
+    // 바이너리 값의 첫 바이트 (JSON은 '{'로 시작하므로 헤더가 없어도 구분 가능)
+    public static final byte BINARY_MAGIC = (byte) 0xCB;
+}
@@ -0,0 +1,78 @@
+package chatting.chatconsumer.kafka.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 헤더(또는 첫 바이트)를 보고 BINARY/JSON을 구분해 읽는다
+ * - 헤더가 없는 기존 JSON 레코드도 그대로 읽히도록 JSON으로 fallback
+ */
+public class WireFormatDeserializer<T> implements Deserializer<T> {
+
+    private static final byte[] BINARY_HEADER = WireFormat.BINARY.name().getBytes(StandardCharsets.UTF_8);
+
+    private final BinaryCodec<T> codec;
+    private final JsonDeserializer<T> jsonDeserializer;
+
+    public WireFormatDeserializer(BinaryCodec<T> codec, JsonDeserializer<T> jsonDeserializer) {
+        this.codec = codec;
+        this.jsonDeserializer = jsonDeserializer;
+    }
+
+    @Override
+    public T deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (isBinary(data)) {
+            return decodeBinary(data);
+        }
+        return jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public T deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        Header formatHeader = headers.lastHeader(WireFormat.FORMAT_HEADER);
+        boolean binary = formatHeader != null
+                ? Arrays.equals(formatHeader.value(), BINARY_HEADER)
+                : isBinary(data);
+        if (binary) {
+            return decodeBinary(data);
+        }
+        return jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    private boolean isBinary(byte[] data) {
+        return data.length > 1 && data[0] == WireFormat.BINARY_MAGIC;
+    }
+
+    private T decodeBinary(byte[] data) {
+        if (!isBinary(data)) {
+            throw new SerializationException("바이너리 포맷 magic 불일치");
+        }
+        int schemaVersion = data[1] & 0xFF;
+        if (schemaVersion > codec.schemaVersion()) {
+            // 새 버전 writer가 먼저 배포된 경우 - reader를 먼저 올려야 한다
+            throw new SerializationException("지원하지 않는 스키마 버전: " + schemaVersion);
+        }
+        try {
+            return codec.decode(schemaVersion, new BinaryReader(data, 2));
+        } catch (RuntimeException e) {
+            throw new SerializationException("바이너리 역직렬화 실패", e);
+        }
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+}
@@ -0,0 +1,68 @@
+package chatting.chatconsumer.kafka.codec;
+
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Serializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 설정된 포맷(JSON/BINARY)으로 값을 쓰고 헤더에 포맷과 스키마 버전을 남긴다
+ */
+public class WireFormatSerializer<T> implements Serializer<T> {
+
+    private final BinaryCodec<T> codec;
+    private final WireFormat format;
+    private final JsonSerializer<T> jsonSerializer;
+    private final byte[] schemaVersionHeader;
+
+    public WireFormatSerializer(BinaryCodec<T> codec, WireFormat format) {
+        this.codec = codec;
+        this.format = format;
+        this.jsonSerializer = new JsonSerializer<>();
+        this.jsonSerializer.setAddTypeInfo(false);
+        this.schemaVersionHeader = String.valueOf(codec.schemaVersion()).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public byte[] serialize(String topic, T data) {
+        if (data == null) {
+            return null;
+        }
+        if (format == WireFormat.JSON) {
+            return jsonSerializer.serialize(topic, data);
+        }
+        return encodeBinary(data);
+    }
+
+    @Override
+    public byte[] serialize(String topic, Headers headers, T data) {
+        if (data == null) {
+            return null;
+        }
+        headers.remove(WireFormat.FORMAT_HEADER);
+        headers.add(WireFormat.FORMAT_HEADER, format.name().getBytes(StandardCharsets.UTF_8));
+        if (format == WireFormat.JSON) {
+            return jsonSerializer.serialize(topic, headers, data);
+        }
+        headers.remove(WireFormat.SCHEMA_VERSION_HEADER);
+        headers.add(WireFormat.SCHEMA_VERSION_HEADER, schemaVersionHeader);
+        return encodeBinary(data);
+    }
+
+    /**
+     * [magic][schemaVersion][필드...]
+     */
+    private byte[] encodeBinary(T data) {
+        BinaryWriter writer = new BinaryWriter(128);
+        writer.writeByte(WireFormat.BINARY_MAGIC);
+        writer.writeByte(codec.schemaVersion());
+        codec.encode(data, writer);
+        return writer.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        jsonSerializer.close();
+    }
+}
@@ -1,19 +1,40 @@
 package chatting.chatconsumer.kafka.config;
 
 
+import chatting.chatconsumer.kafka.codec.ChatKafkaMessageCodec;
+import chatting.chatconsumer.kafka.codec.WireFormatDeserializer;
 import chatting.chatconsumer.kafka.dto.ChatKafkaMessage;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @Configuration
@@ -26,17 +47,33 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String groupId;
 
+    @Value("${chat.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    // 저장 실패 시 재시도 간격
+    @Value("${chat.consumer.retry-interval-ms:1000}")
+    private long retryIntervalMs;
+
+    // Mongo 장애 같은 일시적 오류가 아닌 실패는 이 횟수만큼 재시도한 뒤 DLT로 보낸다
+    @Value("${chat.consumer.max-retries:9}")
+    private long maxRetries;
+
     @Bean
     public ConsumerFactory<String, ChatKafkaMessage> consumerFactory() {
-        JsonDeserializer<ChatKafkaMessage> deserializer = new JsonDeserializer<>(ChatKafkaMessage.class);
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.addTrustedPackages("*");
-        deserializer.setUseTypeMapperForKey(true);
+        JsonDeserializer<ChatKafkaMessage> jsonDeserializer = new JsonDeserializer<>(ChatKafkaMessage.class);
+        jsonDeserializer.setRemoveTypeHeaders(false);
+        jsonDeserializer.addTrustedPackages("*");
+        jsonDeserializer.setUseTypeMapperForKey(true);
+        // 헤더로 JSON/BINARY를 구분 (롤아웃 중 두 포맷이 섞여 들어옴)
+        // 읽을 수 없는 레코드는 poll 전체를 막지 않도록 값 대신 예외 헤더로 넘긴다 (리스너가 DLT로 보냄)
+        ErrorHandlingDeserializer<ChatKafkaMessage> deserializer = new ErrorHandlingDeserializer<>(
+                new WireFormatDeserializer<>(new ChatKafkaMessageCodec(), jsonDeserializer));
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
         props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
 
@@ -44,10 +81,60 @@ public class KafkaConsumerConfig {
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, ChatKafkaMessage> kafkaListenerContainerFactory() {
+    public ConcurrentKafkaListenerContainerFactory<String, ChatKafkaMessage> kafkaListenerContainerFactory(
+            KafkaTemplate<String, ChatKafkaMessage> kafkaTemplate,
+            KafkaTemplate<String, byte[]> deadLetterBytesTemplate) {
         ConcurrentKafkaListenerContainerFactory<String, ChatKafkaMessage> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        // poll된 레코드를 한 번에 받아 bulk insert, 리스너가 정상 반환한 뒤에 배치 오프셋 커밋
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.BATCH);
+        factory.setCommonErrorHandler(errorHandler(kafkaTemplate, deadLetterBytesTemplate));
         return factory;
     }
+
+    /**
+     * 역직렬화 실패 레코드를 원본 바이트 그대로 DLT에 보관
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> deadLetterBytesTemplate() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        return new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(props, new StringSerializer(), new ByteArraySerializer()));
+    }
+
+    /**
+     * 실패 레코드(BatchListenerFailedException) 재시도 후 {topic}.DLT로 이동
+     * - 일시적 오류(Mongo 연결/타임아웃)는 저장 가능할 때까지 재시도 (정상 메시지를 DLT로 보내지 않음)
+     * - 그 외 오류는 maxRetries 후 DLT, 역직렬화/데이터 오류는 재시도 없이 바로 DLT
+     */
+    private DefaultErrorHandler errorHandler(KafkaTemplate<String, ChatKafkaMessage> kafkaTemplate,
+                                             KafkaTemplate<String, byte[]> deadLetterBytesTemplate) {
+        Map<Class<?>, KafkaOperations<?, ?>> templates = new LinkedHashMap<>();
+        templates.put(ChatKafkaMessage.class, kafkaTemplate);
+        templates.put(byte[].class, deadLetterBytesTemplate);
+        // 파티션은 producer가 고르도록 (DLT 파티션 수가 원본과 달라도 됨)
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(templates,
+                (record, ex) -> new TopicPartition(record.topic() + ".DLT", -1));
+
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, new FixedBackOff(retryIntervalMs, maxRetries));
+        errorHandler.setBackOffFunction((record, ex) -> isTransient(ex)
+                ? new FixedBackOff(retryIntervalMs, FixedBackOff.UNLIMITED_ATTEMPTS)
+                : null);
+        errorHandler.addNotRetryableExceptions(DataIntegrityViolationException.class, InvalidDataAccessApiUsageException.class);
+        return errorHandler;
+    }
+
+    private static boolean isTransient(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof MongoSocketException
+                    || cause instanceof MongoTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
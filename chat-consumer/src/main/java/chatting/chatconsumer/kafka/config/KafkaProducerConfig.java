@@ -1,5 +1,8 @@
 package chatting.chatconsumer.kafka.config;
 
+import chatting.chatconsumer.kafka.codec.ChatKafkaMessageCodec;
+import chatting.chatconsumer.kafka.codec.WireFormat;
+import chatting.chatconsumer.kafka.codec.WireFormatSerializer;
 import chatting.chatconsumer.kafka.dto.ChatKafkaMessage;
 import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringSerializer;
@@ -9,7 +12,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -20,14 +22,17 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // 값 포맷 (json | binary) - 모든 reader가 바이너리를 읽을 수 있게 배포된 뒤에 binary로 전환
+    @Value("${chat.kafka.wire-format:json}")
+    private WireFormat wireFormat;
+
     @Bean
     public ProducerFactory<String, ChatKafkaMessage> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+                new WireFormatSerializer<>(new ChatKafkaMessageCodec(), wireFormat));
     }
 
     @Bean
@@ -1,41 +1,169 @@
 package chatting.chatconsumer.kafka.consumer;
 
 import chatting.chatconsumer.kafka.producer.KafkaSendMsgProducer;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.serializer.SerializationUtils;
 import org.springframework.stereotype.Component;
-import chatting.chatconsumer.domain.chat.dto.ChatMessage;
 import chatting.chatconsumer.domain.chatmessage.service.ChatMessageMongoService;
 import chatting.chatconsumer.kafka.dto.ChatKafkaMessage;
 
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class KafkaChatConsumer {
 
     private final ChatMessageMongoService chatMessageMongoService;
     private final KafkaSendMsgProducer kafkaSendMsgProducer;
 
+    // 한 배치(파티션 포함)를 roomId 기준 lane으로 나눠 병렬 저장, 같은 방은 항상 같은 lane → 방 내 순서 유지
+    private final int parallelism;
+    private final ExecutorService workers;
+
+    public KafkaChatConsumer(ChatMessageMongoService chatMessageMongoService,
+                             KafkaSendMsgProducer kafkaSendMsgProducer,
+                             @Value("${chat.consumer.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int parallelism) {
+        this.chatMessageMongoService = chatMessageMongoService;
+        this.kafkaSendMsgProducer = kafkaSendMsgProducer;
+        this.parallelism = Math.max(1, parallelism);
+        AtomicInteger threadSeq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.parallelism, r -> {
+            Thread thread = new Thread(r, "chat-persist-" + threadSeq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 배치 단위 수신 - 리스너가 정상 반환해야 배치 오프셋이 커밋된다
+     * - 일부 lane이 실패하면 실패 레코드 중 가장 앞선 위치를 BatchListenerFailedException으로 알려
+     *   그 앞(연속으로 완료된 구간)까지만 커밋하고 나머지는 재전달 (이미 저장된 건 eventId 기반 sourceKey로 건너뜀)
+     * - 역직렬화에 실패한 레코드는 그 앞까지만 저장하고 실패로 알려 DLT로 보낸다 (null 값으로 조용히 버리지 않음)
+     */
     @KafkaListener(topics = "chat-message", groupId = "${spring.kafka.consumer.group-id}",
             containerFactory = "kafkaListenerContainerFactory")
-    public void consume(ChatKafkaMessage message) {
-        log.info("Kafka 메시지 수신: {}", message);
-
-        // 1. MongoDB 저장
-        chatMessageMongoService.saveMessage(
-                message.getRoomId(),
-                message.getSender(),
-                message.getMessage(),
-                message.getMessageType(),
-                message.getTimestamp() != null ? message.getTimestamp() : Instant.now()
-        );
+    public void consume(List<ConsumerRecord<String, ChatKafkaMessage>> records) {
+        log.info("Kafka 메시지 배치 수신: count={}", records.size());
+
+        int undecodable = firstUndecodable(records);
+        save(undecodable < 0 ? records : records.subList(0, undecodable));
+        if (undecodable >= 0) {
+            throw new BatchListenerFailedException("채팅 메시지 역직렬화 실패", undecodable);
+        }
 
         // 2. 저장 완료 후 다시 Kafka로 전송
 //        kafkaSendMsgProducer.send(message);
     }
-}
 
+    private void save(List<ConsumerRecord<String, ChatKafkaMessage>> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        if (parallelism == 1 || records.size() < 2) {
+            // 1. MongoDB 저장 (bulk insert)
+            try {
+                chatMessageMongoService.saveMessages(records);
+            } catch (BatchListenerFailedException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new BatchListenerFailedException("채팅 메시지 저장 실패", e, 0);
+            }
+            return;
+        }
+
+        // 레코드 순서를 유지한 채 lane별로 분배
+        List<List<Integer>> laneIndexes = new ArrayList<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            laneIndexes.add(new ArrayList<>());
+        }
+        for (int i = 0; i < records.size(); i++) {
+            laneIndexes.get(laneOf(records.get(i))).add(i);
+        }
+
+        List<List<Integer>> submittedLanes = new ArrayList<>();
+        List<Future<?>> futures = new ArrayList<>();
+        for (List<Integer> indexes : laneIndexes) {
+            if (indexes.isEmpty()) {
+                continue;
+            }
+            List<ConsumerRecord<String, ChatKafkaMessage>> lane = new ArrayList<>(indexes.size());
+            indexes.forEach(i -> lane.add(records.get(i)));
+            submittedLanes.add(indexes);
+            futures.add(workers.submit(() -> chatMessageMongoService.saveMessages(lane)));
+        }
+
+        int firstFailedIndex = records.size();
+        Throwable failure = null;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("채팅 메시지 저장 대기 중 인터럽트", e);
+            } catch (ExecutionException e) {
+                // 저장에 실패한 레코드를 알면 그 위치, 모르면 lane의 첫 위치
+                int failedIndex = submittedLanes.get(i).get(0);
+                Throwable cause = e.getCause();
+                if (cause instanceof BatchListenerFailedException failed) {
+                    int recordIndex = indexOf(records, failed.getRecord());
+                    if (recordIndex >= 0) {
+                        failedIndex = recordIndex;
+                    }
+                    cause = failed.getCause() != null ? failed.getCause() : failed;
+                }
+                if (failedIndex < firstFailedIndex) {
+                    firstFailedIndex = failedIndex;
+                    failure = cause;
+                }
+            }
+        }
+
+        if (failure != null) {
+            log.error("채팅 메시지 배치 일부 저장 실패: count={}, firstFailedIndex={}", records.size(), firstFailedIndex, failure);
+            throw new BatchListenerFailedException("채팅 메시지 저장 실패", failure, firstFailedIndex);
+        }
+    }
+
+    // ErrorHandlingDeserializer가 값 대신 예외 헤더를 남긴 첫 레코드
+    private int firstUndecodable(List<ConsumerRecord<String, ChatKafkaMessage>> records) {
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, ChatKafkaMessage> record = records.get(i);
+            if (record.value() == null
+                    && record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(List<ConsumerRecord<String, ChatKafkaMessage>> records, ConsumerRecord<?, ?> record) {
+        for (int i = 0; record != null && i < records.size(); i++) {
+            if (records.get(i) == record) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int laneOf(ConsumerRecord<String, ChatKafkaMessage> record) {
+        String roomId = record.key() != null ? record.key()
+                : record.value() != null ? record.value().getRoomId() : null;
+        return roomId == null ? 0 : (roomId.hashCode() & 0x7fffffff) % parallelism;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+    }
+}
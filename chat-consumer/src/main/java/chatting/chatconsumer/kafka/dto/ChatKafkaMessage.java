@@ -17,6 +17,9 @@ public class ChatKafkaMessage {
     private String message;
     private Instant timestamp;
     private String messageType; // ENTER / TALK / LEAVE
+    private String clientMessageId; // 클라이언트가 전송 확인(receipt) 매칭에 사용
+    private Long seq; // 방 단위 순번 (chat-consumer가 저장 시 부여, 그 전에는 null)
+    private String messageId; // chat_messages_ind _id (chat-consumer가 저장 시 부여, 그 전에는 null)
 
     public static ChatKafkaMessage from(chatting.chatconsumer.domain.chat.dto.ChatMessage chatMessage) {
         return ChatKafkaMessage.builder()
@@ -25,6 +28,7 @@ public class ChatKafkaMessage {
                 .message(chatMessage.getMessage())
                 .timestamp(chatMessage.getTimestamp())
                 .messageType(chatMessage.getMessageType().name())
+                .clientMessageId(chatMessage.getClientMessageId())
                 .build();
     }
 } 
\ No newline at end of file
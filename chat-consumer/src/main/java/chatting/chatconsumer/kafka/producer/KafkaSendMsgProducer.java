@@ -3,8 +3,11 @@ package chatting.chatconsumer.kafka.producer;
 import chatting.chatconsumer.kafka.dto.ChatKafkaMessage;
 import lombok.RequiredArgsConstructor;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @RequiredArgsConstructor
 public class KafkaSendMsgProducer {
@@ -12,8 +15,8 @@ public class KafkaSendMsgProducer {
     private final KafkaTemplate<String, ChatKafkaMessage> kafkaTemplate;
     private static final String TOPIC_NAME = "chat-message-sent";
 
-    public void send(ChatKafkaMessage message) {
+    public CompletableFuture<SendResult<String, ChatKafkaMessage>> send(ChatKafkaMessage message) {
         // roomId를 key로 사용하여 메시지 전송
-        kafkaTemplate.send(TOPIC_NAME, message.getRoomId(), message);
+        return kafkaTemplate.send(TOPIC_NAME, message.getRoomId(), message);
     }
 }
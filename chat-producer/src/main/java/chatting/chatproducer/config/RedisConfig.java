@@ -1,9 +1,13 @@
 package chatting.chatproducer.config;
 
+import chatting.chatproducer.domain.presence.service.PresenceService;
+import chatting.chatproducer.domain.room.cache.RoomCacheInvalidator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
 @Configuration
 public class RedisConfig {
@@ -12,4 +16,18 @@ public class RedisConfig {
     public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory) {
         return new StringRedisTemplate(connectionFactory);
     }
+
+    /**
+     * 인스턴스 간 알림 구독 (로컬 캐시 무효화, presence 변화분)
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       RoomCacheInvalidator roomCacheInvalidator,
+                                                                       PresenceService presenceService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(roomCacheInvalidator, new ChannelTopic(RoomCacheInvalidator.CHANNEL));
+        container.addMessageListener(presenceService, new ChannelTopic(PresenceService.CHANNEL));
+        return container;
+    }
 }
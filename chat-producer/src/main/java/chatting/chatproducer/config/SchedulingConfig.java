@@ -0,0 +1,30 @@
+package chatting.chatproducer.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+/**
+ * @Scheduled 작업 스레드 풀
+ * - 기본 스케줄러는 단일 스레드라 Outbox 연속 배치처럼 오래 도는 작업이 병합 heartbeat를 밀어내면
+ *   실행 중인 병합을 다른 인스턴스가 끊긴 것으로 보고 가져갈 수 있음
+ * - fixedDelay 작업은 동시에 한 스레드만 쓰므로 작업 수 이상이면 서로 막지 않음
+ */
+@Configuration
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    @Value("${chat.scheduling.pool-size:10}")
+    private int poolSize;
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("scheduled-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(false);
+        scheduler.initialize();
+        taskRegistrar.setTaskScheduler(scheduler);
+    }
+}
@@ -1,7 +1,8 @@
 package chatting.chatproducer.domain.chat.controller;
 
-import chatting.chatproducer.domain.chat.service.ChatService;
-import chatting.chatproducer.domain.room.entity.RoomUser;
+import chatting.chatproducer.domain.chat.dto.ReadReceipt;
+import chatting.chatproducer.domain.outbox.service.OutboxService;
+import chatting.chatproducer.domain.room.read.ReadPositionTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
@@ -13,31 +14,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import chatting.chatproducer.domain.chat.dto.ChatMessage;
 import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
-import chatting.chatproducer.kafka.producer.KafkaChatProducer;
-import chatting.chatproducer.domain.room.repository.RoomUserRepository;
 import chatting.chatproducer.domain.room.service.ChatRoomService;
 
 import java.time.Instant;
-import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 @RequiredArgsConstructor
 @RestController
 @RequestMapping("/chat")
 public class ChatController {
-    private final ChatService chatService;
     private final SimpMessagingTemplate messagingTemplate;
-    private final RoomUserRepository roomUserRepository;
     private final ChatRoomService chatRoomService;
-    private final KafkaChatProducer kafkaChatProducer;
-
-    // 사용자별 현재 접속한 방을 저장하는 Map
-    private static final ConcurrentHashMap<String, String> userSessions = new ConcurrentHashMap<>();
-
-    private final Map<String, Set<String>> userJoinedRooms = new ConcurrentHashMap<>();
-
+    private final OutboxService outboxService;
+    private final ReadPositionTracker readPositionTracker;
 
     // 사용자가 입장했을 때
     @MessageMapping("/chat/addUser/{roomId}")
@@ -50,24 +39,11 @@ public class ChatController {
         headerAccessor.getSessionAttributes().put("username", username);
 
         // 최초 입장인지 확인
-//        boolean isFirstEnter = userJoinedRooms
-//                .computeIfAbsent(roomId, key -> ConcurrentHashMap.newKeySet())
-//                .add(username); // 이 때 최초 입장이면 true 반환됨
-        boolean isFirstEnter = !roomUserRepository.existsById(
-                new RoomUser.RoomUserId(roomId, username)
-        );
+        // 이미 참여한 방이면 멤버십 캐시에서 끝난다 (DB 조회 없음)
+        boolean isFirstEnter = !chatRoomService.isMember(roomId, username);
 
         if (isFirstEnter) {
-            ChatKafkaMessage kafkaMessage = ChatKafkaMessage.builder()
-                    .roomId(roomId)
-                    .sender(username)
-                    .message(username + "님이 입장하셨습니다.")
-                    .timestamp(Instant.now())
-                    .messageType("ENTER")
-                    .build();
-
-            kafkaChatProducer.sendMessage(kafkaMessage);
-
+            // 멤버 등록 + 입장 메시지 Outbox 기록 (동일 트랜잭션)
             chatRoomService.joinRoom(roomId, username);
             messagingTemplate.convertAndSend("/sub/user/" + username + "/room-refresh", "refresh");
         }
@@ -79,11 +55,6 @@ public class ChatController {
     public void leaveUser(@DestinationVariable String roomId, @Payload ChatMessage chatMessage) {
         String username = chatMessage.getSender();
 
-        // 사용자가 현재 방에 있는지 확인
-        if (userSessions.containsKey(username)) {
-            userSessions.remove(username); // 사용자 제거
-        }
-
         ChatKafkaMessage kafkaMessage = ChatKafkaMessage.builder()
                 .roomId(roomId)
                 .sender(username)
@@ -92,7 +63,7 @@ public class ChatController {
                 .messageType("LEAVE")
                 .build();
 
-        kafkaChatProducer.sendMessage(kafkaMessage);
+        outboxService.appendChatMessage(kafkaMessage);
     }
 
     @MessageMapping("/chat/message")
@@ -100,17 +71,29 @@ public class ChatController {
         log.info(">>> WebSocket 메시지 수신: roomId={}, sender={}, message={}, timestamp={}",
                 message.getRoomId(), message.getSender(), message.getMessage(), message.getTimestamp());
 
-        Instant now = Instant.now();
-        if (message.getTimestamp() == null) {
-            message.setTimestamp(now);
-        }
+        // 클라이언트 시각은 신뢰하지 않고 서버 시각으로 덮어쓴다 (순서는 chat-consumer가 부여하는 seq 기준)
+        message.setTimestamp(Instant.now());
 
         // Kafka 메시지로 변환
         ChatKafkaMessage kafkaMessage = ChatKafkaMessage.from(message);
 
-        // Kafka로 전송
-        kafkaChatProducer.sendMessage(kafkaMessage);
+        // Outbox에 기록 (Kafka 전송은 OutboxPublisher가 수행)
+        outboxService.appendChatMessage(kafkaMessage);
     }
 
-
+    /**
+     * 읽음 위치 갱신 - 메모리만 갱신하고 DB 반영은 ReadPositionTracker가 모아서 처리
+     * 같은 사용자의 다른 화면(탭)도 배지를 지우도록 사용자 채널로 알린다
+     */
+    @MessageMapping("/chat/read")
+    public void read(@Payload ReadReceipt receipt) {
+        if (receipt.getRoomId() == null || receipt.getUserId() == null) {
+            return;
+        }
+        if (readPositionTracker.markRead(receipt.getRoomId(), receipt.getUserId(), receipt.getSeq())) {
+            // head로 제한된 실제 위치를 알린다
+            receipt.setSeq(readPositionTracker.lastRead(receipt.getRoomId(), receipt.getUserId()));
+            messagingTemplate.convertAndSend("/sub/user/" + receipt.getUserId() + "/read", receipt);
+        }
+    }
 }
@@ -19,6 +19,8 @@ public class ChatMessage {
     private String sender;
     private String message;
     private Instant timestamp;
+    private String clientMessageId;
+    private Long seq; // 방 단위 순번 (서버가 부여, 클라이언트는 누락 감지에 사용)
 
     public static ChatMessage leaveMessage(String roomId, String sender) {
         return ChatMessage.builder()
@@ -0,0 +1,60 @@
+package chatting.chatproducer.domain.chat.dto;
+
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class DeliveryReceipt {
+    public enum Status {
+        SENT,   // 브로커 저장 완료
+        QUEUED, // 로컬 저널에 보관, 브로커 복구 후 전송
+        FAILED
+    }
+
+    private String clientMessageId;
+    private String roomId;
+    private Status status;
+    private Integer partition;
+    private Long offset;
+    private String reason;
+    private Instant timestamp;
+
+    public static DeliveryReceipt sent(ChatKafkaMessage message, int partition, long offset) {
+        return DeliveryReceipt.builder()
+                .clientMessageId(message.getClientMessageId())
+                .roomId(message.getRoomId())
+                .status(Status.SENT)
+                .partition(partition)
+                .offset(offset)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    public static DeliveryReceipt queued(ChatKafkaMessage message, String reason) {
+        return DeliveryReceipt.builder()
+                .clientMessageId(message.getClientMessageId())
+                .roomId(message.getRoomId())
+                .status(Status.QUEUED)
+                .reason(reason)
+                .timestamp(Instant.now())
+                .build();
+    }
+
+    public static DeliveryReceipt failed(ChatKafkaMessage message, String reason) {
+        return DeliveryReceipt.builder()
+                .clientMessageId(message.getClientMessageId())
+                .roomId(message.getRoomId())
+                .status(Status.FAILED)
+                .reason(reason)
+                .timestamp(Instant.now())
+                .build();
+    }
+}
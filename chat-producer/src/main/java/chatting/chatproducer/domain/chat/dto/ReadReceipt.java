@@ -0,0 +1,19 @@
+package chatting.chatproducer.domain.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 읽음 위치 - /pub/chat/read 요청과 /sub/user/{userId}/read 알림에 함께 사용
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReadReceipt {
+    private String roomId;
+    private String userId;
+    private long seq; // 마지막으로 읽은 메시지 seq
+}
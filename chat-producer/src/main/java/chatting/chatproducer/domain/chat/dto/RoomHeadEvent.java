@@ -0,0 +1,19 @@
+package chatting.chatproducer.domain.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * /sub/chat/room/{roomId}/head 페이로드
+ * - 방 목록 화면은 seq - lastReadSeq로 안 읽은 수를 계산
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomHeadEvent {
+    private String roomId;
+    private long seq;
+}
@@ -0,0 +1,19 @@
+package chatting.chatproducer.domain.chat.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * /sub/chat/room/{roomId}/refresh 페이로드
+ * - 클라이언트는 afterSeq 이후만 delta API로 가져온다
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomRefreshEvent {
+    private String roomId;
+    private long afterSeq;
+}
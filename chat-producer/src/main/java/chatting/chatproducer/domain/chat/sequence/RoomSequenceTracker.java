@@ -0,0 +1,64 @@
+package chatting.chatproducer.domain.chat.sequence;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 방별로 이 인스턴스가 마지막으로 전달한 seq (인스턴스 로컬, Redis 왕복 없음)
+ * - 방을 stripe로 나눠 stripe 단위로 잠근다
+ */
+@Component
+public class RoomSequenceTracker {
+
+    public static final long NONE = -1L;
+
+    private final Map<String, Long>[] stripes;
+
+    @SuppressWarnings("unchecked")
+    public RoomSequenceTracker(@Value("${chat.sequence.stripes:64}") int stripeCount) {
+        this.stripes = new Map[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new HashMap<>();
+        }
+    }
+
+    /**
+     * seq가 마지막으로 전달한 값보다 크면 갱신하고, 갱신 전 값을 반환 (추적 중이 아니면 NONE)
+     * - 반환값 >= seq 이면 재전송된 중복
+     * - 반환값 + 1 < seq 이면 중간 누락(gap)
+     */
+    public long advance(String roomId, long seq) {
+        Map<String, Long> stripe = stripeOf(roomId);
+        synchronized (stripe) {
+            Long last = stripe.get(roomId);
+            if (last == null || seq > last) {
+                stripe.put(roomId, seq);
+            }
+            return last == null ? NONE : last;
+        }
+    }
+
+    /**
+     * 로컬 구독자가 없어진 방은 레코드를 건너뛰므로 추적을 끊는다 (다시 구독하면 처음부터)
+     */
+    public void forget(String roomId) {
+        Map<String, Long> stripe = stripeOf(roomId);
+        synchronized (stripe) {
+            stripe.remove(roomId);
+        }
+    }
+
+    public Long lastSeq(String roomId) {
+        Map<String, Long> stripe = stripeOf(roomId);
+        synchronized (stripe) {
+            return stripe.get(roomId);
+        }
+    }
+
+    private Map<String, Long> stripeOf(String roomId) {
+        return stripes[(roomId.hashCode() & 0x7fffffff) % stripes.length];
+    }
+}
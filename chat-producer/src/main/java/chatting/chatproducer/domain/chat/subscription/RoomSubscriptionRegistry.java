@@ -0,0 +1,107 @@
+package chatting.chatproducer.domain.chat.subscription;
+
+import chatting.chatproducer.domain.chat.sequence.RoomSequenceTracker;
+import chatting.chatproducer.domain.chatmessage.cache.RecentMessageCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 이 인스턴스에 붙은 WebSocket 세션들의 채팅방 구독 현황 (인스턴스 로컬)
+ * - /sub/chat/room/{roomId} 및 그 하위 destination 구독을 방 단위로 집계
+ * - chat-message-sent 팬아웃에서 로컬 구독자가 없는 방의 레코드를 역직렬화 전에 버리는 데 사용
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomSubscriptionRegistry {
+
+    private static final String ROOM_DESTINATION_PREFIX = "/sub/chat/room/";
+
+    // sessionId -> (subscriptionId -> roomId)
+    private final Map<String, Map<String, String>> sessionSubscriptions = new ConcurrentHashMap<>();
+    // roomId -> 구독 수
+    private final Map<String, Integer> roomSubscriberCounts = new ConcurrentHashMap<>();
+
+    private final RoomSequenceTracker roomSequenceTracker;
+    private final RecentMessageCache recentMessageCache;
+
+    public boolean hasSubscribers(String roomId) {
+        return roomId != null && roomSubscriberCounts.containsKey(roomId);
+    }
+
+    public int getSubscribedRoomCount() {
+        return roomSubscriberCounts.size();
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String roomId = extractRoomId(accessor.getDestination());
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        if (roomId == null || sessionId == null || subscriptionId == null) {
+            return;
+        }
+
+        String previous = sessionSubscriptions
+                .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, roomId);
+        if (previous != null) {
+            decrement(previous);
+        }
+        roomSubscriberCounts.merge(roomId, 1, Integer::sum);
+        log.debug("방 구독 등록: sessionId={}, roomId={}", sessionId, roomId);
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = sessionSubscriptions.get(accessor.getSessionId());
+        if (subscriptions == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String roomId = subscriptions.remove(accessor.getSubscriptionId());
+        if (roomId != null) {
+            decrement(roomId);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessionSubscriptions.remove(event.getSessionId());
+        if (subscriptions == null) {
+            return;
+        }
+        subscriptions.values().forEach(this::decrement);
+        log.debug("세션 종료로 구독 해제: sessionId={}, subscriptions={}", event.getSessionId(), subscriptions.size());
+    }
+
+    private void decrement(String roomId) {
+        // 0이 되면 키를 제거해서 hasSubscribers가 containsKey 한 번으로 끝나도록
+        Integer remaining = roomSubscriberCounts.computeIfPresent(roomId, (id, count) -> count > 1 ? count - 1 : null);
+        if (remaining == null) {
+            roomSequenceTracker.forget(roomId);
+            // 더 이상 스트림을 받지 않으므로 버퍼도 최신 상태를 보장할 수 없다
+            recentMessageCache.invalidate(roomId);
+        }
+    }
+
+    private String extractRoomId(String destination) {
+        if (destination == null || !destination.startsWith(ROOM_DESTINATION_PREFIX)) {
+            return null;
+        }
+        int start = ROOM_DESTINATION_PREFIX.length();
+        int end = destination.indexOf('/', start);
+        String roomId = end < 0 ? destination.substring(start) : destination.substring(start, end);
+        return roomId.isEmpty() ? null : roomId;
+    }
+}
@@ -0,0 +1,290 @@
+package chatting.chatproducer.domain.chatmessage.cache;
+
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageBucket;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageCursor;
+import chatting.chatproducer.domain.chatmessage.dto.HistoryCacheStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 방별 최근 메시지 ring buffer (인스턴스 로컬)
+ * - chat-message-sent로 전달되는 메시지로 채우고, seq가 연속인 동안만 유효 (누락 시 비움)
+ * - 로컬 구독자가 있는 방만 스트림을 받으므로 구독이 끊기면 제거
+ * - 방 단위 LRU + 전체 메모리 예산으로 제거
+ * - 히스토리 요청 범위를 버퍼가 전부 덮는 경우에만 응답 (아니면 null → Mongo 조회)
+ */
+@Slf4j
+@Component
+public class RecentMessageCache {
+
+    private final boolean enabled;
+    private final int messagesPerRoom;
+    private final long maxBytes;
+
+    // accessOrder=true → 읽기/쓰기 모두 최근 사용으로 취급
+    private final LinkedHashMap<String, RoomBuffer> rooms = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public RecentMessageCache(@Value("${chat.history-cache.enabled:true}") boolean enabled,
+                              @Value("${chat.history-cache.messages-per-room:200}") int messagesPerRoom,
+                              @Value("${chat.history-cache.max-bytes:67108864}") long maxBytes) {
+        this.enabled = enabled;
+        this.messagesPerRoom = messagesPerRoom;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 전달된 메시지 추가 - 이미 있는 seq면 무시, 중간이 비면 버퍼를 새로 시작
+     */
+    public synchronized void append(String roomId, ChatMessageBucket.Message message) {
+        if (!enabled) {
+            return;
+        }
+        if (message.getSeq() == null || message.getId() == null) {
+            invalidate(roomId);
+            return;
+        }
+
+        RoomBuffer buffer = rooms.get(roomId);
+        if (buffer == null) {
+            buffer = new RoomBuffer(messagesPerRoom);
+            rooms.put(roomId, buffer);
+        } else if (buffer.size > 0) {
+            long lastSeq = buffer.newest().getSeq();
+            if (message.getSeq() <= lastSeq) {
+                return;
+            }
+            if (message.getSeq() != lastSeq + 1) {
+                totalBytes -= buffer.clear();
+            }
+        }
+        totalBytes += buffer.addNewest(message);
+        evictOverBudget();
+    }
+
+    /**
+     * Mongo에서 읽은 최신 페이지로 버퍼 앞쪽(오래된 쪽)을 채운다
+     * @param newestFirst 최신 → 오래된 순, seq가 연속이어야 함
+     * @param reachedStart 페이지가 방의 가장 오래된 메시지까지 포함하는지 (더 이전 메시지 없음)
+     */
+    public synchronized void seed(String roomId, List<ChatMessageBucket.Message> newestFirst, boolean reachedStart) {
+        if (!enabled || newestFirst.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < newestFirst.size(); i++) {
+            ChatMessageBucket.Message row = newestFirst.get(i);
+            if (row.getSeq() == null || row.getId() == null
+                    || (i > 0 && row.getSeq() != newestFirst.get(i - 1).getSeq() - 1)) {
+                return; // 병합된 방 / seq 없는 이전 메시지 → 캐시하지 않음
+            }
+        }
+
+        RoomBuffer buffer = rooms.get(roomId);
+        if (buffer == null) {
+            buffer = new RoomBuffer(messagesPerRoom);
+            rooms.put(roomId, buffer);
+        }
+        // 버퍼보다 오래된 구간만, 버퍼 첫 seq와 이어지는 경우에만 앞에 붙인다
+        long expectedSeq = buffer.size > 0 ? buffer.oldest().getSeq() - 1 : newestFirst.get(0).getSeq();
+        boolean addedAll = true;
+        for (ChatMessageBucket.Message row : newestFirst) {
+            if (row.getSeq() > expectedSeq) {
+                continue;
+            }
+            if (row.getSeq() != expectedSeq || buffer.size >= messagesPerRoom) {
+                addedAll = false;
+                break;
+            }
+            totalBytes += buffer.addOldest(row);
+            expectedSeq--;
+        }
+        // 방의 첫 메시지까지 버퍼에 들어갔을 때만 "이전 메시지 없음"을 버퍼가 보장
+        if (reachedStart && addedAll && buffer.size > 0) {
+            buffer.complete = true;
+        }
+        if (buffer.size == 0) {
+            rooms.remove(roomId);
+        }
+        evictOverBudget();
+    }
+
+    public synchronized void invalidate(String roomId) {
+        RoomBuffer removed = rooms.remove(roomId);
+        if (removed != null) {
+            totalBytes -= removed.bytes;
+        }
+    }
+
+    /**
+     * 히스토리 페이지 조회 (Mongo 경로와 같은 형태)
+     * - after가 없으면 최신 → 오래된 순, 있으면 오래된 → 최신 순으로 최대 limit개
+     * - 버퍼가 범위를 전부 덮지 못하면 null
+     */
+    public synchronized List<ChatMessageBucket.Message> find(String roomId, ChatMessageCursor before,
+                                                             ChatMessageCursor after, int limit) {
+        if (!enabled) {
+            return null;
+        }
+        RoomBuffer buffer = rooms.get(roomId);
+        List<ChatMessageBucket.Message> rows = buffer == null ? null : buffer.find(before, after, limit);
+        if (rows == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return rows;
+    }
+
+    public synchronized HistoryCacheStats stats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long total = hitCount + missCount;
+        return HistoryCacheStats.builder()
+                .enabled(enabled)
+                .rooms(rooms.size())
+                .estimatedBytes(totalBytes)
+                .maxBytes(maxBytes)
+                .hits(hitCount)
+                .misses(missCount)
+                .hitRate(total == 0 ? 0.0 : (double) hitCount / total)
+                .evictions(evictions.sum())
+                .build();
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<String, RoomBuffer>> iterator = rooms.entrySet().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, RoomBuffer> eldest = iterator.next();
+            totalBytes -= eldest.getValue().bytes;
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private static long estimateBytes(ChatMessageBucket.Message message) {
+        // 객체 헤더/참조 + 문자열(UTF-16 가정) 대략치
+        return 96 + 2L * (length(message.getId()) + length(message.getSender())
+                + length(message.getMessage()) + length(message.getMessageType()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    /**
+     * seq 연속 메시지 고정 크기 ring (가득 차면 가장 오래된 것부터 밀려남)
+     */
+    private static class RoomBuffer {
+        private final ChatMessageBucket.Message[] ring;
+        private int head; // 가장 오래된 위치
+        private int size;
+        private long bytes;
+        // 가장 오래된 항목이 방의 첫 메시지인지 (seed로만 설정, 밀려나거나 비우면 해제)
+        private boolean complete;
+
+        RoomBuffer(int capacity) {
+            this.ring = new ChatMessageBucket.Message[capacity];
+        }
+
+        ChatMessageBucket.Message get(int index) {
+            return ring[(head + index) % ring.length];
+        }
+
+        ChatMessageBucket.Message oldest() {
+            return get(0);
+        }
+
+        ChatMessageBucket.Message newest() {
+            return get(size - 1);
+        }
+
+        long addNewest(ChatMessageBucket.Message message) {
+            long delta = estimateBytes(message);
+            if (size == ring.length) {
+                complete = false;
+                delta -= estimateBytes(ring[head]);
+                ring[head] = message;
+                head = (head + 1) % ring.length;
+            } else {
+                ring[(head + size) % ring.length] = message;
+                size++;
+            }
+            bytes += delta;
+            return delta;
+        }
+
+        long addOldest(ChatMessageBucket.Message message) {
+            head = (head - 1 + ring.length) % ring.length;
+            ring[head] = message;
+            size++;
+            long delta = estimateBytes(message);
+            bytes += delta;
+            return delta;
+        }
+
+        long clear() {
+            long freed = bytes;
+            Arrays.fill(ring, null);
+            head = 0;
+            size = 0;
+            bytes = 0;
+            complete = false;
+            return freed;
+        }
+
+        List<ChatMessageBucket.Message> find(ChatMessageCursor before, ChatMessageCursor after, int limit) {
+            if (size == 0) {
+                return null;
+            }
+            ChatMessageCursor cursor = before != null ? before : after;
+            int position = size; // 커서 없으면 최신 다음 위치
+            if (cursor != null) {
+                position = indexOf(cursor.getId());
+                if (position < 0) {
+                    return null;
+                }
+            }
+
+            List<ChatMessageBucket.Message> rows = new ArrayList<>(limit);
+            if (after != null) {
+                // 버퍼는 스트림 기준 최신까지 이어져 있으므로 커서 이후는 항상 버퍼 안에 있다
+                for (int i = position + 1; i < size && rows.size() < limit; i++) {
+                    rows.add(get(i));
+                }
+                return rows;
+            }
+
+            // 커서보다 오래된 쪽: limit개를 채우거나 버퍼가 방의 첫 메시지부터 갖고 있어야 커버
+            // (seq 1부터 있어도 병합으로 옮겨온 더 오래된 메시지가 있을 수 있으므로 seq로 판단하지 않음)
+            if (position < limit && !complete) {
+                return null;
+            }
+            for (int i = position - 1; i >= 0 && rows.size() < limit; i--) {
+                rows.add(get(i));
+            }
+            return rows;
+        }
+
+        private int indexOf(String id) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (id.equals(get(i).getId())) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -1,33 +1,139 @@
 package chatting.chatproducer.domain.chatmessage.controller;
 
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
 import chatting.chatproducer.domain.chatmessage.dto.ChatMessageDTO;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageDeltaResponse;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageHistoryResponse;
 import chatting.chatproducer.domain.chatmessage.repository.ChatMessageMongoRepository;
+import chatting.chatproducer.domain.chatmessage.service.ChatMessageExportService;
+import chatting.chatproducer.domain.chatmessage.service.ChatMessageHistoryService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.WebAsyncTask;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
+@Slf4j
 @RestController
 @RequestMapping("/api/message")
 @RequiredArgsConstructor
 public class ChatMessageController {
 
     private final ChatMessageMongoRepository chatMessageMongoRepository;
+    private final ChatMessageHistoryService chatMessageHistoryService;
+    private final ChatMessageExportService chatMessageExportService;
 
+    @Value("${chat.message.delta-max-limit:500}")
+    private int deltaMaxLimit;
+
+    // 내보내기는 오래 걸릴 수 있어 이 요청에만 긴 async 타임아웃을 준다 (다른 요청은 기본값 유지)
+    @Value("${chat.export.timeout-ms:1800000}")
+    private long exportTimeoutMs;
+
+    /**
+     * 히스토리 페이지 조회 - 커서 없으면 최신 페이지, before는 더 오래된 쪽, after는 더 최신 쪽
+     */
     @GetMapping("/history")
-    public List<ChatMessageDTO> getRecentMessages(@RequestParam String roomId) {
-        return chatMessageMongoRepository
-                .findByRoomIdOrderByTimestampAsc(roomId)
+    public ResponseEntity<ChatMessageHistoryResponse> getRecentMessages(@RequestParam String roomId,
+                                                                        @RequestParam(required = false) String before,
+                                                                        @RequestParam(required = false) String after,
+                                                                        @RequestParam(defaultValue = "50") int limit) {
+        try {
+            return ResponseEntity.ok(chatMessageHistoryService.getPage(roomId, before, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * afterSeq 이후 메시지만 seq 순으로 조회 (누락 구간 보충용)
+     * - 병합으로 옮겨온 메시지(mergeId)는 원래 방의 seq를 그대로 갖고 있어 제외 (히스토리 API로만 조회)
+     */
+    @GetMapping("/delta")
+    public ChatMessageDeltaResponse getMessagesAfter(@RequestParam String roomId,
+                                                     @RequestParam long afterSeq,
+                                                     @RequestParam(defaultValue = "100") int limit) {
+        int size = Math.max(1, Math.min(limit, deltaMaxLimit));
+        List<ChatMessageDTO> messages = chatMessageMongoRepository
+                .findByRoomIdAndMergeIdIsNullAndSeqGreaterThanOrderBySeqAsc(roomId, afterSeq, PageRequest.of(0, size))
                 .stream()
-                .map(doc -> ChatMessageDTO.builder()
-                        .sender(doc.getSender())
-                        .message(doc.getMessage())
-                        .timestamp(doc.getTimestamp())
-                        .build())
+                .map(this::toDTO)
                 .collect(Collectors.toList());
+
+        long nextSeq = messages.isEmpty() ? afterSeq : messages.get(messages.size() - 1).getSeq();
+        return ChatMessageDeltaResponse.builder()
+                .messages(messages)
+                .nextSeq(nextSeq)
+                .hasMore(messages.size() == size)
+                .build();
+    }
+
+    /**
+     * 방 메시지 전체 내보내기 (gzip NDJSON, 방 → 시간 순)
+     * - from/to는 ISO-8601, [from, to) 구간
+     * - StreamingResponseBody는 전역 async 타임아웃을 따르므로 WebAsyncTask로 응답에 직접 쓴다
+     * - 허가는 작업이 시작되면 작업이, 시작 전에 요청이 끝나면(실행 거절/타임아웃/취소) onCompletion이 한 번만 반납
+     */
+    @GetMapping("/export")
+    public WebAsyncTask<Void> export(@RequestParam List<String> roomIds,
+                                     @RequestParam(required = false) Instant from,
+                                     @RequestParam(required = false) Instant to,
+                                     HttpServletResponse response) {
+        try {
+            chatMessageExportService.validate(roomIds, from, to);
+        } catch (IllegalArgumentException e) {
+            response.setStatus(HttpStatus.BAD_REQUEST.value());
+            return null;
+        }
+        if (!chatMessageExportService.tryAcquire()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            return null;
+        }
+
+        response.setContentType("application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"chat-export.ndjson.gz\"");
+        AtomicBoolean permitClaimed = new AtomicBoolean();
+        WebAsyncTask<Void> asyncTask = new WebAsyncTask<>(exportTimeoutMs, () -> {
+            if (!permitClaimed.compareAndSet(false, true)) {
+                return null; // 시작 전에 요청이 끝나 허가가 이미 반납됨
+            }
+            try {
+                chatMessageExportService.export(roomIds, from, to, response.getOutputStream());
+            } catch (Exception e) {
+                log.warn("메시지 내보내기 중단: roomIds={}", roomIds, e);
+                throw e;
+            } finally {
+                chatMessageExportService.release();
+            }
+            return null;
+        });
+        asyncTask.onCompletion(() -> {
+            if (permitClaimed.compareAndSet(false, true)) {
+                chatMessageExportService.release();
+            }
+        });
+        return asyncTask;
+    }
+
+    private ChatMessageDTO toDTO(ChatMessageDocument doc) {
+        return ChatMessageDTO.builder()
+                .seq(doc.getSeq())
+                .sender(doc.getSender())
+                .message(doc.getMessage())
+                .timestamp(doc.getTimestamp())
+                .build();
     }
 }
@@ -0,0 +1,51 @@
+package chatting.chatproducer.domain.chatmessage.document;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 방 + 시간 구간(windowStart) 단위로 메시지를 묶은 버킷 (최대 개수 초과 시 같은 구간에 새 버킷)
+ * - chat_messages_ind의 조회용 projection, chat-consumer가 저장 시 함께 기록
+ */
+@Document(collection = "chat_message_buckets")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ChatMessageBucket {
+
+    @Id
+    private String id;
+
+    private String roomId;
+    private Instant windowStart;
+
+    private int count;
+    private Long firstSeq;
+    private Long lastSeq;
+    private Instant firstTimestamp;
+    private Instant lastTimestamp;
+
+    @Builder.Default
+    private List<Message> messages = new ArrayList<>();
+
+    // 병합으로 이동된 버킷 (롤백 시 originalRoomId로 복원)
+    private String mergeId;
+    private String originalRoomId;
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Message {
+        private String id; // chat_messages_ind _id
+        private Long seq;
+        private String sender;
+        private String message;
+        private Instant timestamp;
+        private String messageType;
+    }
+}
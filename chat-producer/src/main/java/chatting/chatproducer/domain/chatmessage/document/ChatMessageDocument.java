@@ -5,9 +5,6 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 @Document(collection = "chat_messages_ind")
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
@@ -17,38 +14,20 @@ public class ChatMessageDocument {
     private String id;
 
     private String roomId;
+    // 방 단위 순번 - mergeId가 있는 문서는 원래 방의 seq이므로 현재 방의 seq 공간이 아님 (delta/누락 판단 제외)
+    private Long seq;
     private String sender;
 
     private Instant timestamp;
 
     private String message;
 
+    private String messageType;
+
     private String status;
 
-}
+    // 병합으로 이동된 메시지: 병합 ID와 원래 방 (롤백 시 복원 기준)
+    private String mergeId;
+    private String originalRoomId;
 
-//@Document(collection = "chat_messages")
-//@Getter
-//@Setter
-//@NoArgsConstructor
-//@AllArgsConstructor
-//@Builder
-//public class ChatMessageDocument {
-//
-//    @Id
-//    private String roomId; // MongoDB에서 _id로 설정
-//
-//    // 날짜(yyyy-MM-dd) -> 메시지 리스트
-//    private Map<String, List<Message>> messagesByDate = new HashMap<>();
-//
-//    @Getter
-//    @Setter
-//    @NoArgsConstructor
-//    @AllArgsConstructor
-//    @Builder
-//    public static class Message {
-//        private String sender;
-//        private String message;
-//        private Instant timestamp;
-//    }
-//}
+}
@@ -0,0 +1,18 @@
+package chatting.chatproducer.domain.chatmessage.document;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * 방 단위 메시지 순번 카운터 (chat-consumer가 관리, 여기서는 방 head seq 조회용)
+ */
+@Document(collection = "room_sequences")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RoomSequence {
+
+    @Id
+    private String roomId;
+
+    private long seq;
+}
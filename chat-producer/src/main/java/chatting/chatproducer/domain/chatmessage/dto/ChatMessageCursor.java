@@ -0,0 +1,33 @@
+package chatting.chatproducer.domain.chatmessage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * 히스토리 keyset 커서 (timestamp, _id) - "{epochMilli}_{id}" 문자열로 주고받는다
+ */
+@Getter
+@AllArgsConstructor
+public class ChatMessageCursor {
+    private final Instant timestamp;
+    private final String id;
+
+    public static ChatMessageCursor parse(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        int separator = value.indexOf('_');
+        if (separator < 0) {
+            throw new IllegalArgumentException("잘못된 커서: " + value);
+        }
+        return new ChatMessageCursor(
+                Instant.ofEpochMilli(Long.parseLong(value.substring(0, separator))),
+                value.substring(separator + 1));
+    }
+
+    public static String encode(Instant timestamp, String id) {
+        return timestamp.toEpochMilli() + "_" + id;
+    }
+}
@@ -11,6 +11,7 @@ import java.time.Instant;
 @AllArgsConstructor
 @Builder
 public class ChatMessageDTO {
+    private Long seq;
     private String sender;
     private String message;
 
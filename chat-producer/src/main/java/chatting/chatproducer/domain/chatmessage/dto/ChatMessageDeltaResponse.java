@@ -0,0 +1,18 @@
+package chatting.chatproducer.domain.chatmessage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageDeltaResponse {
+    private List<ChatMessageDTO> messages;
+    private long nextSeq;    // 다음 요청의 afterSeq로 사용
+    private boolean hasMore; // limit만큼 채워졌으면 이어서 요청
+}
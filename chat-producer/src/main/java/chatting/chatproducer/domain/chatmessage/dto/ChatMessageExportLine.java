@@ -0,0 +1,25 @@
+package chatting.chatproducer.domain.chatmessage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 내보내기 NDJSON 한 줄
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageExportLine {
+    private String id;
+    private String roomId;
+    private Long seq;
+    private String sender;
+    private String message;
+    private String messageType;
+    private Instant timestamp;
+}
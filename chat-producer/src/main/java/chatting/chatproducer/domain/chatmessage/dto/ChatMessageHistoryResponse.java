@@ -0,0 +1,19 @@
+package chatting.chatproducer.domain.chatmessage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageHistoryResponse {
+    private List<ChatMessageDTO> messages; // 오래된 → 최신 순
+    private String prevCursor; // 더 오래된 페이지 요청 시 before로 사용
+    private String nextCursor; // 더 최신 페이지 요청 시 after로 사용
+    private boolean hasMore;   // 요청한 방향으로 더 있는지
+}
@@ -0,0 +1,21 @@
+package chatting.chatproducer.domain.chatmessage.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryCacheStats {
+    private boolean enabled;
+    private int rooms;
+    private long estimatedBytes;
+    private long maxBytes;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+}
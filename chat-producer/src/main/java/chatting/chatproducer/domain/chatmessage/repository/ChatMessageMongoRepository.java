@@ -1,10 +1,14 @@
 package chatting.chatproducer.domain.chatmessage.repository;
 
 import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import java.util.List;
 
 public interface ChatMessageMongoRepository extends MongoRepository<ChatMessageDocument, String> {
     List<ChatMessageDocument> findByRoomIdOrderByTimestampAsc(String roomId);
+
+    // (roomId, seq) 인덱스 사용
+    List<ChatMessageDocument> findByRoomIdAndMergeIdIsNullAndSeqGreaterThanOrderBySeqAsc(String roomId, long seq, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,7 @@
+package chatting.chatproducer.domain.chatmessage.repository;
+
+import chatting.chatproducer.domain.chatmessage.document.RoomSequence;
+import org.springframework.data.mongodb.repository.MongoRepository;
+
+public interface RoomSequenceRepository extends MongoRepository<RoomSequence, String> {
+}
@@ -0,0 +1,129 @@
+package chatting.chatproducer.domain.chatmessage.service;
+
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageBucket;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageCursor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChatMessageBucketService {
+
+    // (timestamp, _id) - ObjectId hex 문자열 비교는 _id 순서와 같다
+    private static final Comparator<ChatMessageBucket.Message> OLDEST_FIRST =
+            Comparator.comparing(ChatMessageBucket.Message::getTimestamp)
+                    .thenComparing(ChatMessageBucket.Message::getId);
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * 버킷에서 keyset 페이지 조회 (after가 없으면 최신 → 오래된 순, 있으면 오래된 → 최신 순으로 limit개)
+     * - 구간(windowStart)끼리는 시간이 겹치지 않으므로 limit을 채운 뒤 구간이 바뀌면 더 읽지 않는다
+     * - 같은 구간에 버킷이 여러 개(용량 초과, 병합된 방)일 수 있어 구간 단위로 모아서 정렬
+     * - 마이그레이션 재시도로 같은 메시지가 두 번 들어갔을 수 있으므로 메시지 id로 중복 제거
+     */
+    public List<ChatMessageBucket.Message> findPage(String roomId, ChatMessageCursor before,
+                                                    ChatMessageCursor after, int limit) {
+        Criteria criteria = Criteria.where("roomId").is(roomId);
+        Sort.Direction direction = Sort.Direction.DESC;
+        if (before != null) {
+            criteria.and("firstTimestamp").lte(before.getTimestamp());
+        } else if (after != null) {
+            direction = Sort.Direction.ASC;
+            criteria.and("lastTimestamp").gte(after.getTimestamp());
+        }
+        Query query = Query.query(criteria).with(Sort.by(direction, "windowStart"));
+
+        List<ChatMessageBucket.Message> rows = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        Instant currentWindow = null;
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            Iterator<ChatMessageBucket> iterator = buckets.iterator();
+            while (iterator.hasNext()) {
+                ChatMessageBucket bucket = iterator.next();
+                if (!bucket.getWindowStart().equals(currentWindow)) {
+                    if (rows.size() >= limit) {
+                        break;
+                    }
+                    currentWindow = bucket.getWindowStart();
+                }
+                for (ChatMessageBucket.Message message : bucket.getMessages()) {
+                    if (isInRange(message, before, after) && seen.add(message.getId())) {
+                        if (bucket.getMergeId() != null) {
+                            message.setSeq(null); // 병합 이동분은 원래 방 seq - 클라이언트 커서/누락 판단에서 제외
+                        }
+                        rows.add(message);
+                    }
+                }
+            }
+        }
+
+        rows.sort(after != null ? OLDEST_FIRST : OLDEST_FIRST.reversed());
+        return rows.size() > limit ? new ArrayList<>(rows.subList(0, limit)) : rows;
+    }
+
+    private boolean isInRange(ChatMessageBucket.Message message, ChatMessageCursor before, ChatMessageCursor after) {
+        if (before != null) {
+            return compare(message, before) < 0;
+        }
+        if (after != null) {
+            return compare(message, after) > 0;
+        }
+        return true;
+    }
+
+    private int compare(ChatMessageBucket.Message message, ChatMessageCursor cursor) {
+        int byTimestamp = message.getTimestamp().compareTo(cursor.getTimestamp());
+        return byTimestamp != 0 ? byTimestamp : message.getId().compareTo(cursor.getId());
+    }
+
+    /**
+     * 병합: 소스 방의 버킷을 타겟 방으로 이동하고 mergeId/originalRoomId 기록
+     */
+    public long moveRoom(String mergeId, String sourceRoomId, String targetRoomId) {
+        long moved = mongoTemplate.updateMulti(
+                Query.query(Criteria.where("roomId").is(sourceRoomId)),
+                new Update().set("roomId", targetRoomId)
+                        .set("mergeId", mergeId)
+                        .set("originalRoomId", sourceRoomId),
+                ChatMessageBucket.class).getModifiedCount();
+        log.info("버킷 이동: mergeId={}, {} -> {}, count={}", mergeId, sourceRoomId, targetRoomId, moved);
+        return moved;
+    }
+
+    /**
+     * 병합 롤백: mergeId로 이동된 버킷을 원래 방으로 복원
+     */
+    public long restoreMerge(String mergeId) {
+        List<String> originalRoomIds = mongoTemplate.findDistinct(
+                Query.query(Criteria.where("mergeId").is(mergeId)), "originalRoomId", ChatMessageBucket.class, String.class);
+
+        long restored = 0;
+        for (String originalRoomId : originalRoomIds) {
+            restored += mongoTemplate.updateMulti(
+                    Query.query(Criteria.where("mergeId").is(mergeId).and("originalRoomId").is(originalRoomId)),
+                    new Update().set("roomId", originalRoomId)
+                            .unset("mergeId")
+                            .unset("originalRoomId"),
+                    ChatMessageBucket.class).getModifiedCount();
+        }
+        log.info("버킷 복원: mergeId={}, count={}", mergeId, restored);
+        return restored;
+    }
+}
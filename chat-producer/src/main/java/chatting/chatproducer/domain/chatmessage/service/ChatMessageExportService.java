@@ -0,0 +1,250 @@
+package chatting.chatproducer.domain.chatmessage.service;
+
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageBucket;
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageExportLine;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 방 메시지 전체 내보내기 (gzip NDJSON)
+ * - Mongo 커서를 batch 단위로 읽으면서 바로 응답에 쓰므로 방 크기와 무관하게 힙 사용량이 일정
+ * - 초당 읽는 문서 수를 제한하고 동시 내보내기 수를 제한해서 실시간 트래픽을 밀어내지 않게 한다
+ */
+@Slf4j
+@Service
+public class ChatMessageExportService {
+
+    private static final Comparator<ChatMessageBucket.Message> OLDEST_FIRST =
+            Comparator.comparing(ChatMessageBucket.Message::getTimestamp)
+                    .thenComparing(ChatMessageBucket.Message::getId);
+
+    private final MongoTemplate mongoTemplate;
+    private final ObjectMapper objectMapper;
+    private final StorageMode storageMode;
+    private final int batchSize;
+    private final int maxDocsPerSecond;
+    private final int maxRooms;
+    private final Semaphore exportPermits;
+
+    public ChatMessageExportService(MongoTemplate mongoTemplate,
+                                    ObjectMapper objectMapper,
+                                    @Value("${chat.storage.mode:document}") StorageMode storageMode,
+                                    @Value("${chat.export.batch-size:500}") int batchSize,
+                                    @Value("${chat.export.max-docs-per-second:5000}") int maxDocsPerSecond,
+                                    @Value("${chat.export.max-rooms:100}") int maxRooms,
+                                    @Value("${chat.export.max-concurrent:2}") int maxConcurrent) {
+        this.mongoTemplate = mongoTemplate;
+        this.objectMapper = objectMapper;
+        this.storageMode = storageMode;
+        this.batchSize = batchSize;
+        this.maxDocsPerSecond = maxDocsPerSecond;
+        this.maxRooms = maxRooms;
+        this.exportPermits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * 동시 내보내기 슬롯 확보 - 실패하면 false (호출 측에서 429 응답)
+     */
+    public boolean tryAcquire() {
+        return exportPermits.tryAcquire();
+    }
+
+    public void release() {
+        exportPermits.release();
+    }
+
+    public void validate(List<String> roomIds, Instant from, Instant to) {
+        if (roomIds == null || roomIds.isEmpty()) {
+            throw new IllegalArgumentException("roomIds는 필수입니다.");
+        }
+        if (roomIds.size() > maxRooms) {
+            throw new IllegalArgumentException("한 번에 내보낼 수 있는 방은 최대 " + maxRooms + "개입니다.");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from은 to보다 이전이어야 합니다.");
+        }
+    }
+
+    /**
+     * 방 → 시간 순으로 [from, to) 구간 메시지를 gzip NDJSON으로 쓴다
+     * @return 내보낸 메시지 수
+     */
+    public long export(List<String> roomIds, Instant from, Instant to, OutputStream out) throws IOException {
+        long startedAt = System.currentTimeMillis();
+        ExportWriter writer = new ExportWriter(new BufferedOutputStream(new GZIPOutputStream(out), 64 * 1024));
+        try {
+            if (storageMode == StorageMode.BUCKET) {
+                exportBuckets(roomIds, from, to, writer);
+            } else {
+                exportDocuments(roomIds, from, to, writer);
+            }
+        } finally {
+            writer.close();
+        }
+        log.info("메시지 내보내기 완료: rooms={}, count={}, elapsedMs={}",
+                roomIds.size(), writer.written, System.currentTimeMillis() - startedAt);
+        return writer.written;
+    }
+
+    /**
+     * (roomId, timestamp, _id) 인덱스 순서로 커서를 연다
+     */
+    private void exportDocuments(List<String> roomIds, Instant from, Instant to, ExportWriter writer) throws IOException {
+        Criteria criteria = Criteria.where("roomId").in(roomIds);
+        if (from != null || to != null) {
+            Criteria timestamp = criteria.and("timestamp");
+            if (from != null) {
+                timestamp.gte(from);
+            }
+            if (to != null) {
+                timestamp.lt(to);
+            }
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "roomId", "timestamp", "_id"))
+                .cursorBatchSize(batchSize);
+        query.fields().include("roomId", "seq", "sender", "message", "timestamp");
+
+        try (Stream<ChatMessageDocument> docs = mongoTemplate.stream(query, ChatMessageDocument.class)) {
+            Iterator<ChatMessageDocument> iterator = docs.iterator();
+            while (iterator.hasNext()) {
+                ChatMessageDocument doc = iterator.next();
+                writer.write(ChatMessageExportLine.builder()
+                        .id(doc.getId())
+                        .roomId(doc.getRoomId())
+                        .seq(doc.getSeq())
+                        .sender(doc.getSender())
+                        .message(doc.getMessage())
+                        .timestamp(doc.getTimestamp())
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * 버킷은 (roomId, windowStart) 순으로 읽고, 구간 하나씩 모아 정렬/중복 제거 후 쓴다
+     * - 한 번에 메모리에 올리는 건 구간 하나 분량뿐
+     */
+    private void exportBuckets(List<String> roomIds, Instant from, Instant to, ExportWriter writer) throws IOException {
+        Criteria criteria = Criteria.where("roomId").in(roomIds);
+        if (from != null) {
+            criteria.and("lastTimestamp").gte(from);
+        }
+        if (to != null) {
+            criteria.and("firstTimestamp").lt(to);
+        }
+        Query query = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "roomId", "windowStart"))
+                .cursorBatchSize(batchSize);
+
+        List<ChatMessageBucket.Message> window = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        String currentRoom = null;
+        Instant currentWindow = null;
+        try (Stream<ChatMessageBucket> buckets = mongoTemplate.stream(query, ChatMessageBucket.class)) {
+            Iterator<ChatMessageBucket> iterator = buckets.iterator();
+            while (iterator.hasNext()) {
+                ChatMessageBucket bucket = iterator.next();
+                if (!bucket.getRoomId().equals(currentRoom) || !bucket.getWindowStart().equals(currentWindow)) {
+                    flushWindow(currentRoom, window, writer);
+                    seen.clear();
+                    currentRoom = bucket.getRoomId();
+                    currentWindow = bucket.getWindowStart();
+                }
+                for (ChatMessageBucket.Message message : bucket.getMessages()) {
+                    if (isInRange(message.getTimestamp(), from, to) && seen.add(message.getId())) {
+                        window.add(message);
+                    }
+                }
+            }
+        }
+        flushWindow(currentRoom, window, writer);
+    }
+
+    private void flushWindow(String roomId, List<ChatMessageBucket.Message> window, ExportWriter writer) throws IOException {
+        window.sort(OLDEST_FIRST);
+        for (ChatMessageBucket.Message message : window) {
+            writer.write(ChatMessageExportLine.builder()
+                    .id(message.getId())
+                    .roomId(roomId)
+                    .seq(message.getSeq())
+                    .sender(message.getSender())
+                    .message(message.getMessage())
+                    .messageType(message.getMessageType())
+                    .timestamp(message.getTimestamp())
+                    .build());
+        }
+        window.clear();
+    }
+
+    private boolean isInRange(Instant timestamp, Instant from, Instant to) {
+        return (from == null || !timestamp.isBefore(from)) && (to == null || timestamp.isBefore(to));
+    }
+
+    /**
+     * 한 줄씩 쓰고 batch마다 flush + 읽기 속도 조절
+     */
+    private class ExportWriter {
+        private final OutputStream out;
+        private final long startedAt = System.nanoTime();
+        private long written;
+
+        ExportWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void write(ChatMessageExportLine line) throws IOException {
+            out.write(objectMapper.writeValueAsBytes(line));
+            out.write('\n');
+            written++;
+            if (written % batchSize == 0) {
+                out.flush(); // 클라이언트가 진행 중임을 알 수 있도록 batch마다 내보낸다
+                throttle();
+            }
+        }
+
+        void close() throws IOException {
+            out.close();
+        }
+
+        private void throttle() throws IOException {
+            if (maxDocsPerSecond <= 0) {
+                return;
+            }
+            // 지금까지 쓴 양 기준으로 와야 할 시각보다 빠르면 그만큼 쉰다
+            long expectedNanos = written * 1_000_000_000L / maxDocsPerSecond;
+            long aheadMs = (expectedNanos - (System.nanoTime() - startedAt)) / 1_000_000;
+            if (aheadMs <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(aheadMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("내보내기 중단");
+            }
+        }
+    }
+}
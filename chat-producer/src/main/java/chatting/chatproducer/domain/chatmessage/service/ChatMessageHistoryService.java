@@ -0,0 +1,160 @@
+package chatting.chatproducer.domain.chatmessage.service;
+
+import chatting.chatproducer.domain.chat.sequence.RoomSequenceTracker;
+import chatting.chatproducer.domain.chat.subscription.RoomSubscriptionRegistry;
+import chatting.chatproducer.domain.chatmessage.cache.RecentMessageCache;
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageBucket;
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageCursor;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageDTO;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageHistoryResponse;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 히스토리 keyset 페이지네이션 (timestamp, _id)
+ * - 커서 없이 요청하면 최신 페이지, before는 더 오래된 쪽, after는 더 최신 쪽
+ * - 응답 메시지는 항상 오래된 → 최신 순
+ * - 최근 메시지 버퍼가 범위를 전부 덮으면 Mongo를 거치지 않는다
+ */
+@Service
+public class ChatMessageHistoryService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ChatMessageBucketService chatMessageBucketService;
+    private final RecentMessageCache recentMessageCache;
+    private final RoomSubscriptionRegistry roomSubscriptionRegistry;
+    private final RoomSequenceTracker roomSequenceTracker;
+    private final StorageMode storageMode;
+    private final int maxLimit;
+
+    public ChatMessageHistoryService(MongoTemplate mongoTemplate,
+                                     ChatMessageBucketService chatMessageBucketService,
+                                     RecentMessageCache recentMessageCache,
+                                     RoomSubscriptionRegistry roomSubscriptionRegistry,
+                                     RoomSequenceTracker roomSequenceTracker,
+                                     @Value("${chat.storage.mode:document}") StorageMode storageMode,
+                                     @Value("${chat.message.history-max-limit:200}") int maxLimit) {
+        this.mongoTemplate = mongoTemplate;
+        this.chatMessageBucketService = chatMessageBucketService;
+        this.recentMessageCache = recentMessageCache;
+        this.roomSubscriptionRegistry = roomSubscriptionRegistry;
+        this.roomSequenceTracker = roomSequenceTracker;
+        this.storageMode = storageMode;
+        this.maxLimit = maxLimit;
+    }
+
+    public ChatMessageHistoryResponse getPage(String roomId, String before, String after, int limit) {
+        ChatMessageCursor beforeCursor = ChatMessageCursor.parse(before);
+        ChatMessageCursor afterCursor = ChatMessageCursor.parse(after);
+        if (beforeCursor != null && afterCursor != null) {
+            throw new IllegalArgumentException("before와 after는 함께 사용할 수 없습니다.");
+        }
+        int size = Math.max(1, Math.min(limit, maxLimit));
+
+        List<ChatMessageBucket.Message> rows = recentMessageCache.find(roomId, beforeCursor, afterCursor, size + 1);
+        if (rows == null) {
+            rows = storageMode == StorageMode.BUCKET
+                    ? chatMessageBucketService.findPage(roomId, beforeCursor, afterCursor, size + 1)
+                    : findDocumentPage(roomId, beforeCursor, afterCursor, size + 1);
+            if (beforeCursor == null && afterCursor == null) {
+                seedCache(roomId, rows, rows.size() <= size);
+            }
+        }
+
+        // size + 1개를 읽어 다음 페이지 존재 여부 판단
+        boolean hasMore = rows.size() > size;
+        if (hasMore) {
+            rows = rows.subList(0, size);
+        }
+        List<ChatMessageBucket.Message> ordered = new ArrayList<>(rows);
+        if (afterCursor == null) {
+            Collections.reverse(ordered); // 최신 순으로 읽었으므로 뒤집는다
+        }
+
+        List<ChatMessageDTO> messages = new ArrayList<>(ordered.size());
+        for (ChatMessageBucket.Message row : ordered) {
+            messages.add(ChatMessageDTO.builder()
+                    .seq(row.getSeq())
+                    .sender(row.getSender())
+                    .message(row.getMessage())
+                    .timestamp(row.getTimestamp())
+                    .build());
+        }
+
+        ChatMessageHistoryResponse.ChatMessageHistoryResponseBuilder response = ChatMessageHistoryResponse.builder()
+                .messages(messages)
+                .hasMore(hasMore);
+        if (!ordered.isEmpty()) {
+            ChatMessageBucket.Message oldest = ordered.get(0);
+            ChatMessageBucket.Message newest = ordered.get(ordered.size() - 1);
+            response.prevCursor(ChatMessageCursor.encode(oldest.getTimestamp(), oldest.getId()))
+                    .nextCursor(ChatMessageCursor.encode(newest.getTimestamp(), newest.getId()));
+        } else {
+            // 빈 페이지면 받은 커서를 그대로 돌려줘서 이어서 요청할 수 있게
+            response.prevCursor(before).nextCursor(after);
+        }
+        return response.build();
+    }
+
+    /**
+     * 최신 페이지를 버퍼에 채운다
+     * - 이 인스턴스가 스트림을 받는 방이고, 이미 전달한 seq보다 뒤처지지 않은 결과일 때만
+     */
+    private void seedCache(String roomId, List<ChatMessageBucket.Message> newestFirst, boolean reachedStart) {
+        if (newestFirst.isEmpty() || !roomSubscriptionRegistry.hasSubscribers(roomId)) {
+            return;
+        }
+        Long newestSeq = newestFirst.get(0).getSeq();
+        Long deliveredSeq = roomSequenceTracker.lastSeq(roomId);
+        if (newestSeq == null || (deliveredSeq != null && deliveredSeq > newestSeq)) {
+            return;
+        }
+        recentMessageCache.seed(roomId, newestFirst, reachedStart);
+    }
+
+    /**
+     * (roomId, timestamp, _id) 인덱스 사용, 필요한 필드만 projection
+     */
+    private List<ChatMessageBucket.Message> findDocumentPage(String roomId, ChatMessageCursor before,
+                                                             ChatMessageCursor after, int limit) {
+        Criteria criteria = Criteria.where("roomId").is(roomId);
+        Sort.Direction direction = Sort.Direction.DESC;
+        if (before != null) {
+            criteria.orOperator(
+                    Criteria.where("timestamp").lt(before.getTimestamp()),
+                    Criteria.where("timestamp").is(before.getTimestamp()).and("_id").lt(new ObjectId(before.getId())));
+        } else if (after != null) {
+            direction = Sort.Direction.ASC;
+            criteria.orOperator(
+                    Criteria.where("timestamp").gt(after.getTimestamp()),
+                    Criteria.where("timestamp").is(after.getTimestamp()).and("_id").gt(new ObjectId(after.getId())));
+        }
+
+        Query query = Query.query(criteria)
+                .with(Sort.by(direction, "timestamp", "_id"))
+                .limit(limit);
+        query.fields().include("sender", "message", "timestamp", "seq", "mergeId");
+
+        List<ChatMessageBucket.Message> rows = new ArrayList<>();
+        for (ChatMessageDocument doc : mongoTemplate.find(query, ChatMessageDocument.class)) {
+            rows.add(ChatMessageBucket.Message.builder()
+                    .id(doc.getId())
+                    .seq(doc.getMergeId() == null ? doc.getSeq() : null) // 병합 이동분은 다른 방 seq
+                    .sender(doc.getSender())
+                    .message(doc.getMessage())
+                    .timestamp(doc.getTimestamp())
+                    .build());
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,11 @@
+package chatting.chatproducer.domain.chatmessage.service;
+
+/**
+ * chat.storage.mode
+ * - DOCUMENT: 히스토리를 chat_messages_ind에서 조회
+ * - BUCKET: 히스토리를 chat_message_buckets에서 조회 (버킷 마이그레이션 완료 후 전환)
+ */
+public enum StorageMode {
+    DOCUMENT,
+    BUCKET
+}
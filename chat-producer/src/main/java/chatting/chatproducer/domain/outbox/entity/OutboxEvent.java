@@ -0,0 +1,79 @@
+package chatting.chatproducer.domain.outbox.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(
+    name = "outbox_event",
+    uniqueConstraints = @UniqueConstraint(columnNames = {"eventId"}),
+    indexes = {
+        @Index(name = "idx_outbox_status_id", columnList = "status, id"),
+        @Index(name = "idx_outbox_aggregate_status_id", columnList = "aggregateId, status, id")
+    }
+)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String eventId;         // Kafka 헤더로 전달되는 멱등 키
+    private String aggregateType;   // CHAT_MESSAGE, MERGE
+    private String aggregateId;     // roomId, mergeId (Kafka key)
+    private String eventType;       // ENTER/TALK/LEAVE, MERGE_*
+    private String topic;
+
+    @Lob
+    @Column(columnDefinition = "TEXT")
+    private String payload;         // JSON
+
+    @Enumerated(EnumType.STRING)
+    private OutboxStatus status;
+
+    private int attempts;
+
+    private String originInstance;  // INSERT한 인스턴스 (전송 확인 알림을 같은 인스턴스에서 보내기 위함)
+    private String claimedBy;
+    private LocalDateTime claimedAt;
+    private LocalDateTime nextAttemptAt;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime sentAt;
+
+    public enum OutboxStatus {
+        PENDING, SENT, FAILED
+    }
+
+    public enum AggregateType {
+        CHAT_MESSAGE, MERGE
+    }
+
+    public static OutboxEvent pending(AggregateType aggregateType, String aggregateId, String eventType,
+                                      String topic, String payload, String originInstance) {
+        LocalDateTime now = LocalDateTime.now();
+        return OutboxEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .aggregateType(aggregateType.name())
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .topic(topic)
+                .payload(payload)
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .originInstance(originInstance)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package chatting.chatproducer.domain.outbox.repository;
+
+import chatting.chatproducer.domain.outbox.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // 선점 가능한 PENDING 이벤트 id를 순서대로 limit 개 조회 (자기 인스턴스 이벤트 + 오래 방치된 다른 인스턴스 이벤트)
+    // 같은 aggregate(방)에 이 인스턴스가 지금 가져갈 수 없는 앞선 PENDING 이벤트(백오프 중, 다른 인스턴스 선점)가 있으면 제외
+    @Query(value = "SELECT o.id FROM outbox_event o " +
+            "WHERE o.status = 'PENDING' AND o.next_attempt_at <= :now " +
+            "AND (o.origin_instance = :owner OR o.created_at < :orphanedBefore) " +
+            "AND (o.claimed_by IS NULL OR o.claimed_by = :owner OR o.claimed_at < :leaseExpiredBefore) " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox_event p " +
+            "WHERE p.aggregate_id = o.aggregate_id AND p.status = 'PENDING' AND p.id < o.id " +
+            "AND NOT (p.next_attempt_at <= :now " +
+            "AND (p.origin_instance = :owner OR p.created_at < :orphanedBefore) " +
+            "AND (p.claimed_by IS NULL OR p.claimed_by = :owner OR p.claimed_at < :leaseExpiredBefore))) " +
+            "ORDER BY o.id LIMIT :limit", nativeQuery = true)
+    List<Long> findClaimableIds(@Param("owner") String owner,
+                                @Param("now") LocalDateTime now,
+                                @Param("orphanedBefore") LocalDateTime orphanedBefore,
+                                @Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore,
+                                @Param("limit") int limit);
+
+    // 조회한 id 선점 (그 사이 다른 인스턴스가 먼저 선점한 행은 제외됨)
+    @Modifying
+    @Query(value = "UPDATE outbox_event SET claimed_by = :owner, claimed_at = :now " +
+            "WHERE id IN (:ids) AND status = 'PENDING' " +
+            "AND (claimed_by IS NULL OR claimed_by = :owner OR claimed_at < :leaseExpiredBefore)", nativeQuery = true)
+    int claimByIds(@Param("ids") List<Long> ids,
+                   @Param("owner") String owner,
+                   @Param("now") LocalDateTime now,
+                   @Param("leaseExpiredBefore") LocalDateTime leaseExpiredBefore);
+
+    List<OutboxEvent> findByClaimedByAndStatusOrderByIdAsc(String claimedBy, OutboxEvent.OutboxStatus status);
+
+    // 전송 성공 건 일괄 SENT 처리
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.status = :status, o.sentAt = :now, o.claimedBy = null, o.claimedAt = null " +
+            "WHERE o.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids,
+                 @Param("status") OutboxEvent.OutboxStatus status,
+                 @Param("now") LocalDateTime now);
+
+    // 전송 실패 건 선점 해제 + 백오프 후 재시도
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :nextAttemptAt, " +
+            "o.claimedBy = null, o.claimedAt = null WHERE o.id IN :ids")
+    int releaseForRetry(@Param("ids") List<Long> ids, @Param("nextAttemptAt") LocalDateTime nextAttemptAt);
+
+    // 보내지 않은 건 선점만 해제 (시도 횟수 증가 없음)
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.claimedBy = null, o.claimedAt = null " +
+            "WHERE o.id IN :ids AND o.status = :status")
+    int unclaim(@Param("ids") List<Long> ids, @Param("status") OutboxEvent.OutboxStatus status);
+
+    // 재시도 한도 초과 건 FAILED 처리
+    @Modifying
+    @Query("UPDATE OutboxEvent o SET o.status = :status WHERE o.id IN :ids AND o.attempts >= :maxAttempts")
+    int markExhausted(@Param("ids") List<Long> ids,
+                      @Param("status") OutboxEvent.OutboxStatus status,
+                      @Param("maxAttempts") int maxAttempts);
+
+    // 보관 기간이 지난 SENT 이벤트 정리
+    @Modifying
+    @Query(value = "DELETE FROM outbox_event WHERE status = 'SENT' AND sent_at < :before LIMIT :limit",
+            nativeQuery = true)
+    int deleteSentBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
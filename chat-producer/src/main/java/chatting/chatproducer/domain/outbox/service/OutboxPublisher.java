@@ -0,0 +1,216 @@
+package chatting.chatproducer.domain.outbox.service;
+
+import chatting.chatproducer.domain.outbox.entity.OutboxEvent;
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import chatting.chatproducer.kafka.dto.MergeEventDTO;
+import chatting.chatproducer.kafka.producer.KafkaChatProducer;
+import chatting.chatproducer.kafka.producer.MergeEventProducer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Outbox Publisher
+ * - PENDING 이벤트를 배치 단위로 선점해 Kafka로 비동기 전송 (producer linger/batch로 묶여서 나감)
+ * - 배치 전체의 ack를 기다린 뒤 성공 건은 한 번에 SENT, 실패 건은 백오프 후 재시도
+ * - 같은 방 이벤트는 id 순서대로 연달아 전송하고 순서는 idempotent producer에 맡김 (방마다 여러 건 in-flight, linger로 묶임)
+ * - 타임아웃까지 ack가 없는 건은 재전송하지 않고 선점을 유지한 채 실제 결과를 기다림
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxPublisher {
+
+    private final OutboxService outboxService;
+    private final KafkaChatProducer kafkaChatProducer;
+    private final MergeEventProducer mergeEventProducer;
+    private final ObjectMapper objectMapper;
+
+    @Value("${chat.outbox.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${chat.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    // ack 대기 중인 건을 다른 인스턴스가 가져가지 않도록 producer delivery.timeout.ms(기본 120초)보다 길게
+    @Value("${chat.outbox.lease-ms:150000}")
+    private long leaseMs;
+
+    // 다른 인스턴스가 기록한 이벤트를 이 시간 이상 아무도 보내지 않으면 (인스턴스 다운) 대신 전송
+    @Value("${chat.outbox.orphaned-after-ms:60000}")
+    private long orphanedAfterMs;
+
+    @Value("${chat.outbox.backoff-ms:500}")
+    private long backoffMs;
+
+    @Value("${chat.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${chat.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    // 타임아웃까지 ack를 못 받은 이벤트 id와 그 방별 건수 (완료 콜백에서 제거)
+    private final Set<Long> inFlightIds = ConcurrentHashMap.newKeySet();
+    private final Map<String, Integer> inFlightAggregates = new ConcurrentHashMap<>();
+
+    @Scheduled(fixedDelayString = "${chat.outbox.poll-interval-ms:50}")
+    public void publishPending() {
+        try {
+            // 한 번에 batchSize 만큼 채워졌으면 밀린 이벤트가 더 있으므로 바로 다음 배치 처리
+            while (publishBatch() == batchSize) {
+                log.debug("Outbox 연속 배치 처리");
+            }
+        } catch (Exception e) {
+            log.error("Outbox 발행 실패", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.outbox.cleanup-interval-ms:600000}")
+    public void cleanupSent() {
+        try {
+            int deleted;
+            do {
+                deleted = outboxService.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours), 10_000);
+            } while (deleted > 0);
+        } catch (Exception e) {
+            log.error("Outbox 정리 실패", e);
+        }
+    }
+
+    private int publishBatch() {
+        List<OutboxEvent> claimed = outboxService.claimBatch(batchSize, leaseMs, orphanedAfterMs);
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        // id 순서대로 이 스레드에서 연달아 전송 (ack 콜백에서 다음 건을 보내지 않음)
+        // 같은 방은 같은 파티션이고 idempotent producer(max.in.flight <= 5)가 재시도 중에도 순서를 유지
+        // 이전 배치에서 ack를 못 받은 건이 남아 있는 방은 이번 배치에서 건드리지 않음 (선점 유지)
+        List<OutboxEvent> events = new ArrayList<>(claimed.size());
+        List<CompletableFuture<?>> futures = new ArrayList<>(claimed.size());
+        List<Long> heldBackIds = new ArrayList<>();
+        Map<String, CompletableFuture<?>> lastByAggregate = new HashMap<>();
+        for (OutboxEvent event : claimed) {
+            if (inFlightIds.contains(event.getId()) || inFlightAggregates.containsKey(event.getAggregateId())) {
+                continue;
+            }
+            // 같은 방의 앞 건이 이미 실패했으면 (저널 기록 실패 등) 뒤 건은 보내지 않음
+            CompletableFuture<?> previous = lastByAggregate.get(event.getAggregateId());
+            if (previous != null && previous.isCompletedExceptionally()) {
+                heldBackIds.add(event.getId());
+                continue;
+            }
+            CompletableFuture<?> future = dispatch(event);
+            lastByAggregate.put(event.getAggregateId(), future);
+            events.add(event);
+            futures.add(future);
+        }
+        if (events.isEmpty() && heldBackIds.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("Outbox 배치 전송 타임아웃: size={}", events.size());
+        } catch (Exception e) {
+            // 개별 실패는 아래에서 future 단위로 판정
+            log.debug("Outbox 배치 일부 전송 실패: {}", e.getMessage());
+        }
+
+        List<Long> sentIds = new ArrayList<>();
+        Map<Integer, List<Long>> retryIdsByAttempts = new TreeMap<>();
+        int pending = 0;
+        for (int i = 0; i < events.size(); i++) {
+            CompletableFuture<?> future = futures.get(i);
+            OutboxEvent event = events.get(i);
+            if (!future.isDone()) {
+                // 아직 ack 전 - 원래 전송이 나중에 성공할 수 있으므로 재시도로 돌리지 않고 선점 유지, 결과는 완료 시 반영
+                markInFlight(event);
+                future.whenCompleteAsync((result, error) -> completeLate(event, error));
+                pending++;
+            } else if (!future.isCompletedExceptionally()) {
+                sentIds.add(event.getId());
+            } else {
+                retryIdsByAttempts.computeIfAbsent(event.getAttempts(), k -> new ArrayList<>()).add(event.getId());
+            }
+        }
+
+        outboxService.markSent(sentIds);
+        retryIdsByAttempts.forEach((attempts, ids) ->
+                outboxService.releaseForRetry(ids, backoffFor(attempts), maxAttempts));
+        // 실패한 건 뒤의 같은 방 이벤트는 선점만 해제 - 실패 건이 백오프 중인 동안에는 다시 선점되지 않음
+        outboxService.unclaim(heldBackIds);
+
+        if (!retryIdsByAttempts.isEmpty() || pending > 0 || !heldBackIds.isEmpty()) {
+            log.warn("Outbox 배치 처리: sent={}, retry={}, heldBack={}, unacked={}",
+                    sentIds.size(), events.size() - sentIds.size() - pending, heldBackIds.size(), pending);
+        }
+        return events.size() + heldBackIds.size();
+    }
+
+    // 타임아웃 뒤에 끝난 전송 결과 반영
+    private void completeLate(OutboxEvent event, Throwable error) {
+        try {
+            if (error == null) {
+                outboxService.markSent(List.of(event.getId()));
+            } else {
+                outboxService.releaseForRetry(List.of(event.getId()), backoffFor(event.getAttempts()), maxAttempts);
+            }
+        } catch (Exception e) {
+            // 선점이 만료되면 다음 배치에서 다시 선점됨
+            log.error("Outbox 지연 결과 반영 실패: id={}", event.getId(), e);
+        } finally {
+            unmarkInFlight(event);
+        }
+    }
+
+    private void markInFlight(OutboxEvent event) {
+        inFlightIds.add(event.getId());
+        inFlightAggregates.merge(event.getAggregateId(), 1, Integer::sum);
+    }
+
+    private void unmarkInFlight(OutboxEvent event) {
+        inFlightIds.remove(event.getId());
+        inFlightAggregates.computeIfPresent(event.getAggregateId(), (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private CompletableFuture<?> dispatch(OutboxEvent event) {
+        try {
+            switch (OutboxEvent.AggregateType.valueOf(event.getAggregateType())) {
+                case CHAT_MESSAGE:
+                    ChatKafkaMessage message = objectMapper.readValue(event.getPayload(), ChatKafkaMessage.class);
+                    return kafkaChatProducer.sendMessage(message, event.getEventId());
+                case MERGE:
+                    MergeEventDTO mergeEvent = objectMapper.readValue(event.getPayload(), MergeEventDTO.class);
+                    return mergeEventProducer.send(mergeEvent, event.getEventId());
+                default:
+                    throw new IllegalStateException("알 수 없는 aggregateType: " + event.getAggregateType());
+            }
+        } catch (Exception e) {
+            log.error("Outbox 이벤트 전송 실패: id={}, eventId={}", event.getId(), event.getEventId(), e);
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    // 지수 백오프 (최대 2^6배)
+    private long backoffFor(int attempts) {
+        return backoffMs << Math.min(attempts, 6);
+    }
+}
@@ -0,0 +1,135 @@
+package chatting.chatproducer.domain.outbox.service;
+
+import chatting.chatproducer.domain.outbox.entity.OutboxEvent;
+import chatting.chatproducer.domain.outbox.repository.OutboxEventRepository;
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import chatting.chatproducer.kafka.dto.MergeEventDTO;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    public static final String CHAT_TOPIC = "chat-message";
+    public static final String MERGE_TOPIC = "merge-events";
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Value("${instance.id}")
+    private String instanceId;
+
+    /**
+     * 채팅 메시지 Outbox INSERT (호출자의 트랜잭션에 참여)
+     */
+    @Transactional
+    public void appendChatMessage(ChatKafkaMessage message) {
+        outboxEventRepository.save(OutboxEvent.pending(
+                OutboxEvent.AggregateType.CHAT_MESSAGE,
+                message.getRoomId(),
+                message.getMessageType(),
+                CHAT_TOPIC,
+                toJson(message),
+                instanceId));
+    }
+
+    /**
+     * 병합 이벤트 Outbox INSERT (호출자의 트랜잭션에 참여)
+     */
+    @Transactional
+    public void appendMergeEvent(MergeEventDTO event) {
+        outboxEventRepository.save(mergeEvent(event));
+    }
+
+    /**
+     * 병합 이벤트 Outbox INSERT (별도 트랜잭션)
+     * - 실패 이벤트처럼 호출자 트랜잭션이 롤백되어도 남아야 하는 경우 사용
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void appendMergeEventInNewTransaction(MergeEventDTO event) {
+        outboxEventRepository.save(mergeEvent(event));
+    }
+
+    /**
+     * 전송할 이벤트 선점 후 조회
+     * - 같은 방의 앞선 이벤트가 백오프 중이거나 다른 인스턴스에 선점돼 있으면 뒤 이벤트는 가져오지 않음 (방 내 순서 유지)
+     */
+    @Transactional
+    public List<OutboxEvent> claimBatch(int batchSize, long leaseMs, long orphanedAfterMs) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseExpiredBefore = now.minusNanos(leaseMs * 1_000_000);
+        List<Long> ids = outboxEventRepository.findClaimableIds(
+                instanceId,
+                now,
+                now.minusNanos(orphanedAfterMs * 1_000_000),
+                leaseExpiredBefore,
+                batchSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        int claimed = outboxEventRepository.claimByIds(ids, instanceId, now, leaseExpiredBefore);
+        if (claimed == 0) {
+            return List.of();
+        }
+        return outboxEventRepository.findByClaimedByAndStatusOrderByIdAsc(instanceId, OutboxEvent.OutboxStatus.PENDING);
+    }
+
+    @Transactional
+    public void markSent(List<Long> ids) {
+        if (ids.isEmpty()) return;
+        outboxEventRepository.markSent(ids, OutboxEvent.OutboxStatus.SENT, LocalDateTime.now());
+    }
+
+    @Transactional
+    public void releaseForRetry(List<Long> ids, long backoffMs, int maxAttempts) {
+        if (ids.isEmpty()) return;
+        outboxEventRepository.releaseForRetry(ids, LocalDateTime.now().plusNanos(backoffMs * 1_000_000));
+        int exhausted = outboxEventRepository.markExhausted(ids, OutboxEvent.OutboxStatus.FAILED, maxAttempts);
+        if (exhausted > 0) {
+            log.error("Outbox 재시도 한도 초과로 FAILED 처리: count={}", exhausted);
+        }
+    }
+
+    /**
+     * 보내지 않은 이벤트 선점 해제 - 다음 배치에서 다시 선점 (시도 횟수 그대로)
+     */
+    @Transactional
+    public void unclaim(List<Long> ids) {
+        if (ids.isEmpty()) return;
+        outboxEventRepository.unclaim(ids, OutboxEvent.OutboxStatus.PENDING);
+    }
+
+    @Transactional
+    public int deleteSentBefore(LocalDateTime before, int limit) {
+        return outboxEventRepository.deleteSentBefore(before, limit);
+    }
+
+    private OutboxEvent mergeEvent(MergeEventDTO event) {
+        return OutboxEvent.pending(
+                OutboxEvent.AggregateType.MERGE,
+                event.getMergeId(),
+                event.getEventType(),
+                MERGE_TOPIC,
+                toJson(event),
+                instanceId);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload 직렬화 실패", e);
+        }
+    }
+}
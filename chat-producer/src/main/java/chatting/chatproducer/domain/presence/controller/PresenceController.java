@@ -0,0 +1,46 @@
+package chatting.chatproducer.domain.presence.controller;
+
+import chatting.chatproducer.domain.presence.dto.RoomPresenceResponse;
+import chatting.chatproducer.domain.presence.service.PresenceService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/presence")
+@RequiredArgsConstructor
+public class PresenceController {
+
+    private final PresenceService presenceService;
+
+    @Value("${chat.presence.max-list:200}")
+    private int maxList;
+
+    /**
+     * 여러 방의 접속자 수 (roomId -> count)
+     */
+    @GetMapping("/counts")
+    public Map<String, Long> getCounts(@RequestParam List<String> roomIds) {
+        return presenceService.countOnline(roomIds);
+    }
+
+    /**
+     * 방 접속자 수 + 목록 (최대 limit명)
+     */
+    @GetMapping("/rooms/{roomId}")
+    public RoomPresenceResponse getRoomPresence(@PathVariable String roomId,
+                                                @RequestParam(defaultValue = "50") int limit) {
+        return RoomPresenceResponse.builder()
+                .roomId(roomId)
+                .online(presenceService.countOnline(roomId))
+                .users(presenceService.listOnline(roomId, Math.max(1, Math.min(limit, maxList))))
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package chatting.chatproducer.domain.presence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * /sub/chat/room/{roomId}/presence 페이로드 (입장/퇴장 변화분만)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PresenceEvent {
+    public enum Type {
+        JOIN, LEAVE
+    }
+
+    private String roomId;
+    private String userId;
+    private Type type;
+}
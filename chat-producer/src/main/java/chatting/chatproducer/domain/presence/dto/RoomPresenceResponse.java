@@ -0,0 +1,18 @@
+package chatting.chatproducer.domain.presence.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomPresenceResponse {
+    private String roomId;
+    private long online;
+    private List<String> users; // 최대 limit명
+}
@@ -0,0 +1,297 @@
+package chatting.chatproducer.domain.presence.service;
+
+import chatting.chatproducer.domain.chat.subscription.RoomSubscriptionRegistry;
+import chatting.chatproducer.domain.presence.dto.PresenceEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 방별 접속자 (presence)
+ * - 로컬: 이 인스턴스 세션들의 /sub/chat/room/{roomId} 구독을 (방, 사용자) 단위로 집계 (탭 여러 개면 참조 수)
+ * - Redis: presence:room:{roomId} ZSET (member=userId, score=만료 시각) - 인스턴스가 주기적으로 갱신
+ *   → 인스턴스가 죽으면 갱신이 끊겨 TTL 뒤 자동으로 빠진다
+ * - 사용자가 어느 인스턴스에 붙어 있는지는 presence:room:{roomId}:user:{userId} HASH (field=instanceId, value=만료 시각)
+ *   → 다른 인스턴스에 아직 살아 있는 연결이 있으면 ZSET에서 빼지 않고 LEAVE도 보내지 않음 (JOIN도 처음 붙을 때만)
+ * - 입장/퇴장 변화분은 pub/sub으로 모든 인스턴스에 알리고, 각 인스턴스가 로컬 구독자에게 전달
+ */
+@Slf4j
+@Service
+public class PresenceService implements MessageListener {
+
+    public static final String CHANNEL = "presence-events";
+    private static final String KEY_PREFIX = "presence:room:";
+    private static final String USER_KEY_INFIX = ":user:";
+
+    // KEYS: 방 ZSET, 사용자 HASH / ARGV: instanceId, now, 만료 시각, key TTL, userId
+    // @return 다른 인스턴스에 살아 있는 연결이 없었으면 1 (JOIN 전파)
+    private static final DefaultRedisScript<Long> JOIN_SCRIPT = new DefaultRedisScript<>(
+            "local others = 0 "
+                    + "local fields = redis.call('HGETALL', KEYS[2]) "
+                    + "for i = 1, #fields, 2 do "
+                    + "  if fields[i] ~= ARGV[1] and tonumber(fields[i + 1]) > tonumber(ARGV[2]) then others = 1 end "
+                    + "end "
+                    + "redis.call('HSET', KEYS[2], ARGV[1], ARGV[3]) "
+                    + "redis.call('PEXPIRE', KEYS[2], ARGV[4]) "
+                    + "redis.call('ZADD', KEYS[1], ARGV[3], ARGV[5]) "
+                    + "redis.call('PEXPIRE', KEYS[1], ARGV[4]) "
+                    + "if others == 1 then return 0 end "
+                    + "return 1",
+            Long.class);
+
+    // KEYS: 방 ZSET, 사용자 HASH / ARGV: instanceId, now, userId
+    // @return 남은 연결이 없어 방에서 뺐으면 1 (LEAVE 전파)
+    private static final DefaultRedisScript<Long> LEAVE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HDEL', KEYS[2], ARGV[1]) "
+                    + "local fields = redis.call('HGETALL', KEYS[2]) "
+                    + "for i = 1, #fields, 2 do "
+                    + "  if tonumber(fields[i + 1]) > tonumber(ARGV[2]) then return 0 end "
+                    + "end "
+                    + "redis.call('DEL', KEYS[2]) "
+                    + "redis.call('ZREM', KEYS[1], ARGV[3]) "
+                    + "return 1",
+            Long.class);
+    private static final String ROOM_DESTINATION_PREFIX = "/sub/chat/room/";
+    public static final String USER_ID_HEADER = "userId";
+
+    private final StringRedisTemplate redisTemplate;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final RoomSubscriptionRegistry roomSubscriptionRegistry;
+    private final String instanceId;
+    private final long ttlMs;
+
+    // sessionId -> (subscriptionId -> 방/사용자)
+    private final Map<String, Map<String, RoomUserKey>> sessionSubscriptions = new HashMap<>();
+    // 방/사용자 -> 이 인스턴스의 구독 수
+    private final Map<RoomUserKey, Integer> localPresence = new HashMap<>();
+
+    public PresenceService(StringRedisTemplate redisTemplate,
+                           SimpMessagingTemplate messagingTemplate,
+                           RoomSubscriptionRegistry roomSubscriptionRegistry,
+                           @Value("${instance.id}") String instanceId,
+                           @Value("${chat.presence.ttl-ms:30000}") long ttlMs) {
+        this.redisTemplate = redisTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.roomSubscriptionRegistry = roomSubscriptionRegistry;
+        this.instanceId = instanceId;
+        this.ttlMs = ttlMs;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String roomId = extractRoomId(accessor.getDestination());
+        String userId = resolveUserId(accessor);
+        if (roomId == null || userId == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        RoomUserKey key = new RoomUserKey(roomId, userId);
+        boolean joined;
+        synchronized (this) {
+            sessionSubscriptions.computeIfAbsent(accessor.getSessionId(), id -> new HashMap<>())
+                    .put(accessor.getSubscriptionId(), key);
+            joined = localPresence.merge(key, 1, Integer::sum) == 1;
+        }
+        if (joined) {
+            publish(key, PresenceEvent.Type.JOIN);
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        RoomUserKey key;
+        synchronized (this) {
+            Map<String, RoomUserKey> subscriptions = sessionSubscriptions.get(accessor.getSessionId());
+            key = subscriptions == null ? null : subscriptions.remove(accessor.getSubscriptionId());
+        }
+        if (key != null) {
+            release(key);
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, RoomUserKey> subscriptions;
+        synchronized (this) {
+            subscriptions = sessionSubscriptions.remove(event.getSessionId());
+        }
+        if (subscriptions != null) {
+            subscriptions.values().forEach(this::release);
+        }
+    }
+
+    /**
+     * 방 접속자 수 - 만료되지 않은 멤버만 (ZCOUNT)
+     */
+    public long countOnline(String roomId) {
+        Long count = redisTemplate.opsForZSet().count(key(roomId), System.currentTimeMillis(), Double.POSITIVE_INFINITY);
+        return count == null ? 0L : count;
+    }
+
+    /**
+     * 여러 방 접속자 수를 한 번의 파이프라인으로
+     */
+    public Map<String, Long> countOnline(List<String> roomIds) {
+        long now = System.currentTimeMillis();
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            StringRedisConnection redis = (StringRedisConnection) connection;
+            for (String roomId : roomIds) {
+                redis.zCount(key(roomId), now, Double.POSITIVE_INFINITY);
+            }
+            return null;
+        });
+        Map<String, Long> counts = new HashMap<>();
+        for (int i = 0; i < roomIds.size(); i++) {
+            Object result = results.get(i);
+            counts.put(roomIds.get(i), result == null ? 0L : ((Number) result).longValue());
+        }
+        return counts;
+    }
+
+    /**
+     * 방 접속자 목록 (최대 limit명)
+     */
+    public List<String> listOnline(String roomId, int limit) {
+        Set<String> users = redisTemplate.opsForZSet()
+                .rangeByScore(key(roomId), System.currentTimeMillis(), Double.POSITIVE_INFINITY, 0, limit);
+        return users == null ? List.of() : new ArrayList<>(users);
+    }
+
+    /**
+     * 로컬 접속자 만료 시각 갱신 + 방마다 만료된 멤버 정리 (파이프라인 한 번)
+     */
+    @Scheduled(fixedDelayString = "${chat.presence.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        List<RoomUserKey> keys;
+        synchronized (this) {
+            keys = new ArrayList<>(localPresence.keySet());
+        }
+        if (keys.isEmpty()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection redis = (StringRedisConnection) connection;
+                Set<String> rooms = new HashSet<>();
+                for (RoomUserKey key : keys) {
+                    redis.zAdd(key(key.roomId()), now + ttlMs, key.userId());
+                    redis.hSet(userKey(key), instanceId, String.valueOf(now + ttlMs));
+                    redis.pExpire(userKey(key), ttlMs * 2);
+                    rooms.add(key.roomId());
+                }
+                for (String roomId : rooms) {
+                    redis.zRemRangeByScore(key(roomId), Double.NEGATIVE_INFINITY, now);
+                    redis.pExpire(key(roomId), ttlMs * 2);
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("presence heartbeat 실패: entries={}", keys.size(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        // 포맷: {J|L}\n{roomId}\n{userId}
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n");
+        if (parts.length != 3 || !roomSubscriptionRegistry.hasSubscribers(parts[1])) {
+            return;
+        }
+        messagingTemplate.convertAndSend(ROOM_DESTINATION_PREFIX + parts[1] + "/presence",
+                PresenceEvent.builder()
+                        .roomId(parts[1])
+                        .userId(parts[2])
+                        .type("J".equals(parts[0]) ? PresenceEvent.Type.JOIN : PresenceEvent.Type.LEAVE)
+                        .build());
+    }
+
+    private void release(RoomUserKey key) {
+        boolean left;
+        synchronized (this) {
+            left = localPresence.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null) == null;
+        }
+        if (left) {
+            publish(key, PresenceEvent.Type.LEAVE);
+        }
+    }
+
+    /**
+     * Redis 상태 반영 + 변화분 전파
+     * - 인스턴스별 연결 기록을 스크립트 한 번으로 갱신하고, 방 전체 기준으로 처음 들어오거나 마지막으로 나갈 때만 알린다
+     */
+    private void publish(RoomUserKey key, PresenceEvent.Type type) {
+        try {
+            long now = System.currentTimeMillis();
+            List<String> keys = List.of(key(key.roomId()), userKey(key));
+            Long changed = type == PresenceEvent.Type.JOIN
+                    ? redisTemplate.execute(JOIN_SCRIPT, keys, instanceId, String.valueOf(now),
+                            String.valueOf(now + ttlMs), String.valueOf(ttlMs * 2), key.userId())
+                    : redisTemplate.execute(LEAVE_SCRIPT, keys, instanceId, String.valueOf(now), key.userId());
+            if (changed == null || changed == 0L) {
+                return; // 다른 인스턴스에 같은 사용자의 연결이 살아 있음
+            }
+            redisTemplate.convertAndSend(CHANNEL,
+                    (type == PresenceEvent.Type.JOIN ? "J" : "L") + "\n" + key.roomId() + "\n" + key.userId());
+        } catch (Exception e) {
+            // heartbeat/TTL로 결국 맞춰지므로 실시간 알림만 놓친다
+            log.warn("presence 반영 실패: roomId={}, userId={}, type={}", key.roomId(), key.userId(), type, e);
+        }
+    }
+
+    /**
+     * 구독 헤더(userId) 우선, 없으면 addUser에서 세션에 저장한 username
+     */
+    private String resolveUserId(StompHeaderAccessor accessor) {
+        String userId = accessor.getFirstNativeHeader(USER_ID_HEADER);
+        if (userId == null && accessor.getSessionAttributes() != null) {
+            Object username = accessor.getSessionAttributes().get("username");
+            userId = username == null ? null : username.toString();
+        }
+        return userId == null || userId.isBlank() ? null : userId;
+    }
+
+    /**
+     * 방 메시지 destination(/sub/chat/room/{roomId})만 접속으로 본다 (head/refresh 등 하위 구독 제외)
+     */
+    private String extractRoomId(String destination) {
+        if (destination == null || !destination.startsWith(ROOM_DESTINATION_PREFIX)) {
+            return null;
+        }
+        String roomId = destination.substring(ROOM_DESTINATION_PREFIX.length());
+        return roomId.isEmpty() || roomId.contains("/") ? null : roomId;
+    }
+
+    private static String key(String roomId) {
+        return KEY_PREFIX + roomId;
+    }
+
+    private static String userKey(RoomUserKey key) {
+        return KEY_PREFIX + key.roomId() + USER_KEY_INFIX + key.userId();
+    }
+
+    private record RoomUserKey(String roomId, String userId) {
+    }
+}
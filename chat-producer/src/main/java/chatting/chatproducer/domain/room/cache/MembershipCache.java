@@ -0,0 +1,85 @@
+package chatting.chatproducer.domain.room.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * (roomId, userId) 멤버 여부 캐시 (인스턴스 로컬)
+ * - 비멤버도 짧게 캐시 (같은 방을 반복해서 여는 경우 DB를 다시 보지 않게)
+ * - 크기 제한 LRU + 멤버/비멤버 각각 TTL, 무효화는 RoomCacheInvalidator가 전파
+ */
+@Component
+public class MembershipCache {
+
+    private static final char SEPARATOR = '\u0000';
+
+    private final long ttlMs;
+    private final long negativeTtlMs;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    public MembershipCache(@Value("${chat.membership-cache.max-entries:100000}") int maxEntries,
+                           @Value("${chat.membership-cache.ttl-ms:600000}") long ttlMs,
+                           @Value("${chat.membership-cache.negative-ttl-ms:30000}") long negativeTtlMs) {
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.entries = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public boolean isMember(String roomId, String userId, BooleanSupplier loader) {
+        String key = key(roomId, userId);
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && now < entry.expiresAt) {
+                return entry.member;
+            }
+        }
+        long startGeneration = generation.get();
+        boolean member = loader.getAsBoolean();
+        synchronized (entries) {
+            if (generation.get() == startGeneration) {
+                entries.put(key, new Entry(member, now + (member ? ttlMs : negativeTtlMs)));
+            }
+        }
+        return member;
+    }
+
+    public void evictMembers(String roomId, Collection<String> userIds) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            for (String userId : userIds) {
+                entries.remove(key(roomId, userId));
+            }
+        }
+    }
+
+    /**
+     * 해당 방의 멤버 여부 전부 제거 (병합 등 방 단위 변경)
+     */
+    public void evictRooms(Collection<String> roomIds) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            entries.keySet().removeIf(key -> roomIds.contains(key.substring(0, key.indexOf(SEPARATOR))));
+        }
+    }
+
+    private static String key(String roomId, String userId) {
+        return roomId + SEPARATOR + userId;
+    }
+
+    private record Entry(boolean member, long expiresAt) {
+    }
+}
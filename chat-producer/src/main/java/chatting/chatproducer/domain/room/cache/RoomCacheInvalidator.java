@@ -0,0 +1,117 @@
+package chatting.chatproducer.domain.room.cache;
+
+import chatting.chatproducer.domain.chatmessage.cache.RecentMessageCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 방 목록/멤버십/최근 메시지 캐시 무효화
+ * - 트랜잭션 커밋 이후에 로컬 캐시를 지우고 Redis pub/sub으로 다른 인스턴스에도 알린다
+ *   (커밋 전에 지우면 다른 인스턴스가 커밋 전 데이터를 다시 캐시할 수 있음)
+ * - 메시지 포맷: 첫 줄 타입, 이후 한 줄에 하나씩 id
+ *   member: 둘째 줄 roomId, 이후 userId / room, history: roomId 목록
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomCacheInvalidator implements MessageListener {
+
+    public static final String CHANNEL = "room-cache-invalidate";
+    private static final String MEMBER_TYPE = "member";
+    private static final String ROOM_TYPE = "room";
+    private static final String HISTORY_TYPE = "history";
+
+    private final StringRedisTemplate redisTemplate;
+    private final RoomListCache roomListCache;
+    private final MembershipCache membershipCache;
+    private final RecentMessageCache recentMessageCache;
+
+    /**
+     * 방의 특정 멤버 변경 (참여/나가기)
+     */
+    public void invalidateMembers(String roomId, Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> applyMembers(roomId, userIds),
+                MEMBER_TYPE + "\n" + roomId + "\n" + String.join("\n", userIds));
+    }
+
+    /**
+     * 방 단위 변경 (병합/롤백/상태 변경) - 해당 방의 멤버십과 그 방이 들어 있는 목록 전부
+     */
+    public void invalidateRooms(Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> applyRooms(roomIds), ROOM_TYPE + "\n" + String.join("\n", roomIds));
+    }
+
+    /**
+     * 방 메시지 구성 변경 (병합 메시지 이동/완료/롤백) - 최근 메시지 버퍼
+     */
+    public void invalidateHistory(Collection<String> roomIds) {
+        if (roomIds.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> applyHistory(roomIds), HISTORY_TYPE + "\n" + String.join("\n", roomIds));
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        List<String> lines = List.of(new String(message.getBody(), StandardCharsets.UTF_8).split("\n"));
+        if (MEMBER_TYPE.equals(lines.get(0)) && lines.size() > 2) {
+            applyMembers(lines.get(1), lines.subList(2, lines.size()));
+        } else if (ROOM_TYPE.equals(lines.get(0)) && lines.size() > 1) {
+            applyRooms(lines.subList(1, lines.size()));
+        } else if (HISTORY_TYPE.equals(lines.get(0)) && lines.size() > 1) {
+            applyHistory(lines.subList(1, lines.size()));
+        }
+    }
+
+    private void applyMembers(String roomId, Collection<String> userIds) {
+        membershipCache.evictMembers(roomId, userIds);
+        roomListCache.evictUsers(userIds);
+    }
+
+    private void applyRooms(Collection<String> roomIds) {
+        membershipCache.evictRooms(roomIds);
+        roomListCache.evictRooms(roomIds);
+    }
+
+    private void applyHistory(Collection<String> roomIds) {
+        roomIds.forEach(recentMessageCache::invalidate);
+    }
+
+    private void afterCommit(Runnable localEviction, String message) {
+        Runnable invalidate = () -> {
+            // 로컬은 바로 지우고 (Redis 장애여도 이 인스턴스는 정확하게), 다른 인스턴스에는 pub/sub으로
+            localEviction.run();
+            try {
+                redisTemplate.convertAndSend(CHANNEL, message);
+            } catch (Exception e) {
+                log.warn("방 캐시 무효화 전파 실패 (TTL 만료까지 다른 인스턴스는 이전 값 사용): {}", message.replace('\n', ' '), e);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate.run();
+                }
+            });
+        } else {
+            invalidate.run();
+        }
+    }
+}
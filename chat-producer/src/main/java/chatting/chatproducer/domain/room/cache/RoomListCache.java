@@ -0,0 +1,80 @@
+package chatting.chatproducer.domain.room.cache;
+
+import chatting.chatproducer.domain.room.entity.ChatRoom;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 사용자별 참여 방 목록 캐시 (인스턴스 로컬)
+ * - 무효화는 RoomCacheInvalidator가 커밋 이후 모든 인스턴스에 전파
+ * - 조회 중에 무효화가 끼어들면 그 결과는 캐시하지 않는다 (generation 비교)
+ */
+@Component
+public class RoomListCache {
+
+    private final long ttlMs;
+
+    private final LinkedHashMap<String, Entry> entries;
+    private final AtomicLong generation = new AtomicLong();
+
+    public RoomListCache(@Value("${chat.room-list-cache.max-users:10000}") int maxUsers,
+                         @Value("${chat.room-list-cache.ttl-ms:300000}") long ttlMs) {
+        this.ttlMs = ttlMs;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    public List<ChatRoom> get(String userId, Supplier<List<ChatRoom>> loader) {
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null && System.currentTimeMillis() - entry.loadedAt < ttlMs) {
+                return entry.rooms;
+            }
+        }
+        long startGeneration = generation.get();
+        List<ChatRoom> rooms = List.copyOf(loader.get());
+        synchronized (entries) {
+            if (generation.get() == startGeneration) {
+                entries.put(userId, new Entry(rooms, System.currentTimeMillis()));
+            }
+        }
+        return rooms;
+    }
+
+    public void evictUsers(Collection<String> userIds) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            userIds.forEach(entries::remove);
+        }
+    }
+
+    /**
+     * 해당 방이 들어 있는 모든 사용자 목록 제거
+     */
+    public void evictRooms(Collection<String> roomIds) {
+        synchronized (entries) {
+            generation.incrementAndGet();
+            Iterator<Entry> iterator = entries.values().iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().rooms.stream().anyMatch(room -> roomIds.contains(room.getRoomId()))) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    private record Entry(List<ChatRoom> rooms, long loadedAt) {
+    }
+}
@@ -1,9 +1,9 @@
 package chatting.chatproducer.domain.room.controller;
 
 
-import chatting.chatproducer.domain.room.entity.ChatRoom;
-import chatting.chatproducer.domain.room.entity.RoomUser;
-import chatting.chatproducer.domain.room.repository.RoomUserRepository;
+import chatting.chatproducer.domain.room.dto.BulkJoinRequest;
+import chatting.chatproducer.domain.room.dto.BulkJoinResponse;
+import chatting.chatproducer.domain.room.dto.RoomSummaryResponse;
 import chatting.chatproducer.domain.room.service.ChatRoomService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +17,6 @@ import java.util.List;
 public class RoomController {
 
     private final ChatRoomService chatRoomService;
-    private final RoomUserRepository roomUserRepository;
 
     // 해당 roomId가 존재하면 채팅방 참여, 존재하지 않으면 채팅방 생성
     @PostMapping("/join-or-create")
@@ -28,15 +27,25 @@ public class RoomController {
         //chatRoomService.joinRoom(roomId, userId);
     }
 
-    // 참여 중인 채팅방 목록
+    // 여러 유저를 한 번에 방에 참여 (입장 메시지는 요약 1건)
+    @PostMapping("/bulk-join")
+    public ResponseEntity<BulkJoinResponse> bulkJoin(@RequestBody BulkJoinRequest request) {
+        try {
+            return ResponseEntity.ok(chatRoomService.bulkJoin(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // 참여 중인 채팅방 목록 (안 읽은 수 포함)
     @GetMapping("/list")
-    public List<ChatRoom> getMyRooms(@RequestParam String userId) {
-        return chatRoomService.getRoomsByUser(userId);
+    public List<RoomSummaryResponse> getMyRooms(@RequestParam String userId) {
+        return chatRoomService.getRoomSummaries(userId);
     }
 
     @DeleteMapping("/leave")
     public ResponseEntity<Void> leaveRoom(@RequestParam String roomId, @RequestParam String userId) {
-        roomUserRepository.deleteById(new RoomUser.RoomUserId(roomId, userId));
+        chatRoomService.leaveRoom(roomId, userId);
         return ResponseEntity.ok().build();
     }
 }
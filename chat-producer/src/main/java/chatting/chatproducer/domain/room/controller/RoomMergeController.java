@@ -77,6 +77,7 @@ public class RoomMergeController {
                     .currentStep(mergeStatus.getCurrentStep().name())
                     .status(mergeStatus.getStatus())
                     .failureReason(mergeStatus.getFailureReason())
+                    .progress(chatRoomMergeService.getMigrationProgress(mergeId))
 //                    .startedAt(mergeStatus.getStartedAt())
 //                    .completedAt(mergeStatus.getCompletedAt())
                     .build());
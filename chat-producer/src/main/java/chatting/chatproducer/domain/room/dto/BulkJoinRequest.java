@@ -0,0 +1,18 @@
+package chatting.chatproducer.domain.room.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkJoinRequest {
+    private String roomId;
+    private List<String> userIds;
+    private String requestedBy; // 방이 없으면 방장, 입장 요약 메시지의 sender
+}
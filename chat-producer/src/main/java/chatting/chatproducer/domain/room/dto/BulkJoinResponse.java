@@ -0,0 +1,17 @@
+package chatting.chatproducer.domain.room.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkJoinResponse {
+    private String roomId;
+    private int requested;     // 중복 제거 후 요청 인원
+    private int joined;        // 새로 참여한 인원
+    private int alreadyMember; // 이미 참여 중이던 인원
+}
@@ -22,4 +22,5 @@ public class MergeStatusResponse {
     private LocalDateTime startedAt;
     private LocalDateTime completedAt;
     private String message;
+    private List<SourceTaskProgress> progress; // 소스 방별 진행 상황
 } 
\ No newline at end of file
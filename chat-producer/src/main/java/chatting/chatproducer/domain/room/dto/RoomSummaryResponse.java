@@ -0,0 +1,24 @@
+package chatting.chatproducer.domain.room.dto;
+
+import chatting.chatproducer.domain.room.entity.ChatRoom;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 참여 중인 방 목록 항목 (안 읽은 수 포함)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomSummaryResponse {
+    private String roomId;
+    private String name;
+    private String ownerId;
+    private ChatRoom.RoomStatus status;
+    private long headSeq;     // 방의 마지막 메시지 seq
+    private long lastReadSeq; // 내가 마지막으로 읽은 seq
+    private long unreadCount; // headSeq - lastReadSeq
+}
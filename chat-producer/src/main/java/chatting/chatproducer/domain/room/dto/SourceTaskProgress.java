@@ -0,0 +1,23 @@
+package chatting.chatproducer.domain.room.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SourceTaskProgress {
+    public enum State {
+        PENDING, RUNNING, DONE, FAILED
+    }
+
+    private String step;          // MESSAGES_MIGRATED / USERS_MIGRATED
+    private String sourceRoomId;
+    private State state;
+    private long migratedCount;
+    private long elapsedMs;
+    private String error;
+}
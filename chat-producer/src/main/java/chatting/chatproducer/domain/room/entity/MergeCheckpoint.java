@@ -0,0 +1,19 @@
+package chatting.chatproducer.domain.room.entity;
+
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * 소스 방별 메시지 마이그레이션 체크포인트 (청크 커밋마다 갱신)
+ */
+@Embeddable
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MergeCheckpoint {
+    private String lastMessageId;  // 마지막으로 이동한 청크의 끝 _id
+    private long migratedCount;    // 지금까지 이동한 메시지 수
+    private boolean completed;     // 소스 방 처리 완료 (버킷 이동 포함)
+}
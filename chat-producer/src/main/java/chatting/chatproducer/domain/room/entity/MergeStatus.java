@@ -9,6 +9,7 @@ import lombok.Setter;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Entity
 @Getter
@@ -35,6 +36,19 @@ public class MergeStatus {
     private String status; // IN_PROGRESS, COMPLETED, FAILED
 
     private String failureReason;
+
+    // 메시지 마이그레이션 체크포인트 (MergeCheckpointService가 청크마다 JDBC로 갱신)
+    @ElementCollection
+    @CollectionTable(name = "merge_checkpoint",
+        joinColumns = @JoinColumn(name = "merge_id"),
+        uniqueConstraints = @UniqueConstraint(columnNames = {"merge_id", "source_room_id"}))
+    @MapKeyColumn(name = "source_room_id")
+    private Map<String, MergeCheckpoint> checkpoints;
+
+    // 마이그레이션을 실행 중인 인스턴스와 마지막 생존 신호 (오래되면 다른 인스턴스가 이어받음)
+    private String ownerInstance;
+    private LocalDateTime heartbeatAt;
+    private LocalDateTime messagesMigratedAt; // 메시지 단계 완료 (완료 이벤트와 함께 커밋)
 //
 //    private LocalDateTime startedAt;
 //
@@ -0,0 +1,58 @@
+package chatting.chatproducer.domain.room.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 메시지 마이그레이션 청크 요약 (청크당 1행)
+ * - 메시지별 복원 정보는 Mongo 문서의 mergeId / originalRoomId에 있으므로 여기는 감사/진행 기록용
+ */
+@Entity
+@Table(
+    name = "message_migration_chunk",
+    indexes = @Index(columnList = "mergeId")
+)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageMigrationChunk {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String mergeId;
+    private String sourceRoomId;
+    private String targetRoomId;
+    private String firstMessageId;  // 청크 범위 (_id 기준, 양 끝 포함)
+    private String lastMessageId;
+    private long messageCount;
+    private LocalDateTime migratedAt;
+    private LocalDateTime rolledBackAt;
+
+    @Enumerated(EnumType.STRING)
+    private MigrationStatus status;
+
+    public enum MigrationStatus {
+        MIGRATED, ROLLED_BACK
+    }
+
+    public static MessageMigrationChunk of(String mergeId, String sourceRoomId, String targetRoomId,
+                                           String firstMessageId, String lastMessageId, long messageCount) {
+        return MessageMigrationChunk.builder()
+                .mergeId(mergeId)
+                .sourceRoomId(sourceRoomId)
+                .targetRoomId(targetRoomId)
+                .firstMessageId(firstMessageId)
+                .lastMessageId(lastMessageId)
+                .messageCount(messageCount)
+                .migratedAt(LocalDateTime.now())
+                .status(MigrationStatus.MIGRATED)
+                .build();
+    }
+}
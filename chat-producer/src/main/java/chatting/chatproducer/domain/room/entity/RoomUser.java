@@ -30,6 +30,9 @@ public class RoomUser {
     @Enumerated(EnumType.STRING)
     private UserRole role;
 
+    // 마지막으로 읽은 메시지 seq (ReadPositionTracker가 모아서 배치로 기록)
+    private Long lastReadSeq;
+
     public static RoomUser of(String roomId, String userId) {
         return RoomUser.builder()
                 .roomId(roomId)
@@ -39,6 +42,19 @@ public class RoomUser {
                 .build();
     }
 
+    /**
+     * 입장 시점의 방 head까지 읽은 것으로 시작 (입장 전 히스토리는 안 읽은 수에 넣지 않음)
+     */
+    public static RoomUser of(String roomId, String userId, long lastReadSeq) {
+        return RoomUser.builder()
+                .roomId(roomId)
+                .userId(userId)
+                .joinedAt(LocalDateTime.now())
+                .role(UserRole.MEMBER)
+                .lastReadSeq(lastReadSeq)
+                .build();
+    }
+
     public static RoomUser of(String roomId, String userId, UserRole role) {
         return RoomUser.builder()
                 .roomId(roomId)
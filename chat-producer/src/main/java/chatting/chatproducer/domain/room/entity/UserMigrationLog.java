@@ -38,6 +38,7 @@ public class UserMigrationLog {
     private boolean wasMemberInTo;
     private String prevRoleInTo;
     private String prevRoleInFrom;
+    private Long prevLastReadSeqInFrom;
 
     public enum MigrationStatus {
         MIGRATED, ROLLED_BACK
@@ -0,0 +1,147 @@
+package chatting.chatproducer.domain.room.migration;
+
+import chatting.chatproducer.domain.room.entity.MergeCheckpoint;
+import chatting.chatproducer.domain.room.entity.MessageMigrationChunk;
+import chatting.chatproducer.domain.room.repository.MessageMigrationChunkRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메시지 마이그레이션 체크포인트 / 실행 소유권
+ * - 청크를 옮길 때마다 청크 요약 + 소스 방 체크포인트를 같은 트랜잭션으로 커밋 (장애 시 마지막 청크만 손실)
+ * - 실행 중인 병합은 주기적으로 heartbeat를 남기고, heartbeat가 끊긴 병합만 조건부 UPDATE로 이어받을 수 있다
+ */
+@Slf4j
+@Component
+public class MergeCheckpointService {
+
+    // ROOMS_LOCKED 직후이거나, 메시지 단계 미완료인데 소유 인스턴스의 heartbeat가 끊긴 경우에만 선점
+    private static final String CLAIM_SQL =
+            "UPDATE merge_status SET current_step = 'MESSAGES_MIGRATED', owner_instance = ?, heartbeat_at = ? "
+                    + "WHERE merge_id = ? AND status = 'IN_PROGRESS' AND (current_step = 'ROOMS_LOCKED' "
+                    + "OR (current_step = 'MESSAGES_MIGRATED' AND messages_migrated_at IS NULL "
+                    + "AND (heartbeat_at IS NULL OR heartbeat_at < ?)))";
+
+    private static final String HEARTBEAT_SQL =
+            "UPDATE merge_status SET heartbeat_at = ? WHERE merge_id = ? AND owner_instance = ?";
+
+    private static final String SELECT_CHECKPOINTS_SQL =
+            "SELECT source_room_id, last_message_id, migrated_count, completed FROM merge_checkpoint WHERE merge_id = ?";
+
+    private static final String UPSERT_CHECKPOINT_SQL =
+            "INSERT INTO merge_checkpoint (merge_id, source_room_id, last_message_id, migrated_count, completed) "
+                    + "VALUES (?, ?, ?, ?, FALSE) "
+                    + "ON DUPLICATE KEY UPDATE last_message_id = VALUES(last_message_id), "
+                    + "migrated_count = migrated_count + VALUES(migrated_count)";
+
+    private static final String COMPLETE_CHECKPOINT_SQL =
+            "INSERT INTO merge_checkpoint (merge_id, source_room_id, migrated_count, completed) "
+                    + "VALUES (?, ?, 0, TRUE) ON DUPLICATE KEY UPDATE completed = TRUE";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MessageMigrationChunkRepository messageMigrationChunkRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final String instanceId;
+    private final long staleAfterMs;
+
+    // 이 인스턴스가 실행 중인 mergeId (heartbeat 대상)
+    private final Set<String> activeMerges = ConcurrentHashMap.newKeySet();
+
+    public MergeCheckpointService(JdbcTemplate jdbcTemplate,
+                                  MessageMigrationChunkRepository messageMigrationChunkRepository,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${instance.id}") String instanceId,
+                                  @Value("${chat.merge.stale-after-ms:120000}") long staleAfterMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.messageMigrationChunkRepository = messageMigrationChunkRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.instanceId = instanceId;
+        this.staleAfterMs = staleAfterMs;
+    }
+
+    /**
+     * 메시지 마이그레이션 실행권 선점 (즉시 커밋)
+     * @return 선점했으면 true - 다른 인스턴스가 살아서 실행 중이면 false
+     */
+    public boolean claim(String mergeId) {
+        LocalDateTime now = LocalDateTime.now();
+        Integer updated = transactionTemplate.execute(status -> jdbcTemplate.update(CLAIM_SQL,
+                instanceId, Timestamp.valueOf(now), mergeId, Timestamp.valueOf(staleBefore(now))));
+        boolean claimed = updated != null && updated > 0;
+        if (claimed) {
+            activeMerges.add(mergeId);
+        }
+        log.info("메시지 마이그레이션 실행권 선점: mergeId={}, instanceId={}, claimed={}", mergeId, instanceId, claimed);
+        return claimed;
+    }
+
+    public void release(String mergeId) {
+        activeMerges.remove(mergeId);
+    }
+
+    public boolean isActive(String mergeId) {
+        return activeMerges.contains(mergeId);
+    }
+
+    /**
+     * 이 시각 이전 heartbeat는 끊긴 것으로 본다
+     */
+    public LocalDateTime staleBefore(LocalDateTime now) {
+        return now.minusNanos(staleAfterMs * 1_000_000);
+    }
+
+    public Map<String, MergeCheckpoint> load(String mergeId) {
+        Map<String, MergeCheckpoint> checkpoints = new HashMap<>();
+        jdbcTemplate.query(SELECT_CHECKPOINTS_SQL, rs -> {
+            checkpoints.put(rs.getString("source_room_id"), new MergeCheckpoint(
+                    rs.getString("last_message_id"),
+                    rs.getLong("migrated_count"),
+                    rs.getBoolean("completed")));
+        }, mergeId);
+        return checkpoints;
+    }
+
+    /**
+     * 청크 요약과 체크포인트를 한 트랜잭션으로 커밋
+     */
+    public void recordChunk(MessageMigrationChunk chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            messageMigrationChunkRepository.save(chunk);
+            jdbcTemplate.update(UPSERT_CHECKPOINT_SQL, chunk.getMergeId(), chunk.getSourceRoomId(),
+                    chunk.getLastMessageId(), chunk.getMessageCount());
+        });
+    }
+
+    public void markCompleted(String mergeId, String sourceRoomId) {
+        transactionTemplate.executeWithoutResult(status ->
+                jdbcTemplate.update(COMPLETE_CHECKPOINT_SQL, mergeId, sourceRoomId));
+    }
+
+    @Scheduled(fixedDelayString = "${chat.merge.heartbeat-interval-ms:10000}")
+    public void heartbeat() {
+        for (String mergeId : activeMerges) {
+            try {
+                int updated = jdbcTemplate.update(HEARTBEAT_SQL, Timestamp.valueOf(LocalDateTime.now()), mergeId, instanceId);
+                if (updated == 0) {
+                    log.warn("병합 실행권을 잃음 (다른 인스턴스가 이어받음): mergeId={}", mergeId);
+                }
+            } catch (Exception e) {
+                log.warn("병합 heartbeat 실패: mergeId={}", mergeId, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package chatting.chatproducer.domain.room.migration;
+
+import chatting.chatproducer.domain.room.service.ChatRoomMergeService;
+import chatting.chatproducer.kafka.dto.MergeEventDTO;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 멈춘 메시지 마이그레이션 복구
+ * - 진행 중(IN_PROGRESS)인데 실행 인스턴스의 heartbeat가 끊긴 병합을 찾아 체크포인트부터 재개
+ * - 여러 인스턴스가 동시에 찾아도 handleMessagesMigrate의 조건부 선점으로 한 곳만 실행
+ * - 재개는 오래 걸리므로 스케줄러 스레드가 아닌 전용 스레드에서 한 번에 하나씩 실행
+ */
+@Slf4j
+@Component
+public class MergeRecoveryScheduler {
+
+    private final ChatRoomMergeService chatRoomMergeService;
+    private final ExecutorService recoveryExecutor;
+    private final AtomicBoolean recovering = new AtomicBoolean(false);
+
+    public MergeRecoveryScheduler(ChatRoomMergeService chatRoomMergeService) {
+        this.chatRoomMergeService = chatRoomMergeService;
+        this.recoveryExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "merge-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${chat.merge.recovery-interval-ms:60000}",
+            initialDelayString = "${chat.merge.recovery-initial-delay-ms:60000}")
+    public void recoverStalledMerges() {
+        if (recovering.get()) {
+            return; // 이전 복구가 아직 진행 중
+        }
+        List<MergeEventDTO> stalled;
+        try {
+            stalled = chatRoomMergeService.findStalledMessageMigrations();
+        } catch (Exception e) {
+            log.error("멈춘 병합 조회 실패", e);
+            return;
+        }
+        if (stalled.isEmpty() || !recovering.compareAndSet(false, true)) {
+            return;
+        }
+
+        log.warn("멈춘 메시지 마이그레이션 발견: mergeIds={}", stalled.stream().map(MergeEventDTO::getMergeId).toList());
+        recoveryExecutor.submit(() -> {
+            try {
+                for (MergeEventDTO event : stalled) {
+                    try {
+                        chatRoomMergeService.handleMessagesMigrate(event);
+                    } catch (Exception e) {
+                        log.error("메시지 마이그레이션 재개 실패: mergeId={}", event.getMergeId(), e);
+                    }
+                }
+            } finally {
+                recovering.set(false);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recoveryExecutor.shutdownNow();
+    }
+}
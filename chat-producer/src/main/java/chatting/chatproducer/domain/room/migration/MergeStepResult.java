@@ -0,0 +1,20 @@
+package chatting.chatproducer.domain.room.migration;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * 병합 단계의 소스 방별 작업 합산 결과
+ */
+@Getter
+@AllArgsConstructor
+public class MergeStepResult {
+    private final long migratedCount;
+    private final List<String> failedRoomIds;
+
+    public boolean hasFailures() {
+        return !failedRoomIds.isEmpty();
+    }
+}
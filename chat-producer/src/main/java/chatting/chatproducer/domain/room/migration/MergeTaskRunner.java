@@ -0,0 +1,268 @@
+package chatting.chatproducer.domain.room.migration;
+
+import chatting.chatproducer.domain.room.dto.SourceTaskProgress;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+/**
+ * 병합 단계의 소스 방별 작업을 병렬 실행
+ * - 인스턴스 공용 스레드 풀(parallelism) + 저장소별 동시 작업 한도(Mongo/MySQL 부하 예산)
+ * - 소스 방마다 별도 트랜잭션(REQUIRES_NEW)으로 실행해 한 방의 실패가 다른 방 작업을 되돌리지 않음
+ * - 진행 상황은 mergeId별로 메모리에 보관 (병합 상태 조회에 노출)
+ * - 시간 초과로 취소한 작업도 실제로 끝날 때까지 기다린 뒤 반환 (Mongo 명령/트랜잭션은 인터럽트로 멈추지 않으므로,
+ *   반환 직후 롤백이 아직 돌고 있는 작업과 겹치지 않게 함)
+ */
+@Slf4j
+@Component
+public class MergeTaskRunner {
+
+    public enum Resource {
+        MONGO, MYSQL
+    }
+
+    // 시간 제한 없음 - 체크포인트 + heartbeat로 진행 여부를 관리하는 장시간 작업용
+    public static final long NO_TIMEOUT = 0;
+
+    // 취소한 작업 종료 대기 중 경고 로그 주기
+    private static final long CANCEL_WAIT_LOG_INTERVAL_MS = 30_000;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService executor;
+    private final Map<Resource, Semaphore> budgets;
+    private final long taskTimeoutMs;
+
+    // mergeId -> (step:sourceRoomId -> 진행 상황)
+    private final Map<String, Map<String, SourceTaskProgress>> progress = new ConcurrentHashMap<>();
+
+    public MergeTaskRunner(PlatformTransactionManager transactionManager,
+                           @Value("${chat.merge.parallelism:4}") int parallelism,
+                           @Value("${chat.merge.mongo-budget:4}") int mongoBudget,
+                           @Value("${chat.merge.mysql-budget:4}") int mysqlBudget,
+                           @Value("${chat.merge.task-timeout-ms:600000}") long taskTimeoutMs) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threadSeq = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), runnable -> {
+            Thread thread = new Thread(runnable, "merge-task-" + threadSeq.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.budgets = Map.of(
+                Resource.MONGO, new Semaphore(Math.max(1, mongoBudget)),
+                Resource.MYSQL, new Semaphore(Math.max(1, mysqlBudget)));
+        this.taskTimeoutMs = taskTimeoutMs;
+    }
+
+    /**
+     * 소스 방별 작업을 병렬 실행하고 결과를 합산
+     * @param task 소스 방 하나를 처리하고 이동 건수를 반환 (트랜잭션 안에서 실행, chat.merge.task-timeout-ms 적용)
+     */
+    public MergeStepResult runPerSource(String mergeId, String step, List<String> sourceRoomIds,
+                                        Resource resource, ToLongFunction<String> task) {
+        return runPerSource(mergeId, step, sourceRoomIds, resource, true, taskTimeoutMs, task);
+    }
+
+    /**
+     * @param transactional false면 작업이 직접 커밋 단위를 정한다 (청크마다 체크포인트를 커밋하는 경우)
+     * @param timeoutMs 단계 전체 시간 제한, NO_TIMEOUT이면 모든 작업이 끝날 때까지 대기
+     */
+    public MergeStepResult runPerSource(String mergeId, String step, List<String> sourceRoomIds,
+                                        Resource resource, boolean transactional, long timeoutMs,
+                                        ToLongFunction<String> task) {
+        Map<String, SourceTaskProgress> mergeProgress = progress.computeIfAbsent(mergeId, id -> new ConcurrentHashMap<>());
+        Map<String, Future<?>> futures = new LinkedHashMap<>();
+        Map<String, CountDownLatch> finished = new LinkedHashMap<>();
+        for (String sourceRoomId : sourceRoomIds) {
+            SourceTaskProgress taskProgress = SourceTaskProgress.builder()
+                    .step(step)
+                    .sourceRoomId(sourceRoomId)
+                    .state(SourceTaskProgress.State.PENDING)
+                    .build();
+            mergeProgress.put(step + ":" + sourceRoomId, taskProgress);
+            CountDownLatch latch = new CountDownLatch(1);
+            finished.put(sourceRoomId, latch);
+            futures.put(sourceRoomId, executor.submit(() -> {
+                try {
+                    runTask(mergeId, resource, transactional, task, taskProgress);
+                } finally {
+                    latch.countDown();
+                }
+            }));
+        }
+
+        long deadline = timeoutMs > NO_TIMEOUT ? System.currentTimeMillis() + timeoutMs : Long.MAX_VALUE;
+        List<String> cancelledRoomIds = new ArrayList<>();
+        for (Map.Entry<String, Future<?>> entry : futures.entrySet()) {
+            try {
+                if (deadline == Long.MAX_VALUE) {
+                    entry.getValue().get();
+                } else {
+                    entry.getValue().get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                }
+            } catch (TimeoutException e) {
+                // 시작 전이면 실행하지 않고 끝나고, 실행 중이면 인터럽트 (청크 사이에서 멈춤)
+                if (markTimedOut(mergeProgress.get(step + ":" + entry.getKey()), timeoutMs)) {
+                    entry.getValue().cancel(true);
+                }
+                cancelledRoomIds.add(entry.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.values().forEach(future -> future.cancel(true));
+                throw new IllegalStateException("병합 작업 대기 중 인터럽트: mergeId=" + mergeId, e);
+            } catch (ExecutionException e) {
+                // runTask가 예외를 진행 상황에 기록하므로 여기까지 오지 않음
+                log.error("병합 작업 실행 오류: mergeId={}, sourceRoomId={}", mergeId, entry.getKey(), e);
+            }
+        }
+        for (String sourceRoomId : cancelledRoomIds) {
+            awaitFinished(mergeId, step, sourceRoomId, finished.get(sourceRoomId));
+        }
+
+        long total = 0;
+        List<String> failedRoomIds = new ArrayList<>();
+        for (String sourceRoomId : sourceRoomIds) {
+            SourceTaskProgress taskProgress = mergeProgress.get(step + ":" + sourceRoomId);
+            synchronized (taskProgress) {
+                if (taskProgress.getState() == SourceTaskProgress.State.DONE) {
+                    total += taskProgress.getMigratedCount();
+                } else {
+                    failedRoomIds.add(sourceRoomId);
+                }
+            }
+        }
+        log.info("병합 단계 병렬 처리 완료: mergeId={}, step={}, sources={}, total={}, failed={}",
+                mergeId, step, sourceRoomIds.size(), total, failedRoomIds);
+        return new MergeStepResult(total, failedRoomIds);
+    }
+
+    public List<SourceTaskProgress> getProgress(String mergeId) {
+        Map<String, SourceTaskProgress> mergeProgress = progress.get(mergeId);
+        if (mergeProgress == null) {
+            return List.of();
+        }
+        List<SourceTaskProgress> snapshot = new ArrayList<>(mergeProgress.size());
+        for (SourceTaskProgress taskProgress : mergeProgress.values()) {
+            synchronized (taskProgress) {
+                snapshot.add(SourceTaskProgress.builder()
+                        .step(taskProgress.getStep())
+                        .sourceRoomId(taskProgress.getSourceRoomId())
+                        .state(taskProgress.getState())
+                        .migratedCount(taskProgress.getMigratedCount())
+                        .elapsedMs(taskProgress.getElapsedMs())
+                        .error(taskProgress.getError())
+                        .build());
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 병합 종료(완료/실패) 후 진행 상황 정리
+     */
+    public void clear(String mergeId) {
+        progress.remove(mergeId);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 취소한 작업이 실제로 끝날 때까지 대기 (future.get은 cancel 직후 바로 반환하므로 별도 latch 사용)
+     */
+    private void awaitFinished(String mergeId, String step, String sourceRoomId, CountDownLatch latch) {
+        try {
+            while (!latch.await(CANCEL_WAIT_LOG_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                log.warn("취소한 병합 작업 종료 대기 중: mergeId={}, step={}, sourceRoomId={}", mergeId, step, sourceRoomId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("병합 작업 종료 대기 중 인터럽트: mergeId=" + mergeId, e);
+        }
+    }
+
+    private void runTask(String mergeId, Resource resource, boolean transactional, ToLongFunction<String> task,
+                         SourceTaskProgress taskProgress) {
+        Semaphore budget = budgets.get(resource);
+        long startedAt = System.currentTimeMillis();
+        try {
+            budget.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(taskProgress, SourceTaskProgress.State.FAILED, 0, startedAt, "인터럽트");
+            return;
+        }
+        try {
+            synchronized (taskProgress) {
+                if (taskProgress.getState() != SourceTaskProgress.State.PENDING) {
+                    return; // 시작 전에 시간 초과 처리됨
+                }
+                taskProgress.setState(SourceTaskProgress.State.RUNNING);
+            }
+            String sourceRoomId = taskProgress.getSourceRoomId();
+            Long count = transactional
+                    ? transactionTemplate.execute(status -> task.applyAsLong(sourceRoomId))
+                    : Long.valueOf(task.applyAsLong(sourceRoomId));
+            finish(taskProgress, SourceTaskProgress.State.DONE, count == null ? 0 : count, startedAt, null);
+            log.info("소스 방 작업 완료: mergeId={}, step={}, sourceRoomId={}, count={}, elapsedMs={}",
+                    mergeId, taskProgress.getStep(), taskProgress.getSourceRoomId(), count,
+                    System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            log.error("소스 방 작업 실패: mergeId={}, step={}, sourceRoomId={}",
+                    mergeId, taskProgress.getStep(), taskProgress.getSourceRoomId(), e);
+            finish(taskProgress, SourceTaskProgress.State.FAILED, 0, startedAt, e.getMessage());
+        } finally {
+            budget.release();
+        }
+    }
+
+    private void finish(SourceTaskProgress taskProgress, SourceTaskProgress.State state,
+                        long count, long startedAt, String error) {
+        synchronized (taskProgress) {
+            if (taskProgress.getState() == SourceTaskProgress.State.FAILED) {
+                return; // 이미 타임아웃 처리됨
+            }
+            taskProgress.setState(state);
+            taskProgress.setMigratedCount(count);
+            taskProgress.setElapsedMs(System.currentTimeMillis() - startedAt);
+            taskProgress.setError(error);
+        }
+    }
+
+    /**
+     * @return 실행 중이던 작업이면 true (인터럽트 필요)
+     */
+    private boolean markTimedOut(SourceTaskProgress taskProgress, long timeoutMs) {
+        synchronized (taskProgress) {
+            SourceTaskProgress.State state = taskProgress.getState();
+            if (state == SourceTaskProgress.State.DONE || state == SourceTaskProgress.State.FAILED) {
+                return false;
+            }
+            taskProgress.setState(SourceTaskProgress.State.FAILED);
+            taskProgress.setError("작업 시간 초과: " + timeoutMs + "ms");
+            return state == SourceTaskProgress.State.RUNNING;
+        }
+    }
+}
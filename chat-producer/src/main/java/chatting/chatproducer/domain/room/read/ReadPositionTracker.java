@@ -0,0 +1,163 @@
+package chatting.chatproducer.domain.room.read;
+
+import chatting.chatproducer.domain.chat.sequence.RoomSequenceTracker;
+import chatting.chatproducer.domain.chatmessage.document.RoomSequence;
+import chatting.chatproducer.domain.chatmessage.repository.RoomSequenceRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 방별 사용자 읽음 위치 (마지막으로 읽은 seq)
+ * - 읽음 처리는 메모리만 갱신하고, 바뀐 위치만 주기적으로 room_user.last_read_seq에 배치 반영
+ * - 위치는 증가만 하므로 DB 값과 메모리 값 중 큰 쪽이 최신 (다른 인스턴스에서 읽은 경우 포함)
+ * - 변경 없이 오래된 방은 메모리에서 제거
+ * - 클라이언트가 보낸 seq는 방 head로 제한 (이 인스턴스가 전달한 seq, 추적 중이 아니면 room_sequences)
+ */
+@Slf4j
+@Component
+public class ReadPositionTracker {
+
+    private static final String UPDATE_SQL =
+            "UPDATE room_user SET last_read_seq = GREATEST(COALESCE(last_read_seq, 0), ?) "
+                    + "WHERE room_id = ? AND user_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RoomSequenceTracker roomSequenceTracker;
+    private final RoomSequenceRepository roomSequenceRepository;
+    private final long idleEvictMs;
+
+    private final Map<String, RoomReads> rooms = new ConcurrentHashMap<>();
+
+    public ReadPositionTracker(JdbcTemplate jdbcTemplate,
+                               RoomSequenceTracker roomSequenceTracker,
+                               RoomSequenceRepository roomSequenceRepository,
+                               @Value("${chat.read.idle-evict-ms:600000}") long idleEvictMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.roomSequenceTracker = roomSequenceTracker;
+        this.roomSequenceRepository = roomSequenceRepository;
+        this.idleEvictMs = idleEvictMs;
+    }
+
+    /**
+     * @return 위치가 앞으로 이동했으면 true
+     */
+    public boolean markRead(String roomId, String userId, long requestedSeq) {
+        long seq = Math.min(requestedSeq, headSeqOf(roomId));
+        while (true) {
+            RoomReads reads = rooms.computeIfAbsent(roomId, id -> new RoomReads());
+            synchronized (reads) {
+                if (reads.evicted) {
+                    continue; // flush가 방금 제거한 방 - 새로 만든 쪽에 기록
+                }
+                reads.lastAccessAt = System.currentTimeMillis();
+                Position position = reads.positions.computeIfAbsent(userId, id -> new Position());
+                if (seq <= position.seq) {
+                    return false;
+                }
+                position.seq = seq;
+                position.dirty = true;
+                return true;
+            }
+        }
+    }
+
+    private long headSeqOf(String roomId) {
+        Long delivered = roomSequenceTracker.lastSeq(roomId);
+        if (delivered != null) {
+            return delivered;
+        }
+        return roomSequenceRepository.findById(roomId).map(RoomSequence::getSeq).orElse(0L);
+    }
+
+    /**
+     * 메모리에 있는 읽음 위치 (없으면 0)
+     */
+    public long lastRead(String roomId, String userId) {
+        RoomReads reads = rooms.get(roomId);
+        if (reads == null) {
+            return 0L;
+        }
+        synchronized (reads) {
+            Position position = reads.positions.get(userId);
+            return position == null ? 0L : position.seq;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.read.flush-interval-ms:2000}")
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        List<Pending> pending = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        Iterator<Map.Entry<String, RoomReads>> iterator = rooms.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, RoomReads> entry = iterator.next();
+            RoomReads reads = entry.getValue();
+            synchronized (reads) {
+                boolean dirty = false;
+                for (Map.Entry<String, Position> user : reads.positions.entrySet()) {
+                    Position position = user.getValue();
+                    if (position.dirty) {
+                        batch.add(new Object[]{position.seq, entry.getKey(), user.getKey()});
+                        pending.add(new Pending(reads, position, position.seq));
+                        dirty = true;
+                    }
+                }
+                if (!dirty && now - reads.lastAccessAt > idleEvictMs) {
+                    reads.evicted = true;
+                    iterator.remove();
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, batch);
+        } catch (Exception e) {
+            // dirty 그대로 두고 다음 주기에 다시 시도
+            log.error("읽음 위치 반영 실패: count={}", batch.size(), e);
+            return;
+        }
+        for (Pending item : pending) {
+            synchronized (item.reads) {
+                // 반영하는 사이에 더 읽었으면 dirty 유지
+                if (item.position.seq == item.seq) {
+                    item.position.dirty = false;
+                }
+            }
+        }
+        log.debug("읽음 위치 반영: count={}", batch.size());
+    }
+
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private static class RoomReads {
+        private final Map<String, Position> positions = new HashMap<>();
+        private long lastAccessAt = System.currentTimeMillis();
+        private boolean evicted;
+    }
+
+    private static class Position {
+        private long seq;
+        private boolean dirty;
+    }
+
+    private record Pending(RoomReads reads, Position position, long seq) {
+    }
+}
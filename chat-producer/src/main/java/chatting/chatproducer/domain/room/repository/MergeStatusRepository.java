@@ -17,6 +17,10 @@ public interface MergeStatusRepository extends JpaRepository<MergeStatus, String
     @Query("SELECT m FROM MergeStatus m WHERE m.targetRoomId = :roomId OR :roomId MEMBER OF m.sourceRoomIds")
     List<MergeStatus> findByRoomId(@Param("roomId") String roomId);
     
+    // 이 방으로 메시지를 옮겼거나 옮기는 중인 소스 방 (실패/롤백된 병합 제외)
+    @Query("SELECT s FROM MergeStatus m JOIN m.sourceRoomIds s WHERE m.targetRoomId = :roomId AND m.status <> 'FAILED'")
+    List<String> findMergedSourceRoomIds(@Param("roomId") String roomId);
+
     // 진행 중인 병합 작업 조회
     List<MergeStatus> findByStatusAndCurrentStepNot(String status, MergeStatus.MergeStep step);
     
@@ -0,0 +1,25 @@
+package chatting.chatproducer.domain.room.repository;
+
+import chatting.chatproducer.domain.room.entity.MessageMigrationChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MessageMigrationChunkRepository extends JpaRepository<MessageMigrationChunk, Long> {
+
+    List<MessageMigrationChunk> findByMergeId(String mergeId);
+
+    /**
+     * 특정 병합의 청크 요약을 한 번에 롤백 처리
+     */
+    @Modifying
+    @Query("UPDATE MessageMigrationChunk c SET c.status = 'ROLLED_BACK', c.rolledBackAt = :now "
+            + "WHERE c.mergeId = :mergeId AND c.status = 'MIGRATED'")
+    int markRolledBack(@Param("mergeId") String mergeId, @Param("now") LocalDateTime now);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface RoomUserRepository extends JpaRepository<RoomUser, RoomUser.RoomUserId> {
@@ -29,6 +30,10 @@ public interface RoomUserRepository extends JpaRepository<RoomUser, RoomUser.Roo
     // 특정 방의 특정 유저 삭제
     void deleteByRoomIdAndUserId(String roomId, String userId);
     
+    // 주어진 유저 중 이미 방에 참여한 유저 (대량 참여 시 청크 단위 확인)
+    @Query("SELECT ru.userId FROM RoomUser ru WHERE ru.roomId = :roomId AND ru.userId IN :userIds")
+    List<String> findUserIdsByRoomIdAndUserIdIn(@Param("roomId") String roomId, @Param("userIds") Collection<String> userIds);
+
     // 특정 방에 특정 유저가 존재하는지 확인
     boolean existsByRoomIdAndUserId(String roomId, String userId);
     
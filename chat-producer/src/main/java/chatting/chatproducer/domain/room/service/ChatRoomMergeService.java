@@ -2,16 +2,16 @@ package chatting.chatproducer.domain.room.service;
 
 import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
 import chatting.chatproducer.domain.chatmessage.repository.ChatMessageMongoRepository;
+import chatting.chatproducer.domain.chatmessage.service.ChatMessageBucketService;
+import chatting.chatproducer.domain.room.cache.RoomCacheInvalidator;
+import chatting.chatproducer.domain.room.dto.SourceTaskProgress;
 import chatting.chatproducer.domain.room.entity.ChatRoom;
 import chatting.chatproducer.domain.room.entity.MergeStatus;
-import chatting.chatproducer.domain.room.entity.MessageMigrationLog;
-import chatting.chatproducer.domain.room.entity.RoomUser;
-import chatting.chatproducer.domain.room.entity.UserMigrationLog;
+import chatting.chatproducer.domain.room.migration.MergeCheckpointService;
+import chatting.chatproducer.domain.room.migration.MergeTaskRunner;
 import chatting.chatproducer.domain.room.repository.ChatRoomRepository;
 import chatting.chatproducer.domain.room.repository.MergeStatusRepository;
-import chatting.chatproducer.domain.room.repository.MessageMigrationLogRepository;
-import chatting.chatproducer.domain.room.repository.RoomUserRepository;
-import chatting.chatproducer.domain.room.repository.UserMigrationLogRepository;
+import chatting.chatproducer.domain.room.repository.MessageMigrationChunkRepository;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
@@ -20,11 +20,13 @@ import chatting.chatproducer.kafka.dto.MergeEventDTO;
 import chatting.chatproducer.kafka.producer.MergeEventProducer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -35,15 +37,18 @@ public class ChatRoomMergeService {
 
     private final MergeStatusRepository mergeStatusRepository;
     private final ChatRoomRepository chatRoomRepository;
-    private final RoomUserRepository roomUserRepository;
-    private final UserMigrationLogRepository userMigrationLogRepository;
-    private final MessageMigrationLogRepository messageMigrationLogRepository;
+    private final MessageMigrationChunkRepository messageMigrationChunkRepository;
     private final ChatMessageMongoRepository chatMessageMongoRepository;
+    private final ChatMessageBucketService chatMessageBucketService;
     private final MongoTemplate mongoTemplate;
     private final MergeEventProducer mergeEventProducer;
     private final MessageMigrationService messageMigrationService;
     private final UserMigrationService userMigrationService;
     private final MergeValidationService mergeValidationService;
+    private final RoomCacheInvalidator roomCacheInvalidator;
+    private final MergeTaskRunner mergeTaskRunner;
+    private final MergeCheckpointService mergeCheckpointService;
+    private final PlatformTransactionManager transactionManager;
 
     /**
      * 채팅방 병합 시작 (Saga 시작점)
@@ -90,10 +95,7 @@ public class ChatRoomMergeService {
         log.info("방 잠금 처리 시작: mergeId={}", mergeId);
 
         try {
-            // 1. 병합 상태 조회 (트랜잭션 경계 문제 해결을 위해 잠시 대기)
-            log.info("병합 상태 조회 대기 중...");
-            Thread.sleep(100);
-            
+            // 1. 병합 상태 조회 (MERGE_INITIATED는 Outbox를 통해 커밋 이후에만 발행되므로 바로 조회 가능)
             log.info("병합 상태 조회 시작...");
             MergeStatus mergeStatus = getMergeStatus(mergeId);
             log.info("병합 상태 조회 성공: currentStep={}, status={}", mergeStatus.getCurrentStep(), mergeStatus.getStatus());
@@ -125,32 +127,40 @@ public class ChatRoomMergeService {
 
     /**
      * 메시지 마이그레이션 시작 처리
+     * - 수 시간 걸릴 수 있으므로 바깥 트랜잭션 없이 실행 (청크/체크포인트는 각자 커밋)
      */
-    @Transactional
     public void handleMessagesMigrate(MergeEventDTO event) {
         String mergeId = event.getMergeId();
         log.info("=== 메시지 마이그레이션 시작 ===");
         log.info("메시지 마이그레이션 시작: mergeId={}", mergeId);
 
-        try {
-            // 1. 병합 상태 업데이트
-            MergeStatus mergeStatus = getMergeStatus(mergeId);
-            mergeStatus.setCurrentStep(MergeStatus.MergeStep.MESSAGES_MIGRATED);
-            mergeStatusRepository.save(mergeStatus);
-            log.info("메시지 마이그레이션 상태 업데이트 완료: mergeId={}", mergeId);
-
-            // 2. 메시지 마이그레이션 실행
-            messageMigrationService.migrateMessages(mergeId, event.getTargetRoomId(), event.getSourceRoomIds());
-            log.info("메시지 마이그레이션 완료: mergeId={}", mergeId);
+        // 1. 실행권 선점 + 단계 업데이트 (즉시 커밋) - 다른 인스턴스가 실행 중이거나 이미 끝났으면 건너뜀
+        if (!mergeCheckpointService.claim(mergeId)) {
+            log.info("메시지 마이그레이션 건너뜀 (실행 중이거나 완료됨): mergeId={}", mergeId);
+            return;
+        }
 
-            // 3. 메시지 마이그레이션 완료 이벤트 발행
-            MergeEventDTO messagesMigratedEvent = MergeEventDTO.builder()
-                    .mergeId(mergeId)
-                    .targetRoomId(event.getTargetRoomId())
-                    .sourceRoomIds(event.getSourceRoomIds())
-                    .build();
-            
-            mergeEventProducer.publishMessagesMigrated(messagesMigratedEvent);
+        try {
+            // 2. 메시지 마이그레이션 실행 (체크포인트가 있으면 이어서)
+            long migratedMessages = messageMigrationService.migrateMessages(mergeId, event.getTargetRoomId(), event.getSourceRoomIds());
+            log.info("메시지 마이그레이션 완료: mergeId={}, migratedMessages={}", mergeId, migratedMessages);
+
+            // 3. 완료 표시는 완료 이벤트(Outbox)와 같은 트랜잭션으로 커밋 - 이후 복구 대상에서 제외
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                MergeStatus mergeStatus = getMergeStatus(mergeId);
+                mergeStatus.setMessagesMigratedAt(LocalDateTime.now());
+                mergeStatusRepository.save(mergeStatus);
+
+                MergeEventDTO messagesMigratedEvent = MergeEventDTO.builder()
+                        .mergeId(mergeId)
+                        .targetRoomId(event.getTargetRoomId())
+                        .sourceRoomIds(event.getSourceRoomIds())
+                        .migratedMessageCount((int) migratedMessages)
+                        .build();
+                mergeEventProducer.publishMessagesMigrated(messagesMigratedEvent);
+                // 타겟/소스 방 메시지 구성이 바뀌었으므로 모든 인스턴스의 최근 메시지 버퍼 비움
+                roomCacheInvalidator.invalidateHistory(mergeRoomIds(messagesMigratedEvent));
+            });
             log.info("메시지 마이그레이션 완료 이벤트 발행: mergeId={}", mergeId);
 
             log.info("=== 메시지 마이그레이션 완료 ===");
@@ -159,7 +169,35 @@ public class ChatRoomMergeService {
             log.error("=== 메시지 마이그레이션 실패 ===");
             log.error("메시지 마이그레이션 실패: mergeId={}", mergeId, e);
             publishMergeFailedEvent(mergeId, event.getTargetRoomId(), event.getSourceRoomIds(), "MESSAGES_MIGRATED", e.getMessage());
+        } finally {
+            mergeCheckpointService.release(mergeId);
+        }
+    }
+
+    /**
+     * 메시지 마이그레이션 중 실행 인스턴스가 사라진 병합 (heartbeat 끊김) - 복구 스케줄러가 재개
+     */
+    @Transactional(readOnly = true)
+    public List<MergeEventDTO> findStalledMessageMigrations() {
+        LocalDateTime staleBefore = mergeCheckpointService.staleBefore(LocalDateTime.now());
+        List<MergeEventDTO> stalled = new ArrayList<>();
+        for (MergeStatus mergeStatus : mergeStatusRepository.findByStatusAndCurrentStepNot(
+                "IN_PROGRESS", MergeStatus.MergeStep.COMPLETED)) {
+            if (mergeStatus.getCurrentStep() != MergeStatus.MergeStep.MESSAGES_MIGRATED
+                    || mergeStatus.getMessagesMigratedAt() != null
+                    || mergeCheckpointService.isActive(mergeStatus.getMergeId())) {
+                continue;
+            }
+            if (mergeStatus.getHeartbeatAt() != null && mergeStatus.getHeartbeatAt().isAfter(staleBefore)) {
+                continue;
+            }
+            stalled.add(MergeEventDTO.builder()
+                    .mergeId(mergeStatus.getMergeId())
+                    .targetRoomId(mergeStatus.getTargetRoomId())
+                    .sourceRoomIds(new ArrayList<>(mergeStatus.getSourceRoomIds()))
+                    .build());
         }
+        return stalled;
     }
 
     /**
@@ -179,8 +217,8 @@ public class ChatRoomMergeService {
             log.info("사용자 마이그레이션 상태 업데이트 완료: mergeId={}", mergeId);
 
             // 2. 사용자 마이그레이션 실행
-            userMigrationService.migrateUsers(mergeId, event.getTargetRoomId(), event.getSourceRoomIds());
-            log.info("사용자 마이그레이션 완료: mergeId={}", mergeId);
+            long migratedUsers = userMigrationService.migrateUsers(mergeId, event.getTargetRoomId(), event.getSourceRoomIds());
+            log.info("사용자 마이그레이션 완료: mergeId={}, migratedUsers={}", mergeId, migratedUsers);
 
             // 3. 최종 검증
             mergeValidationService.validateMerge(mergeId, event.getTargetRoomId(), event.getSourceRoomIds());
@@ -190,7 +228,9 @@ public class ChatRoomMergeService {
                     .mergeId(mergeId)
                     .targetRoomId(event.getTargetRoomId())
                     .sourceRoomIds(event.getSourceRoomIds())
+                    .migratedUserCount((int) migratedUsers)
                     .totalMigratedMessages(event.getMigratedMessageCount())
+                    .totalMigratedUsers((int) migratedUsers)
                     .build();
             
             mergeEventProducer.publishUsersMigrated(usersMigratedEvent);
@@ -229,6 +269,9 @@ public class ChatRoomMergeService {
                 chatRoomRepository.save(sourceRoom);
                 log.info("소스 방 아카이브 완료: roomId={}", sourceRoomId);
             }
+            roomCacheInvalidator.invalidateRooms(mergeRoomIds(event));
+            roomCacheInvalidator.invalidateHistory(mergeRoomIds(event));
+            mergeTaskRunner.clear(mergeId);
 
             log.info("병합 완료 처리 완료: mergeId={}", mergeId);
 
@@ -255,6 +298,9 @@ public class ChatRoomMergeService {
 
             // 2. 롤백 처리
             performRollback(mergeId, event.getFailedStep(), event.getTargetRoomId(), event.getSourceRoomIds());
+            roomCacheInvalidator.invalidateRooms(mergeRoomIds(event));
+            roomCacheInvalidator.invalidateHistory(mergeRoomIds(event));
+            mergeTaskRunner.clear(mergeId);
 
             log.info("병합 실패 처리 완료: mergeId={}", mergeId);
 
@@ -271,6 +317,13 @@ public class ChatRoomMergeService {
                 .orElseThrow(() -> new RuntimeException("병합 상태를 찾을 수 없습니다: " + mergeId));
     }
 
+    /**
+     * 진행 중인 병합 단계의 소스 방별 진행 상황 (이 인스턴스에서 실행 중인 경우)
+     */
+    public List<SourceTaskProgress> getMigrationProgress(String mergeId) {
+        return mergeTaskRunner.getProgress(mergeId);
+    }
+
     /**
      * 병합 실패 이벤트 발행
      */
@@ -288,19 +341,15 @@ public class ChatRoomMergeService {
     }
 
     /**
-     * 파싱 유틸 메서드
+     * 병합에 관련된 방 (타겟 + 소스) - 방 목록/멤버십 캐시 무효화 대상
      */
-    private java.util.Optional<RoomUser.UserRole> safeParseRole(String roleString) {
-        if (roleString == null || roleString.trim().isEmpty()) {
-            return java.util.Optional.empty();
-        }
-        
-        try {
-            return java.util.Optional.of(RoomUser.UserRole.valueOf(roleString.trim().toUpperCase()));
-        } catch (IllegalArgumentException e) {
-            log.warn("잘못된 역할 문자열: {}", roleString);
-            return java.util.Optional.empty();
+    private List<String> mergeRoomIds(MergeEventDTO event) {
+        List<String> roomIds = new ArrayList<>();
+        roomIds.add(event.getTargetRoomId());
+        if (event.getSourceRoomIds() != null) {
+            roomIds.addAll(event.getSourceRoomIds());
         }
+        return roomIds;
     }
 
     /**
@@ -317,7 +366,7 @@ public class ChatRoomMergeService {
                     // fall through
                 case "MESSAGES_MIGRATED":
                     // 메시지 마이그레이션 롤백
-                    rollbackMessageMigration(mergeId);
+                    rollbackMessageMigration(mergeId, targetRoomId, sourceRoomIds);
                     // fall through
                 case "ROOMS_LOCKED":
                     // 방 잠금 해제
@@ -340,135 +389,45 @@ public class ChatRoomMergeService {
     }
 
     /**
-     * 사용자 마이그레이션 롤백
+     * 사용자 마이그레이션 롤백 (user_migration_log 스냅샷 기준 집합 단위 복원)
      */
     @Transactional
     public void rollbackUserMigration(String mergeId) {
         log.info("사용자 마이그레이션 롤백 시작: mergeId={}", mergeId);
-        int page = 0, rollbackCount = 0;
-
-        while (true) {
-            List<UserMigrationLog> logs = userMigrationLogRepository.findByMergeIdAndStatus(
-                mergeId, UserMigrationLog.MigrationStatus.MIGRATED, PageRequest.of(page++, 1000));
-            if (logs.isEmpty()) break;
-
-            log.debug("페이징 처리: mergeId={}, page={}, logCount={}", mergeId, page-1, logs.size());
-
-            for (UserMigrationLog logRow : logs) {
-                try {
-                    if (logRow.isRolledBack()) continue; // 멱등
-
-                    // 타겟 처리
-                    boolean inTarget = roomUserRepository
-                        .existsByRoomIdAndUserId(logRow.getTargetRoomId(), logRow.getUserId());
-
-                    if (!logRow.isWasMemberInTo()) {
-                        // 정방향에서 타겟에 "새로 추가"되었던 사용자 → 제거(멱등)
-                        if (inTarget) {
-                            roomUserRepository.deleteByRoomIdAndUserId(logRow.getTargetRoomId(), logRow.getUserId());
-                            log.debug("타겟에서 사용자 제거: userId={}, targetRoomId={}", 
-                                    logRow.getUserId(), logRow.getTargetRoomId());
-                        }
-                    } else if (logRow.getPrevRoleInTo() != null && inTarget) {
-                        roomUserRepository.updateRole(
-                            logRow.getUserId(), logRow.getTargetRoomId(), logRow.getPrevRoleInTo());
-                        log.debug("타겟 사용자 역할 복원: userId={}, targetRoomId={}, prevRole={}", 
-                                logRow.getUserId(), logRow.getTargetRoomId(), logRow.getPrevRoleInTo());
-                    }
-
-                    // 소스 복구
-                    if (logRow.isWasMemberInFrom()) {
-                        boolean inSource = roomUserRepository
-                            .existsByRoomIdAndUserId(logRow.getSourceRoomId(), logRow.getUserId());
-
-                        if (!inSource) {
-                            var role = safeParseRole(logRow.getPrevRoleInFrom())
-                                      .orElse(RoomUser.UserRole.MEMBER);
-                            RoomUser sourceUser = RoomUser.builder()
-                                    .roomId(logRow.getSourceRoomId())
-                                    .userId(logRow.getUserId())
-                                    .joinedAt(LocalDateTime.now())
-                                    .role(role)
-                                    .build();
-                            roomUserRepository.save(sourceUser);
-                            log.debug("소스 방에 사용자 복원: userId={}, sourceRoomId={}, role={}", 
-                                    logRow.getUserId(), logRow.getSourceRoomId(), role.name());
-                        } else if (logRow.getPrevRoleInFrom() != null) {
-                            roomUserRepository.updateRole(
-                                logRow.getUserId(), logRow.getSourceRoomId(), logRow.getPrevRoleInFrom());
-                            log.debug("소스 사용자 역할 복원: userId={}, sourceRoomId={}, prevRole={}", 
-                                    logRow.getUserId(), logRow.getSourceRoomId(), logRow.getPrevRoleInFrom());
-                        }
-                    }
-
-                    logRow.markAsRolledBack();
-                    userMigrationLogRepository.save(logRow);
-                    rollbackCount++;
-
-                } catch (Exception ex) {
-                    log.error("개별 사용자 롤백 실패: mergeId={}, userId={}",
-                              mergeId, logRow.getUserId(), ex);
-                    // 재시도 테이블/알림 등 후속 처리 권장
-                }
-            }
-        }
-
-        log.info("사용자 마이그레이션 롤백 완료: mergeId={}, rollbackCount={}", mergeId, rollbackCount);
+        userMigrationService.rollbackUsers(mergeId);
+        log.info("사용자 마이그레이션 롤백 완료: mergeId={}", mergeId);
     }
 
-        /**
-     * 메시지 마이그레이션 롤백 (업데이트 방식)
+    /**
+     * 메시지 마이그레이션 롤백
+     * - 이동된 문서에는 mergeId / originalRoomId가 남아 있으므로 소스 방마다 updateMulti 1회로 복원
+     * - 청크 요약은 한 번에 ROLLED_BACK 처리
      */
     @Transactional
-    public void rollbackMessageMigration(String mergeId) {
+    public void rollbackMessageMigration(String mergeId, String targetRoomId, List<String> sourceRoomIds) {
         log.info("메시지 마이그레이션 롤백 시작: mergeId={}", mergeId);
-        int page = 0, rollbackCount = 0;
-
-        while (true) {
-            List<MessageMigrationLog> logs = messageMigrationLogRepository.findByMergeIdAndStatus(
-                mergeId, MessageMigrationLog.MigrationStatus.MIGRATED, PageRequest.of(page++, 1000));
-            if (logs.isEmpty()) break;
-
-            log.debug("페이징 처리: mergeId={}, page={}, logCount={}", mergeId, page-1, logs.size());
-
-            for (MessageMigrationLog logRow : logs) {
-                try {
-                    if (logRow.isRolledBack()) continue; // 멱등
-
-                    // 원래 타겟에 있던 문서는 이동 안 했으니 noop
-                    if (logRow.isWasInTarget()) {
-                        logRow.markAsRolledBack();
-                        messageMigrationLogRepository.save(logRow);
-                        continue;
-                    }
-
-                    // 진짜 이동했던 건: roomId를 source로 되돌린다
-                    Query query = new Query(Criteria.where("_id").is(logRow.getMessageId())
-                                                  .and("roomId").is(logRow.getTargetRoomId()));
-                    Update update = new Update().set("roomId", logRow.getSourceRoomId());
-
-                    var result = mongoTemplate.updateFirst(query, update, ChatMessageDocument.class);
-                    if (result.getModifiedCount() > 0) {
-                        rollbackCount++;
-                        log.debug("메시지 롤백(이동 복원): messageId={}, {} -> {}",
-                                  logRow.getMessageId(), logRow.getTargetRoomId(), logRow.getSourceRoomId());
-                    } else {
-                        // 멱등/경합 케이스: 이미 복원됐거나 위치가 다름
-                        log.debug("롤백 스킵/멱등: messageId={}, expected roomId={}, current 다름",
-                                  logRow.getMessageId(), logRow.getTargetRoomId());
-                    }
-
-                    logRow.markAsRolledBack();
-                    messageMigrationLogRepository.save(logRow);
-
-                } catch (Exception ex) {
-                    log.error("개별 메시지 롤백 실패: mergeId={}, messageId={}",
-                              mergeId, logRow.getMessageId(), ex);
-                }
-            }
+        long rollbackCount = 0;
+
+        for (String sourceRoomId : sourceRoomIds) {
+            // roomId 조건을 함께 걸어 타겟 방 범위에서만 찾는다
+            Query query = new Query(Criteria.where("roomId").is(targetRoomId)
+                                          .and("mergeId").is(mergeId)
+                                          .and("originalRoomId").is(sourceRoomId));
+            Update update = new Update()
+                    .set("roomId", sourceRoomId)
+                    .unset("mergeId")
+                    .unset("originalRoomId");
+
+            long restored = mongoTemplate.updateMulti(query, update, ChatMessageDocument.class).getModifiedCount();
+            rollbackCount += restored;
+            log.info("메시지 롤백(이동 복원): mergeId={}, {} -> {}, count={}",
+                    mergeId, targetRoomId, sourceRoomId, restored);
         }
-        
-        log.info("메시지 마이그레이션 롤백 완료: mergeId={}, rollbackCount={}", mergeId, rollbackCount);
+
+        int chunks = messageMigrationChunkRepository.markRolledBack(mergeId, LocalDateTime.now());
+        chatMessageBucketService.restoreMerge(mergeId);
+
+        log.info("메시지 마이그레이션 롤백 완료: mergeId={}, rollbackCount={}, chunks={}", mergeId, rollbackCount, chunks);
     }
 
     /**
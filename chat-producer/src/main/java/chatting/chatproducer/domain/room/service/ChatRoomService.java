@@ -1,22 +1,68 @@
 package chatting.chatproducer.domain.room.service;
 
+import chatting.chatproducer.domain.chatmessage.document.RoomSequence;
+import chatting.chatproducer.domain.chatmessage.repository.RoomSequenceRepository;
+import chatting.chatproducer.domain.outbox.service.OutboxService;
+import chatting.chatproducer.domain.room.cache.MembershipCache;
+import chatting.chatproducer.domain.room.cache.RoomCacheInvalidator;
+import chatting.chatproducer.domain.room.cache.RoomListCache;
+import chatting.chatproducer.domain.room.dto.BulkJoinRequest;
+import chatting.chatproducer.domain.room.dto.BulkJoinResponse;
+import chatting.chatproducer.domain.room.dto.RoomSummaryResponse;
 import chatting.chatproducer.domain.room.entity.ChatRoom;
 import chatting.chatproducer.domain.room.entity.RoomUser;
+import chatting.chatproducer.domain.room.read.ReadPositionTracker;
 import chatting.chatproducer.domain.room.repository.ChatRoomRepository;
 import chatting.chatproducer.domain.room.repository.RoomUserRepository;
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class ChatRoomService {
 
+    // 이미 참여 중인 행은 건너뛴다 (동시 입장과 겹쳐도 중복 키 오류 없음)
+    // 읽음 위치는 입장 시점의 방 head (입장 전 메시지는 안 읽은 수에 넣지 않음)
+    private static final String BULK_INSERT_SQL =
+            "INSERT IGNORE INTO room_user (room_id, user_id, joined_at, role, last_read_seq) VALUES (?, ?, ?, ?, ?)";
+    // IN 절 하나에 넣는 userId 수
+    private static final int EXISTING_QUERY_CHUNK = 1000;
+
     private final ChatRoomRepository chatRoomRepository;
     private final RoomUserRepository roomUserRepository;
+    private final OutboxService outboxService;
+    private final RoomSequenceRepository roomSequenceRepository;
+    private final ReadPositionTracker readPositionTracker;
+    private final RoomListCache roomListCache;
+    private final MembershipCache membershipCache;
+    private final RoomCacheInvalidator roomCacheInvalidator;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${chat.room.bulk-join-max:10000}")
+    private int bulkJoinMax;
+
+    @Value("${chat.room.bulk-join-batch-size:500}")
+    private int bulkJoinBatchSize;
 
     @Transactional
     public ChatRoom joinRoom(String roomId, String userId) {
@@ -35,20 +81,210 @@ public class ChatRoomService {
         // 해당 유저가 방에 참여 중이 아니라면 등록
         RoomUser.RoomUserId id = new RoomUser.RoomUserId(roomId, userId);
         if (!roomUserRepository.existsById(id)) {
-            roomUserRepository.save(RoomUser.of(roomId, userId));
+            roomUserRepository.save(RoomUser.of(roomId, userId, headSeqOf(roomId)));
+            roomCacheInvalidator.invalidateMembers(roomId, List.of(userId));
+
+            // 입장 메시지는 멤버 등록과 같은 트랜잭션으로 Outbox에 기록
+            outboxService.appendChatMessage(ChatKafkaMessage.builder()
+                    .roomId(roomId)
+                    .sender(userId)
+                    .message(userId + "님이 입장하셨습니다.")
+                    .timestamp(Instant.now())
+                    .messageType("ENTER")
+                    .build());
         }
 
         return room;
     }
 
+    /**
+     * 대량 입장 - 한 요청으로 여러 유저를 방에 등록
+     * - 기존 멤버는 IN 청크 조회로 한 번에 걸러내고, 나머지는 JDBC 배치로 INSERT
+     * - 입장 메시지는 유저마다 보내지 않고 요약 메시지 1건만 Outbox에 기록
+     * - REPEATABLE READ: INSERT 결과를 다시 조회로 확인할 때 다른 요청이 넣은 행이 섞이지 않도록 (insertMembers)
+     */
+    @Transactional(isolation = Isolation.REPEATABLE_READ)
+    public BulkJoinResponse bulkJoin(BulkJoinRequest request) {
+        String roomId = request.getRoomId();
+        if (roomId == null || roomId.isBlank()) {
+            throw new IllegalArgumentException("roomId가 필요합니다.");
+        }
+        LinkedHashSet<String> userIds = new LinkedHashSet<>();
+        if (request.getUserIds() != null) {
+            request.getUserIds().stream()
+                    .filter(userId -> userId != null && !userId.isBlank())
+                    .forEach(userIds::add);
+        }
+        if (userIds.isEmpty()) {
+            throw new IllegalArgumentException("userIds가 비어 있습니다.");
+        }
+        if (userIds.size() > bulkJoinMax) {
+            throw new IllegalArgumentException("한 번에 입장 가능한 인원을 초과했습니다: max=" + bulkJoinMax);
+        }
+
+        String requestedBy = request.getRequestedBy() != null ? request.getRequestedBy() : userIds.iterator().next();
+        chatRoomRepository.findById(roomId)
+                .orElseGet(() -> chatRoomRepository.save(ChatRoom.builder()
+                        .roomId(roomId)
+                        .name(roomId)
+                        .ownerId(requestedBy)
+                        .createdAt(LocalDateTime.now())
+                        .build()));
+
+        Set<String> existing = findExistingMembers(roomId, new ArrayList<>(userIds));
+        List<String> candidates = userIds.stream().filter(userId -> !existing.contains(userId)).toList();
+        List<String> joined = insertMembers(roomId, candidates);
+
+        if (!joined.isEmpty()) {
+            roomCacheInvalidator.invalidateMembers(roomId, joined);
+            String message = joined.size() == 1
+                    ? joined.get(0) + "님이 입장하셨습니다."
+                    : joined.get(0) + "님 외 " + (joined.size() - 1) + "명이 입장하셨습니다.";
+            outboxService.appendChatMessage(ChatKafkaMessage.builder()
+                    .roomId(roomId)
+                    .sender(requestedBy)
+                    .message(message)
+                    .timestamp(Instant.now())
+                    .messageType("ENTER")
+                    .build());
+        }
+
+        log.info("대량 입장: roomId={}, requested={}, joined={}, alreadyMember={}",
+                roomId, userIds.size(), joined.size(), userIds.size() - joined.size());
+        return BulkJoinResponse.builder()
+                .roomId(roomId)
+                .requested(userIds.size())
+                .joined(joined.size())
+                .alreadyMember(userIds.size() - joined.size())
+                .build();
+    }
+
+    private Set<String> findExistingMembers(String roomId, List<String> userIds) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < userIds.size(); from += EXISTING_QUERY_CHUNK) {
+            List<String> chunk = userIds.subList(from, Math.min(from + EXISTING_QUERY_CHUNK, userIds.size()));
+            existing.addAll(roomUserRepository.findUserIdsByRoomIdAndUserIdIn(roomId, chunk));
+        }
+        return existing;
+    }
+
+    /**
+     * @return 실제로 INSERT된 userId (조회 이후 다른 요청이 먼저 넣은 행 제외)
+     * - rewriteBatchedStatements 사용 시 행별 결과 대신 SUCCESS_NO_INFO가 올 수 있어, 그런 배치는 다시 조회해 확인
+     *   (같은 트랜잭션 스냅샷에는 이 트랜잭션이 넣은 행만 새로 보이고, 다른 요청이 넣은 행은 보이지 않는다)
+     */
+    private List<String> insertMembers(String roomId, List<String> userIds) {
+        List<String> inserted = new ArrayList<>(userIds.size());
+        if (userIds.isEmpty()) {
+            return inserted;
+        }
+        Timestamp joinedAt = Timestamp.valueOf(LocalDateTime.now());
+        String role = RoomUser.UserRole.MEMBER.name();
+        long headSeq = headSeqOf(roomId);
+        int[][] results = jdbcTemplate.batchUpdate(BULK_INSERT_SQL, userIds, bulkJoinBatchSize, (ps, userId) -> {
+            ps.setString(1, roomId);
+            ps.setString(2, userId);
+            ps.setTimestamp(3, joinedAt);
+            ps.setString(4, role);
+            ps.setLong(5, headSeq);
+        });
+        List<String> unknown = new ArrayList<>();
+        int index = 0;
+        for (int[] batch : results) {
+            for (int count : batch) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    unknown.add(userIds.get(index));
+                } else if (count > 0) {
+                    inserted.add(userIds.get(index));
+                }
+                index++;
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Set<String> present = findExistingMembers(roomId, unknown);
+            unknown.stream().filter(present::contains).forEach(inserted::add);
+        }
+        return inserted;
+    }
+
+    // 방 head seq (room_sequences, 메시지가 없으면 0)
+    private long headSeqOf(String roomId) {
+        return roomSequenceRepository.findById(roomId).map(RoomSequence::getSeq).orElse(0L);
+    }
+
+    /**
+     * 멤버 여부 - 캐시에 있으면 DB 조회 없음 (비멤버도 짧게 캐시)
+     */
+    public boolean isMember(String roomId, String userId) {
+        return membershipCache.isMember(roomId, userId,
+                () -> roomUserRepository.existsById(new RoomUser.RoomUserId(roomId, userId)));
+    }
 
+    /**
+     * 참여 중인 방 목록 - 멤버십 1회 + 방 findAllById 1회로 조회하고 사용자별로 캐시
+     */
     public List<ChatRoom> getRoomsByUser(String userId) {
-        List<RoomUser> entries = roomUserRepository.findAllByUserId(userId);
+        return roomListCache.get(userId, () -> loadRoomsByUser(userId));
+    }
+
+    /**
+     * 나가기 - 멤버십 삭제 후 목록 캐시 무효화
+     */
+    @Transactional
+    public void leaveRoom(String roomId, String userId) {
+        roomUserRepository.deleteById(new RoomUser.RoomUserId(roomId, userId));
+        roomCacheInvalidator.invalidateMembers(roomId, List.of(userId));
+    }
 
-        return entries.stream()
-                .map(e -> chatRoomRepository.findById(e.getRoomId()).orElse(null))
-                .filter(r -> r != null)
+    private List<ChatRoom> loadRoomsByUser(String userId) {
+        List<String> roomIds = roomUserRepository.findRoomIdsByUserId(userId);
+        Map<String, ChatRoom> rooms = new HashMap<>();
+        for (ChatRoom room : chatRoomRepository.findAllById(roomIds)) {
+            rooms.put(room.getRoomId(), room);
+        }
+        // 참여 순서 유지
+        return roomIds.stream()
+                .map(rooms::get)
+                .filter(Objects::nonNull)
                 .toList();
     }
-}
 
+    /**
+     * 참여 중인 방 목록 + 안 읽은 수 (방 head seq - 읽음 위치)
+     * - 방 정보는 캐시, 읽음 위치는 자주 바뀌므로 멤버십에서 매번 조회
+     * - head는 room_sequences에서 한 번에 조회, 읽음 위치는 DB 값과 메모리 값 중 큰 쪽
+     */
+    public List<RoomSummaryResponse> getRoomSummaries(String userId) {
+        List<RoomUser> entries = roomUserRepository.findAllByUserId(userId);
+        List<String> roomIds = entries.stream().map(RoomUser::getRoomId).toList();
+
+        Map<String, Long> heads = new HashMap<>();
+        for (RoomSequence sequence : roomSequenceRepository.findAllById(roomIds)) {
+            heads.put(sequence.getRoomId(), sequence.getSeq());
+        }
+        Map<String, RoomUser> membership = new HashMap<>();
+        entries.forEach(entry -> membership.put(entry.getRoomId(), entry));
+
+        List<RoomSummaryResponse> summaries = new ArrayList<>(entries.size());
+        for (ChatRoom room : getRoomsByUser(userId)) {
+            RoomUser member = membership.get(room.getRoomId());
+            if (member == null) {
+                continue; // 캐시 이후 나간 방
+            }
+            long headSeq = heads.getOrDefault(room.getRoomId(), 0L);
+            long lastReadSeq = Math.max(
+                    member.getLastReadSeq() == null ? 0L : member.getLastReadSeq(),
+                    readPositionTracker.lastRead(room.getRoomId(), userId));
+            summaries.add(RoomSummaryResponse.builder()
+                    .roomId(room.getRoomId())
+                    .name(room.getName())
+                    .ownerId(room.getOwnerId())
+                    .status(room.getStatus())
+                    .headSeq(headSeq)
+                    .lastReadSeq(lastReadSeq)
+                    .unreadCount(Math.max(0L, headSeq - lastReadSeq))
+                    .build());
+        }
+        return summaries;
+    }
+}
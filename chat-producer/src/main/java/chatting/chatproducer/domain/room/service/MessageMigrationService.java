@@ -1,19 +1,24 @@
 package chatting.chatproducer.domain.room.service;
 
 import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
-import chatting.chatproducer.domain.chatmessage.repository.ChatMessageMongoRepository;
-import chatting.chatproducer.domain.room.entity.MessageMigrationLog;
-import chatting.chatproducer.domain.room.repository.MessageMigrationLogRepository;
+import chatting.chatproducer.domain.chatmessage.service.ChatMessageBucketService;
+import chatting.chatproducer.domain.room.entity.MergeCheckpoint;
+import chatting.chatproducer.domain.room.entity.MessageMigrationChunk;
+import chatting.chatproducer.domain.room.migration.MergeCheckpointService;
+import chatting.chatproducer.domain.room.migration.MergeStepResult;
+import chatting.chatproducer.domain.room.migration.MergeTaskRunner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -21,72 +26,112 @@ import java.util.List;
 public class MessageMigrationService {
 
     private final MongoTemplate mongoTemplate;
-    private final ChatMessageMongoRepository chatMessageMongoRepository;
-    private final MessageMigrationLogRepository messageMigrationLogRepository;
+    private final MergeCheckpointService mergeCheckpointService;
+    private final ChatMessageBucketService chatMessageBucketService;
+    private final MergeTaskRunner mergeTaskRunner;
+
+    @Value("${chat.merge.message-chunk-size:1000}")
+    private int chunkSize;
 
     /**
-     * 메시지 마이그레이션 (업데이트 방식)
+     * 메시지 마이그레이션 (청크 단위 일괄 업데이트)
+     * - 소스 방마다 독립 작업으로 나눠 MergeTaskRunner에서 병렬 실행 (Mongo 부하 예산 적용)
+     * - 소스 방 메시지를 _id 순으로 chunkSize개씩 끊어, 청크마다 updateMulti 1회로 이동
+     * - 이동한 문서에는 mergeId / originalRoomId를 남겨 롤백 시 그대로 되돌릴 수 있게 한다
+     * - MySQL에는 청크당 요약 1행과 소스 방 체크포인트를 청크마다 커밋
+     * - 체크포인트가 있으면 (장애 후 재개) 마지막 _id 이후부터 이어서 처리, 완료된 소스 방은 건너뜀
+     * - 방 크기에 비례해 오래 걸리므로 작업 시간 제한 없음 (멈춘 작업은 체크포인트 heartbeat로 감지해 재개)
+     * @return 이동한 메시지 수 (이전 실행분 포함)
      */
-    @Transactional
-    public void migrateMessages(String mergeId, String targetRoomId, List<String> sourceRoomIds) {
-        log.info("메시지 마이그레이션 시작: mergeId={}, targetRoomId={}, sourceRoomIds={}",
-                mergeId, targetRoomId, sourceRoomIds);
+    public long migrateMessages(String mergeId, String targetRoomId, List<String> sourceRoomIds) {
+        Map<String, MergeCheckpoint> checkpoints = mergeCheckpointService.load(mergeId);
+        log.info("메시지 마이그레이션 시작: mergeId={}, targetRoomId={}, sourceRoomIds={}, chunkSize={}, resumedSources={}",
+                mergeId, targetRoomId, sourceRoomIds, chunkSize, checkpoints.keySet());
 
-        int totalMigrated = 0;
+        MergeStepResult result = mergeTaskRunner.runPerSource(mergeId, "MESSAGES_MIGRATED", sourceRoomIds,
+                MergeTaskRunner.Resource.MONGO, false, MergeTaskRunner.NO_TIMEOUT,
+                sourceRoomId -> migrateSourceRoom(mergeId, sourceRoomId, targetRoomId, checkpoints.get(sourceRoomId)));
+        if (result.hasFailures()) {
+            // 성공한 소스 방은 이미 커밋됨 - 실패 이벤트의 롤백이 mergeId 기준으로 함께 되돌린다
+            throw new IllegalStateException("메시지 마이그레이션 실패 소스 방: " + result.getFailedRoomIds());
+        }
 
-        for (String sourceRoomId : sourceRoomIds) {
-            // roomId == sourceRoomId 인 문서들을 페이징으로 조회
-            int page = 0;
-            while (true) {
-                List<ChatMessageDocument> batch = 
-                    chatMessageMongoRepository.findByRoomIdOrderByTimestampAsc(sourceRoomId);
-                if (batch.isEmpty()) break;
-
-                for (ChatMessageDocument message : batch) {
-                    try {
-                        // 현재 위치 확인
-                        boolean alreadyInTarget = targetRoomId.equals(message.getRoomId());
-
-                        // 로그 먼저 기록
-                        MessageMigrationLog migrationLog = MessageMigrationLog.of(
-                            mergeId, sourceRoomId, targetRoomId,
-                            message.getId(), alreadyInTarget, message.getRoomId()
-                        );
-                        messageMigrationLogRepository.save(migrationLog);
-
-                        if (!alreadyInTarget) {
-                            // 이동: roomId를 target으로 업데이트
-                            Query query = new Query(Criteria.where("_id").is(message.getId())
-                                                          .and("roomId").is(sourceRoomId));
-                            Update update = new Update().set("roomId", targetRoomId);
-
-                            var result = mongoTemplate.updateFirst(query, update, ChatMessageDocument.class);
-                            if (result.getModifiedCount() > 0) {
-                                totalMigrated++;
-                                log.debug("메시지 이동: messageId={}, {} -> {}", 
-                                        message.getId(), sourceRoomId, targetRoomId);
-                            } else {
-                                // 멱등/경합: 이미 이동됐거나 조건 미일치
-                                log.debug("이동 스킵/멱등: messageId={}, from={}", message.getId(), sourceRoomId);
-                            }
-                        } else {
-                            // 이미 타겟에 있음 → skip
-                            log.debug("이미 타겟에 존재: messageId={}, targetRoomId={}", 
-                                    message.getId(), targetRoomId);
-                        }
-
-                    } catch (Exception e) {
-                        log.error("개별 메시지 마이그레이션 실패: mergeId={}, messageId={}, sourceRoomId={}",
-                                  mergeId, message.getId(), sourceRoomId, e);
-                    }
-                }
-                
-                page++;
-                if (batch.size() < 1000) break; // 마지막 페이지
+        log.info("메시지 마이그레이션 완료: mergeId={}, totalMigrated={}", mergeId, result.getMigratedCount());
+        return result.getMigratedCount();
+    }
+
+    private long migrateSourceRoom(String mergeId, String sourceRoomId, String targetRoomId,
+                                   MergeCheckpoint checkpoint) {
+        if (targetRoomId.equals(sourceRoomId)) {
+            log.debug("이미 타겟에 존재: sourceRoomId={}", sourceRoomId);
+            return 0;
+        }
+        if (checkpoint != null && checkpoint.isCompleted()) {
+            log.info("체크포인트상 완료된 소스 방: mergeId={}, sourceRoomId={}, migrated={}",
+                    mergeId, sourceRoomId, checkpoint.getMigratedCount());
+            return checkpoint.getMigratedCount();
+        }
+
+        long roomMigrated = checkpoint == null ? 0 : checkpoint.getMigratedCount();
+        int chunks = 0;
+        String lastId = checkpoint == null ? null : checkpoint.getLastMessageId();
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("메시지 마이그레이션 중단: mergeId=" + mergeId + ", sourceRoomId=" + sourceRoomId);
             }
+            List<String> ids = nextChunkIds(sourceRoomId, lastId);
+            if (ids.isEmpty()) break;
+
+            String chunkLastId = ids.get(ids.size() - 1);
+            long moved = moveChunk(mergeId, sourceRoomId, targetRoomId, lastId, chunkLastId);
+            mergeCheckpointService.recordChunk(MessageMigrationChunk.of(
+                    mergeId, sourceRoomId, targetRoomId, ids.get(0), chunkLastId, moved));
+            roomMigrated += moved;
+
+            lastId = chunkLastId;
+            chunks++;
+            if (ids.size() < chunkSize) break; // 마지막 청크
+        }
+        log.info("소스 방 메시지 이동: mergeId={}, {} -> {}, migrated={}, chunks={}",
+                mergeId, sourceRoomId, targetRoomId, roomMigrated, chunks);
+
+        // 버킷 projection도 함께 이동 (롤백은 mergeId 기준으로 복원)
+        chatMessageBucketService.moveRoom(mergeId, sourceRoomId, targetRoomId);
+        mergeCheckpointService.markCompleted(mergeId, sourceRoomId);
+        return roomMigrated;
+    }
+
+    /**
+     * lastId 이후 소스 방 메시지 _id를 최대 chunkSize개 (_id만 조회)
+     */
+    private List<String> nextChunkIds(String sourceRoomId, String lastId) {
+        Criteria criteria = Criteria.where("roomId").is(sourceRoomId);
+        if (lastId != null) {
+            criteria = criteria.and("_id").gt(lastId);
+        }
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(chunkSize);
+        query.fields().include("_id");
+        return mongoTemplate.find(query, ChatMessageDocument.class).stream()
+                .map(ChatMessageDocument::getId)
+                .toList();
+    }
+
+    /**
+     * (fromId, toId] 범위의 소스 방 메시지를 한 번에 타겟으로 이동
+     */
+    private long moveChunk(String mergeId, String sourceRoomId, String targetRoomId, String fromId, String toId) {
+        Criteria range = Criteria.where("_id").lte(toId);
+        if (fromId != null) {
+            range.gt(fromId);
         }
-        
-        log.info("메시지 마이그레이션 완료: mergeId={}, totalMigrated={}", mergeId, totalMigrated);
+        Query query = new Query(Criteria.where("roomId").is(sourceRoomId).andOperator(range));
+        Update update = new Update()
+                .set("roomId", targetRoomId)
+                .set("mergeId", mergeId)
+                .set("originalRoomId", sourceRoomId);
+        return mongoTemplate.updateMulti(query, update, ChatMessageDocument.class).getModifiedCount();
     }
 
     /**
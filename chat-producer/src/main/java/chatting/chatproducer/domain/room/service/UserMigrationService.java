@@ -1,17 +1,21 @@
 package chatting.chatproducer.domain.room.service;
 
+import chatting.chatproducer.domain.chatmessage.document.RoomSequence;
+import chatting.chatproducer.domain.chatmessage.repository.RoomSequenceRepository;
+import chatting.chatproducer.domain.room.cache.RoomCacheInvalidator;
 import chatting.chatproducer.domain.room.entity.RoomUser;
-import chatting.chatproducer.domain.room.entity.UserMigrationLog;
 import chatting.chatproducer.domain.room.repository.RoomUserRepository;
-import chatting.chatproducer.domain.room.repository.UserMigrationLogRepository;
 import chatting.chatproducer.kafka.dto.MergeEventDTO;
 import chatting.chatproducer.kafka.producer.MergeEventProducer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -21,119 +25,113 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class UserMigrationService {
 
+    // RoomUser.UserRole 우선순위와 동일 (MEMBER=1, ADMIN=2, OWNER=3)
+    private static final String ROLE_PRIORITY_SQL = "FIELD(%s, 'MEMBER', 'ADMIN', 'OWNER')";
+
     private final RoomUserRepository roomUserRepository;
-    private final UserMigrationLogRepository userMigrationLogRepository;
+    private final RoomSequenceRepository roomSequenceRepository;
     private final MergeEventProducer mergeEventProducer;
+    private final RoomCacheInvalidator roomCacheInvalidator;
+    private final JdbcTemplate jdbcTemplate;
+
+    // 소스 방 멤버십 + 타겟 방 기존 멤버십을 로그로 스냅샷 (롤백 기준, 재시도 시 기존 스냅샷 유지)
+    // 소스 방 목록은 IN (%s)에 자리표시자로 채운다 - 모든 소스를 한 문장으로 처리
+    private static final String SNAPSHOT_SQL =
+            "INSERT IGNORE INTO user_migration_log "
+                    + "(merge_id, source_room_id, target_room_id, user_id, migrated_at, status, "
+                    + "was_member_in_from, was_member_in_to, prev_role_in_from, prev_role_in_to, "
+                    + "prev_last_read_seq_in_from) "
+                    + "SELECT ?, s.room_id, ?, s.user_id, ?, 'MIGRATED', TRUE, t.user_id IS NOT NULL, s.role, t.role, "
+                    + "s.last_read_seq "
+                    + "FROM room_user s LEFT JOIN room_user t ON t.room_id = ? AND t.user_id = s.user_id "
+                    + "WHERE s.room_id IN (%s)";
+
+    // 타겟에 없으면 추가, 있으면 우선순위(OWNER > ADMIN > MEMBER)가 높은 역할을 유지
+    // seq는 방마다 따로 매기므로 소스 방 읽음 위치는 옮기지 않는다 - 새 멤버는 타겟 방 head부터 (joinRoom과 동일),
+    // 기존 멤버는 타겟 방 읽음 위치 그대로
+    // 소스 방마다 따로 upsert하면 같은 타겟 행/갭 락을 다른 순서로 잡아 데드락이 날 수 있으므로 한 문장으로 실행
+    // (여러 소스 방에 같은 사용자가 있으면 문장 안에서 ON DUPLICATE KEY로 높은 역할이 남음)
+    private static final String UPSERT_TARGET_SQL =
+            "INSERT INTO room_user (room_id, user_id, joined_at, role, last_read_seq) "
+                    + "SELECT ?, s.user_id, ?, s.role, ? FROM room_user s WHERE s.room_id IN (%s) "
+                    + "ON DUPLICATE KEY UPDATE "
+                    + "role = IF("
+                    + ROLE_PRIORITY_SQL.formatted("VALUES(role)") + " > " + ROLE_PRIORITY_SQL.formatted("role")
+                    + ", VALUES(role), role)";
+
+    private static final String DELETE_SOURCE_SQL = "DELETE FROM room_user WHERE room_id IN (%s)";
+
+    private static final String COUNT_NEW_USERS_SQL =
+            "SELECT COUNT(DISTINCT user_id) FROM user_migration_log WHERE merge_id = ? AND was_member_in_to = FALSE";
+
+    // 롤백: 정방향에서 타겟에 새로 추가된 사용자 제거
+    private static final String ROLLBACK_DELETE_ADDED_SQL =
+            "DELETE t FROM room_user t JOIN user_migration_log l "
+                    + "ON t.room_id = l.target_room_id AND t.user_id = l.user_id "
+                    + "WHERE l.merge_id = ? AND l.status = 'MIGRATED' AND l.was_member_in_to = FALSE";
+
+    // 롤백: 원래 타겟에 있던 사용자의 역할 복원
+    private static final String ROLLBACK_RESTORE_TARGET_ROLE_SQL =
+            "UPDATE room_user t JOIN user_migration_log l "
+                    + "ON t.room_id = l.target_room_id AND t.user_id = l.user_id "
+                    + "SET t.role = l.prev_role_in_to "
+                    + "WHERE l.merge_id = ? AND l.status = 'MIGRATED' AND l.was_member_in_to = TRUE "
+                    + "AND l.prev_role_in_to IS NOT NULL";
+
+    // 롤백: 소스 방 멤버십 복구 (이미 있으면 이전 역할로, 읽음 위치는 큰 쪽)
+    private static final String ROLLBACK_RESTORE_SOURCE_SQL =
+            "INSERT INTO room_user (room_id, user_id, joined_at, role, last_read_seq) "
+                    + "SELECT l.source_room_id, l.user_id, ?, COALESCE(l.prev_role_in_from, 'MEMBER'), "
+                    + "l.prev_last_read_seq_in_from "
+                    + "FROM user_migration_log l "
+                    + "WHERE l.merge_id = ? AND l.status = 'MIGRATED' AND l.was_member_in_from = TRUE "
+                    + "ON DUPLICATE KEY UPDATE role = VALUES(role), "
+                    + "last_read_seq = GREATEST(COALESCE(last_read_seq, 0), COALESCE(VALUES(last_read_seq), 0))";
+
+    private static final String ROLLBACK_MARK_SQL =
+            "UPDATE user_migration_log SET status = 'ROLLED_BACK', rolled_back_at = ? "
+                    + "WHERE merge_id = ? AND status = 'MIGRATED'";
 
     /**
-     * 사용자 마이그레이션
+     * 사용자 마이그레이션 (집합 단위 SQL, 호출자 트랜잭션에서 실행)
+     * 1. INSERT ... SELECT로 모든 소스 방의 이전 상태를 user_migration_log에 스냅샷
+     * 2. 타겟 upsert (역할 우선순위 반영) + 소스 멤버십 일괄 삭제
+     * - 모든 소스 방을 IN (...) 한 문장으로 처리 (같은 타겟에 대한 동시 upsert 데드락 방지)
+     *   소스 방별 병렬 처리는 메시지 단계(MessageMigrationService)에만 사용
+     * @return 타겟 방에 새로 추가된 사용자 수
      */
-    @Transactional
-    public void migrateUsers(String mergeId, String targetRoomId, List<String> sourceRoomIds) {
+    public long migrateUsers(String mergeId, String targetRoomId, List<String> sourceRoomIds) {
         log.info("사용자 마이그레이션 시작: mergeId={}, targetRoomId={}, sourceRoomIds={}", 
                 mergeId, targetRoomId, sourceRoomIds);
 
-        try {
-            // 1. 소스 방들의 사용자들 조회
-            List<RoomUser> sourceRoomUsers = roomUserRepository.findByRoomIdIn(sourceRoomIds);
-            log.info("소스 방 사용자 조회 완료: mergeId={}, userCount={}", mergeId, sourceRoomUsers.size());
-
-            // 2. 타겟 방의 기존 사용자들 조회
-            List<RoomUser> targetRoomUsers = roomUserRepository.findByRoomId(targetRoomId);
-            Set<String> existingUserIds = targetRoomUsers.stream()
-                    .map(RoomUser::getUserId)
-                    .collect(Collectors.toSet());
-            
-            log.info("타겟 방 기존 사용자 조회 완료: mergeId={}, existingUserCount={}", mergeId, existingUserIds.size());
-
-            // 3. 모든 소스 방 사용자에 대해 로그 기록 및 마이그레이션 수행
-            log.info("마이그레이션 대상 사용자 처리 시작: mergeId={}, totalUserCount={}", 
-                    mergeId, sourceRoomUsers.size());
-
-            // 4. 사용자들을 타겟 방으로 이동 (중복 여부와 관계없이 모든 사용자 처리)
-            int migratedCount = 0;
-            for (RoomUser sourceUser : sourceRoomUsers) {
-                try {
-                    // 이전 상태 스냅샷 생성
-                    boolean wasMemberInTo = existingUserIds.contains(sourceUser.getUserId());
-                    String prevRoleInTo = null;
-                    if (wasMemberInTo) {
-                        // 타겟 방에 이미 있는 사용자의 경우 현재 역할 조회
-                        RoomUser existingUser = targetRoomUsers.stream()
-                                .filter(user -> user.getUserId().equals(sourceUser.getUserId()))
-                                .findFirst()
-                                .orElse(null);
-                        prevRoleInTo = existingUser != null ? existingUser.getRole().name() : null;
-                    }
-                    
-                    boolean wasMemberInFrom = true; // 소스 방에서 마이그레이션하는 사용자이므로 true
-                    String prevRoleInFrom = sourceUser.getRole().name();
-
-                    // 마이그레이션 로그 먼저 기록 (롤백을 위한 스냅샷)
-                    UserMigrationLog migrationLog = UserMigrationLog.of(
-                            mergeId, 
-                            sourceUser.getRoomId(), 
-                            targetRoomId, 
-                            sourceUser.getUserId(),
-                            wasMemberInFrom,
-                            wasMemberInTo,
-                            prevRoleInFrom,
-                            prevRoleInTo
-                    );
-                    userMigrationLogRepository.save(migrationLog);
-
-                    // 중복 여부에 따라 다른 처리
-                    if (!wasMemberInTo) {
-                        // 타겟 방에 없는 사용자: 새로 추가
-                        RoomUser targetUser = RoomUser.builder()
-                                .roomId(targetRoomId)
-                                .userId(sourceUser.getUserId())
-                                .joinedAt(LocalDateTime.now()) // 현재 시간으로 업데이트
-                                .role(sourceUser.getRole())
-                                .build();
-                        roomUserRepository.save(targetUser);
-                        migratedCount++;
-                        log.debug("새 사용자 추가: userId={}, targetRoomId={}", sourceUser.getUserId(), targetRoomId);
-                    } else {
-                        // 타겟 방에 이미 있는 사용자: 역할 업데이트 (필요한 경우)
-                        if (prevRoleInTo != null && !prevRoleInTo.equals(sourceUser.getRole().name())) {
-                            roomUserRepository.updateRole(sourceUser.getUserId(), targetRoomId, sourceUser.getRole().name());
-                            log.debug("기존 사용자 역할 업데이트: userId={}, targetRoomId={}, newRole={}", 
-                                    sourceUser.getUserId(), targetRoomId, sourceUser.getRole().name());
-                        }
-                    }
-
-                    log.debug("사용자 마이그레이션 완료: mergeId={}, userId={}, sourceRoomId={}, targetRoomId={}, wasMemberInTo={}", 
-                            mergeId, sourceUser.getUserId(), sourceUser.getRoomId(), targetRoomId, wasMemberInTo);
-
-                } catch (Exception e) {
-                    log.error("개별 사용자 마이그레이션 실패: mergeId={}, userId={}, sourceRoomId={}", 
-                            mergeId, sourceUser.getUserId(), sourceUser.getRoomId(), e);
-                    // 개별 실패는 로그만 남기고 계속 진행
-                }
-            }
-
-            // 5. 소스 방의 모든 사용자들 삭제 (중복 여부와 관계없이)
-            // 병합 후 소스 방이 삭제되므로 모든 사용자 정보도 함께 삭제
-            for (String sourceRoomId : sourceRoomIds) {
-                try {
-                    List<RoomUser> usersToDelete = roomUserRepository.findByRoomId(sourceRoomId);
-                    log.info("삭제할 사용자 조회: sourceRoomId={}, count={}", sourceRoomId, usersToDelete.size());
-                    
-                    if (!usersToDelete.isEmpty()) {
-                        roomUserRepository.deleteAll(usersToDelete);
-                        log.info("소스 방 사용자 삭제 성공: sourceRoomId={}, deletedCount={}", sourceRoomId, usersToDelete.size());
-                    } else {
-                        log.info("삭제할 사용자가 없음: sourceRoomId={}", sourceRoomId);
-                    }
-                } catch (Exception e) {
-                    log.error("소스 방 사용자 삭제 실패: sourceRoomId={}", sourceRoomId, e);
-                    throw new RuntimeException("소스 방 사용자 삭제 실패: " + sourceRoomId, e);
-                }
-            }
+        if (sourceRoomIds.isEmpty()) {
+            return 0;
+        }
 
-            log.info("사용자 마이그레이션 완료: mergeId={}, migratedCount={}, totalSourceUsers={}", 
-                    mergeId, migratedCount, sourceRoomUsers.size());
+        try {
+            String placeholders = String.join(", ", Collections.nCopies(sourceRoomIds.size(), "?"));
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+            // 1. 스냅샷 - upsert 전에 기록해야 타겟 기존 멤버 판단이 정확함
+            int logged = jdbcTemplate.update(SNAPSHOT_SQL.formatted(placeholders),
+                    withSourceRoomIds(sourceRoomIds, mergeId, targetRoomId, now, targetRoomId));
+            log.info("사용자 스냅샷 완료: mergeId={}, logCount={}", mergeId, logged);
+
+            // 2. 타겟 upsert + 소스 삭제 (병합 후 소스 방이 삭제되므로 모든 사용자 정보도 함께 삭제)
+            int upserted = jdbcTemplate.update(UPSERT_TARGET_SQL.formatted(placeholders),
+                    withSourceRoomIds(sourceRoomIds, targetRoomId, now, headSeqOf(targetRoomId)));
+            int deleted = jdbcTemplate.update(DELETE_SOURCE_SQL.formatted(placeholders), sourceRoomIds.toArray());
+
+            // 타겟/소스 방 멤버십이 바뀌었으므로 모든 인스턴스의 캐시 무효화
+            List<String> changedRoomIds = new ArrayList<>(sourceRoomIds);
+            changedRoomIds.add(targetRoomId);
+            roomCacheInvalidator.invalidateRooms(changedRoomIds);
+
+            Long added = jdbcTemplate.queryForObject(COUNT_NEW_USERS_SQL, Long.class, mergeId);
+            long migratedCount = added == null ? 0 : added;
+            log.info("사용자 마이그레이션 완료: mergeId={}, migratedCount={}, upsertAffected={}, totalSourceUsers={}",
+                    mergeId, migratedCount, upserted, deleted);
+            return migratedCount;
 
         } catch (Exception e) {
             log.error("사용자 마이그레이션 실패: mergeId={}, targetRoomId={}", mergeId, targetRoomId, e);
@@ -141,6 +139,34 @@ public class UserMigrationService {
         }
     }
 
+    // 앞쪽 파라미터 뒤에 IN (...) 자리표시자용 소스 방 id를 붙인다
+    private static Object[] withSourceRoomIds(List<String> sourceRoomIds, Object... leading) {
+        List<Object> args = new ArrayList<>(List.of(leading));
+        args.addAll(sourceRoomIds);
+        return args.toArray();
+    }
+
+    /**
+     * 사용자 마이그레이션 롤백 (집합 단위 SQL, 호출자 트랜잭션에서 실행)
+     * - 타겟에 새로 추가된 사용자 제거 → 타겟 기존 역할 복원 → 소스 멤버십(읽음 위치 포함) 복구 → 로그 ROLLED_BACK
+     * - 타겟 기존 멤버의 읽음 위치는 병합 중 바뀌지 않으므로 복원하지 않는다
+     */
+    public void rollbackUsers(String mergeId) {
+        int removed = jdbcTemplate.update(ROLLBACK_DELETE_ADDED_SQL, mergeId);
+        int restoredRoles = jdbcTemplate.update(ROLLBACK_RESTORE_TARGET_ROLE_SQL, mergeId);
+        int restoredSources = jdbcTemplate.update(ROLLBACK_RESTORE_SOURCE_SQL,
+                Timestamp.valueOf(LocalDateTime.now()), mergeId);
+        int marked = jdbcTemplate.update(ROLLBACK_MARK_SQL, Timestamp.valueOf(LocalDateTime.now()), mergeId);
+        log.info("사용자 마이그레이션 롤백: mergeId={}, removedFromTarget={}, restoredTargetRoles={}, "
+                        + "restoredSourceAffected={}, logs={}",
+                mergeId, removed, restoredRoles, restoredSources, marked);
+    }
+
+    // 방 head seq (room_sequences, 메시지가 없으면 0)
+    private long headSeqOf(String roomId) {
+        return roomSequenceRepository.findById(roomId).map(RoomSequence::getSeq).orElse(0L);
+    }
+
     /**
      * 마이그레이션 전 검증
      */
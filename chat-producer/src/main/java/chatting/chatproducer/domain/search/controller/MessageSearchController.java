@@ -0,0 +1,37 @@
+package chatting.chatproducer.domain.search.controller;
+
+import chatting.chatproducer.domain.search.dto.MessageSearchResponse;
+import chatting.chatproducer.domain.search.service.MessageSearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class MessageSearchController {
+
+    private final MessageSearchService messageSearchService;
+
+    /**
+     * 방 안 메시지 검색 (모든 검색어 포함, sender/기간 필터 선택, from/to는 ISO-8601 [from, to))
+     */
+    @GetMapping("/messages")
+    public ResponseEntity<MessageSearchResponse> search(@RequestParam String roomId,
+                                                        @RequestParam String q,
+                                                        @RequestParam(required = false) String sender,
+                                                        @RequestParam(required = false) Instant from,
+                                                        @RequestParam(required = false) Instant to,
+                                                        @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(messageSearchService.search(roomId, q, sender, from, to, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
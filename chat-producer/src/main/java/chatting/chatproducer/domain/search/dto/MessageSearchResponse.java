@@ -0,0 +1,17 @@
+package chatting.chatproducer.domain.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResponse {
+    private List<MessageSearchResult> results; // 최신 → 오래된 순
+    private boolean hasMore; // 같은 조건으로 to를 마지막 결과 시각으로 줄여 다시 요청
+}
@@ -0,0 +1,21 @@
+package chatting.chatproducer.domain.search.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MessageSearchResult {
+    private String id;
+    private String roomId;
+    private Long seq;
+    private String sender;
+    private String message;
+    private Instant timestamp;
+}
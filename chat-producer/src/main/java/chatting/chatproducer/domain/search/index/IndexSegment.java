@@ -0,0 +1,266 @@
+package chatting.chatproducer.domain.search.index;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 불변 색인 세그먼트
+ * - 문서는 추가된 순서의 번호(ordinal)로 가리키고, 저장 필드는 필터에 필요한 것만 (id, roomId, sender, timestamp)
+ * - 포스팅: term → roomId → 정렬된 ordinal 배열 (방 필터를 포스팅 단계에서 처리)
+ * - partitionOffsets: 이 세그먼트까지 반영된 chat-message-sent 파티션별 마지막 offset
+ */
+public class IndexSegment {
+
+    private static final int MAGIC = 0x43534958; // "CSIX"
+    private static final int VERSION = 1;
+
+    private final long generation;
+    private final String[] messageIds;
+    private final String[] roomIds;
+    private final String[] senders;
+    private final long[] timestamps;
+    private final Map<String, Map<String, int[]>> postings;
+    private final Map<Integer, Long> partitionOffsets;
+
+    private volatile Path file; // 디스크에 기록되기 전이면 null
+
+    IndexSegment(long generation, String[] messageIds, String[] roomIds, String[] senders, long[] timestamps,
+                 Map<String, Map<String, int[]>> postings, Map<Integer, Long> partitionOffsets) {
+        this.generation = generation;
+        this.messageIds = messageIds;
+        this.roomIds = roomIds;
+        this.senders = senders;
+        this.timestamps = timestamps;
+        this.postings = postings;
+        this.partitionOffsets = partitionOffsets;
+    }
+
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int size() {
+        return messageIds.length;
+    }
+
+    public Map<Integer, Long> getPartitionOffsets() {
+        return partitionOffsets;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * 방 안에서 모든 term을 포함하는 문서를 찾아 sender/시간 필터 후 전달 (AND 검색)
+     */
+    public void search(String roomId, Collection<String> terms, String sender, long fromMs, long toMs,
+                       Consumer<SearchHit> hits) {
+        int[][] lists = new int[terms.size()][];
+        int index = 0;
+        for (String term : terms) {
+            Map<String, int[]> byRoom = postings.get(term);
+            int[] ordinals = byRoom == null ? null : byRoom.get(roomId);
+            if (ordinals == null) {
+                return;
+            }
+            lists[index++] = ordinals;
+        }
+        // 가장 짧은 목록부터 교집합
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] matched = lists[0];
+        for (int i = 1; i < lists.length && matched.length > 0; i++) {
+            matched = intersect(matched, lists[i]);
+        }
+        for (int ordinal : matched) {
+            long timestamp = timestamps[ordinal];
+            if ((sender == null || sender.equals(senders[ordinal])) && timestamp >= fromMs && timestamp < toMs) {
+                hits.accept(new SearchHit(messageIds[ordinal], timestamp));
+            }
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    /**
+     * 여러 세그먼트를 하나로 합친다 (문서 번호는 앞 세그먼트 크기만큼 밀어서 이어 붙임)
+     */
+    public static IndexSegment merge(long generation, List<IndexSegment> segments) {
+        int total = 0;
+        for (IndexSegment segment : segments) {
+            total += segment.size();
+        }
+        String[] messageIds = new String[total];
+        String[] roomIds = new String[total];
+        String[] senders = new String[total];
+        long[] timestamps = new long[total];
+        Map<String, Map<String, int[]>> postings = new HashMap<>();
+        Map<Integer, Long> offsets = new HashMap<>();
+
+        int base = 0;
+        for (IndexSegment segment : segments) {
+            int size = segment.size();
+            System.arraycopy(segment.messageIds, 0, messageIds, base, size);
+            System.arraycopy(segment.roomIds, 0, roomIds, base, size);
+            System.arraycopy(segment.senders, 0, senders, base, size);
+            System.arraycopy(segment.timestamps, 0, timestamps, base, size);
+            for (Map.Entry<String, Map<String, int[]>> term : segment.postings.entrySet()) {
+                Map<String, int[]> merged = postings.computeIfAbsent(term.getKey(), key -> new HashMap<>());
+                for (Map.Entry<String, int[]> room : term.getValue().entrySet()) {
+                    merged.merge(room.getKey(), shift(room.getValue(), base), IndexSegment::concat);
+                }
+            }
+            segment.partitionOffsets.forEach((partition, offset) -> offsets.merge(partition, offset, Math::max));
+            base += size;
+        }
+        return new IndexSegment(generation, messageIds, roomIds, senders, timestamps, postings, offsets);
+    }
+
+    private static int[] shift(int[] ordinals, int base) {
+        int[] shifted = new int[ordinals.length];
+        for (int i = 0; i < ordinals.length; i++) {
+            shifted[i] = ordinals[i] + base;
+        }
+        return shifted;
+    }
+
+    private static int[] concat(int[] a, int[] b) {
+        int[] result = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, result, a.length, b.length);
+        return result;
+    }
+
+    /**
+     * 임시 파일에 쓴 뒤 rename (쓰다가 죽어도 반쯤 쓴 세그먼트가 로드되지 않게)
+     */
+    public void writeTo(Path directory) throws IOException {
+        Path target = directory.resolve(fileName(generation));
+        Path temp = directory.resolve(fileName(generation) + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+
+            out.writeInt(partitionOffsets.size());
+            for (Map.Entry<Integer, Long> entry : partitionOffsets.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+
+            out.writeInt(messageIds.length);
+            for (int i = 0; i < messageIds.length; i++) {
+                out.writeUTF(messageIds[i]);
+                out.writeUTF(roomIds[i]);
+                out.writeUTF(senders[i] == null ? "" : senders[i]);
+                out.writeLong(timestamps[i]);
+            }
+
+            out.writeInt(postings.size());
+            for (Map.Entry<String, Map<String, int[]>> term : postings.entrySet()) {
+                out.writeUTF(term.getKey());
+                out.writeInt(term.getValue().size());
+                for (Map.Entry<String, int[]> room : term.getValue().entrySet()) {
+                    out.writeUTF(room.getKey());
+                    int[] ordinals = room.getValue();
+                    out.writeInt(ordinals.length);
+                    int previous = 0;
+                    for (int ordinal : ordinals) {
+                        out.writeInt(ordinal - previous); // 정렬되어 있으므로 차이만 기록
+                        previous = ordinal;
+                    }
+                }
+            }
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        this.file = target;
+    }
+
+    public static IndexSegment readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("색인 세그먼트 파일이 아님: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("지원하지 않는 세그먼트 버전: " + version);
+            }
+            long generation = in.readLong();
+
+            int partitionCount = in.readInt();
+            Map<Integer, Long> offsets = new HashMap<>();
+            for (int i = 0; i < partitionCount; i++) {
+                offsets.put(in.readInt(), in.readLong());
+            }
+
+            int docCount = in.readInt();
+            String[] messageIds = new String[docCount];
+            String[] roomIds = new String[docCount];
+            String[] senders = new String[docCount];
+            long[] timestamps = new long[docCount];
+            Map<String, String> roomPool = new HashMap<>(); // 같은 roomId 문자열 공유
+            for (int i = 0; i < docCount; i++) {
+                messageIds[i] = in.readUTF();
+                roomIds[i] = roomPool.computeIfAbsent(in.readUTF(), id -> id);
+                String sender = in.readUTF();
+                senders[i] = sender.isEmpty() ? null : sender;
+                timestamps[i] = in.readLong();
+            }
+
+            int termCount = in.readInt();
+            Map<String, Map<String, int[]>> postings = new HashMap<>(termCount * 2);
+            for (int i = 0; i < termCount; i++) {
+                String term = in.readUTF();
+                int roomCount = in.readInt();
+                Map<String, int[]> byRoom = new HashMap<>(roomCount * 2);
+                for (int r = 0; r < roomCount; r++) {
+                    String roomId = roomPool.computeIfAbsent(in.readUTF(), id -> id);
+                    int[] ordinals = new int[in.readInt()];
+                    int previous = 0;
+                    for (int o = 0; o < ordinals.length; o++) {
+                        previous += in.readInt();
+                        ordinals[o] = previous;
+                    }
+                    byRoom.put(roomId, ordinals);
+                }
+                postings.put(term, byRoom);
+            }
+
+            IndexSegment segment = new IndexSegment(generation, messageIds, roomIds, senders, timestamps, postings, offsets);
+            segment.file = file;
+            return segment;
+        }
+    }
+
+    public static String fileName(long generation) {
+        return String.format("seg-%012d.idx", generation);
+    }
+}
@@ -0,0 +1,225 @@
+package chatting.chatproducer.domain.search.index;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * 인스턴스 로컬 전문 검색 색인 (chat-message-sent로 증분 색인)
+ * - 쓰기는 SegmentBuilder에 쌓고, refresh 주기마다 불변 세그먼트로 고정해 디스크에 기록 (그때부터 검색에 보임)
+ * - 세그먼트가 mergeFactor개 이상 쌓이면 작은 것부터 백그라운드에서 합친다
+ * - 세그먼트마다 반영된 파티션 offset을 기록해두고, 재시작 시 그 다음부터 다시 읽는다
+ * - 빈 색인은 Kafka 처음부터가 아니라 Mongo 백필로 채우고, 끝나면 표시 파일을 남긴다
+ */
+@Slf4j
+@Component
+public class MessageSearchIndex {
+
+    private static final String SEGMENT_SUFFIX = ".idx";
+    private static final String BACKFILL_MARKER = "backfill.done";
+    private static final int NO_PARTITION = -1;
+
+    private final Path directory;
+    private final int mergeFactor;
+
+    private final Object writeLock = new Object();
+    private SegmentBuilder builder = new SegmentBuilder();
+
+    // 검색은 이 목록의 스냅샷을 그대로 읽는다 (교체만 하고 수정하지 않음)
+    private volatile List<IndexSegment> segments = List.of();
+    private long nextGeneration = 1;
+
+    public MessageSearchIndex(@Value("${chat.search.index-dir:./search-index/${instance.id}}") String directory,
+                              @Value("${chat.search.merge-factor:10}") int mergeFactor) {
+        this.directory = Paths.get(directory);
+        this.mergeFactor = mergeFactor;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        List<IndexSegment> loaded = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(SEGMENT_SUFFIX + ".tmp")) {
+                    Files.deleteIfExists(file); // 기록 도중 죽은 세그먼트
+                } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                    loaded.add(IndexSegment.readFrom(file));
+                }
+            }
+        }
+        loaded.sort(Comparator.comparingLong(IndexSegment::getGeneration));
+        segments = List.copyOf(loaded);
+        nextGeneration = loaded.isEmpty() ? 1 : loaded.get(loaded.size() - 1).getGeneration() + 1;
+        log.info("검색 색인 로드: dir={}, segments={}, docs={}",
+                directory, loaded.size(), loaded.stream().mapToLong(IndexSegment::size).sum());
+    }
+
+    @PreDestroy
+    public void close() {
+        refresh();
+    }
+
+    public void add(String messageId, String roomId, String sender, long timestamp, String text,
+                    int partition, long offset) {
+        synchronized (writeLock) {
+            builder.add(messageId, roomId, sender, timestamp, text, partition, offset);
+        }
+    }
+
+    /**
+     * Mongo 백필 문서 추가 (Kafka offset 없음)
+     */
+    public void addBackfill(String messageId, String roomId, String sender, long timestamp, String text) {
+        synchronized (writeLock) {
+            builder.add(messageId, roomId, sender, timestamp, text, NO_PARTITION, 0);
+        }
+    }
+
+    public boolean isBackfilled() {
+        return Files.exists(directory.resolve(BACKFILL_MARKER));
+    }
+
+    /**
+     * 백필분을 세그먼트로 기록한 뒤 완료 표시 (표시 전에 죽으면 재시작 시 다시 백필, 중복은 검색에서 제거)
+     */
+    public void markBackfilled() throws IOException {
+        refresh();
+        Files.createFile(directory.resolve(BACKFILL_MARKER));
+    }
+
+    /**
+     * 디스크에 기록된 세그먼트 기준 파티션의 마지막 offset (없으면 null)
+     */
+    public Long committedOffset(int partition) {
+        Long offset = null;
+        for (IndexSegment segment : segments) {
+            if (segment.getFile() == null) {
+                continue;
+            }
+            Long segmentOffset = segment.getPartitionOffsets().get(partition);
+            if (segmentOffset != null && (offset == null || segmentOffset > offset)) {
+                offset = segmentOffset;
+            }
+        }
+        return offset;
+    }
+
+    /**
+     * 쌓인 문서를 세그먼트로 고정해 기록하고 검색 대상에 추가
+     */
+    @Scheduled(fixedDelayString = "${chat.search.refresh-interval-ms:5000}")
+    public void refresh() {
+        IndexSegment segment;
+        synchronized (writeLock) {
+            if (builder.isEmpty()) {
+                return;
+            }
+            segment = builder.build(nextGeneration++);
+            builder = new SegmentBuilder();
+        }
+        try {
+            segment.writeTo(directory);
+        } catch (IOException e) {
+            // 파일 기록 실패해도 메모리에서는 검색 가능, offset은 기록된 세그먼트 기준이라 재시작 시 다시 색인됨
+            log.error("검색 세그먼트 기록 실패: generation={}", segment.getGeneration(), e);
+        }
+        synchronized (this) {
+            List<IndexSegment> next = new ArrayList<>(segments);
+            next.add(segment);
+            segments = List.copyOf(next);
+        }
+    }
+
+    /**
+     * 세그먼트가 mergeFactor개 이상이면 가장 작은 mergeFactor개를 하나로 합친다
+     */
+    @Scheduled(fixedDelayString = "${chat.search.merge-interval-ms:30000}")
+    public void mergeSegments() {
+        List<IndexSegment> current = segments;
+        if (current.size() < mergeFactor) {
+            return;
+        }
+        List<IndexSegment> candidates = current.stream()
+                .filter(segment -> segment.getFile() != null)
+                .sorted(Comparator.comparingInt(IndexSegment::size))
+                .limit(mergeFactor)
+                .sorted(Comparator.comparingLong(IndexSegment::getGeneration))
+                .toList();
+        if (candidates.size() < 2) {
+            return;
+        }
+
+        long generation;
+        synchronized (writeLock) {
+            generation = nextGeneration++;
+        }
+        IndexSegment merged = IndexSegment.merge(generation, candidates);
+        try {
+            merged.writeTo(directory);
+        } catch (IOException e) {
+            log.error("검색 세그먼트 병합 기록 실패: generation={}", generation, e);
+            return;
+        }
+
+        synchronized (this) {
+            List<IndexSegment> next = new ArrayList<>(segments);
+            next.removeAll(candidates);
+            next.add(merged);
+            segments = List.copyOf(next);
+        }
+        for (IndexSegment segment : candidates) {
+            try {
+                Files.deleteIfExists(segment.getFile());
+            } catch (IOException e) {
+                log.warn("병합된 세그먼트 삭제 실패: {}", segment.getFile(), e);
+            }
+        }
+        log.info("검색 세그먼트 병합: {}개 → generation={}, docs={}", candidates.size(), generation, merged.size());
+    }
+
+    /**
+     * 최신 순 상위 limit개 (같은 메시지가 여러 세그먼트에 있으면 한 번만)
+     * @param roomIds 색인 당시 방 기준 - 병합으로 메시지가 옮겨온 소스 방도 함께 넘긴다
+     */
+    public List<SearchHit> search(Collection<String> roomIds, Collection<String> terms, String sender,
+                                  long fromMs, long toMs, int limit) {
+        Comparator<SearchHit> oldestFirst = Comparator.comparingLong(SearchHit::getTimestamp)
+                .thenComparing(SearchHit::getMessageId);
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(oldestFirst);
+        Set<String> seen = new HashSet<>();
+        for (IndexSegment segment : segments) {
+            for (String roomId : roomIds) {
+                segment.search(roomId, terms, sender, fromMs, toMs, hit -> {
+                    if (!seen.add(hit.getMessageId())) {
+                        return;
+                    }
+                    top.add(hit);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                });
+            }
+        }
+        List<SearchHit> hits = new ArrayList<>(top);
+        hits.sort(oldestFirst.reversed());
+        return hits;
+    }
+}
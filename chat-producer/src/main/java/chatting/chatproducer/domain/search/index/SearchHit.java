@@ -0,0 +1,11 @@
+package chatting.chatproducer.domain.search.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SearchHit {
+    private final String messageId;
+    private final long timestamp; // epoch millis
+}
@@ -0,0 +1,89 @@
+package chatting.chatproducer.domain.search.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 메모리에 쌓는 쓰기용 세그먼트 - 일정 크기/주기마다 IndexSegment로 고정해서 디스크에 기록
+ * (동기화는 호출 측에서)
+ */
+public class SegmentBuilder {
+
+    private final List<String> messageIds = new ArrayList<>();
+    private final List<String> roomIds = new ArrayList<>();
+    private final List<String> senders = new ArrayList<>();
+    private final List<Long> timestamps = new ArrayList<>();
+    private final Map<String, Map<String, IntList>> postings = new HashMap<>();
+    private final Map<Integer, Long> partitionOffsets = new HashMap<>();
+
+    /**
+     * @param partition 0 미만이면 offset 반영 없음 (Mongo 백필 문서)
+     */
+    public void add(String messageId, String roomId, String sender, long timestamp, String text,
+                    int partition, long offset) {
+        if (partition >= 0) {
+            partitionOffsets.merge(partition, offset, Math::max);
+        }
+        if (messageId == null || roomId == null) {
+            return; // offset만 반영
+        }
+        int ordinal = messageIds.size();
+        messageIds.add(messageId);
+        roomIds.add(roomId);
+        senders.add(sender);
+        timestamps.add(timestamp);
+        for (String term : Tokenizer.tokenize(text)) {
+            postings.computeIfAbsent(term, key -> new HashMap<>())
+                    .computeIfAbsent(roomId, key -> new IntList())
+                    .add(ordinal);
+        }
+    }
+
+    public int size() {
+        return messageIds.size();
+    }
+
+    public boolean isEmpty() {
+        return messageIds.isEmpty() && partitionOffsets.isEmpty();
+    }
+
+    public IndexSegment build(long generation) {
+        int size = messageIds.size();
+        long[] timestampArray = new long[size];
+        for (int i = 0; i < size; i++) {
+            timestampArray[i] = timestamps.get(i);
+        }
+        Map<String, Map<String, int[]>> frozen = new HashMap<>(postings.size() * 2);
+        for (Map.Entry<String, Map<String, IntList>> term : postings.entrySet()) {
+            Map<String, int[]> byRoom = new HashMap<>(term.getValue().size() * 2);
+            term.getValue().forEach((roomId, ordinals) -> byRoom.put(roomId, ordinals.toArray()));
+            frozen.put(term.getKey(), byRoom);
+        }
+        return new IndexSegment(generation,
+                messageIds.toArray(new String[0]),
+                roomIds.toArray(new String[0]),
+                senders.toArray(new String[0]),
+                timestampArray,
+                frozen,
+                new HashMap<>(partitionOffsets));
+    }
+
+    private static class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package chatting.chatproducer.domain.search.index;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 색인/검색 공통 토크나이저
+ * - 영문/숫자: 공백·구두점 기준 단어, 소문자
+ * - 한글/한자/일본어: 띄어쓰기와 조사에 영향받지 않도록 2-gram (한 글자면 그대로)
+ */
+public final class Tokenizer {
+
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private Tokenizer() {
+    }
+
+    public static Set<String> tokenize(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        StringBuilder word = new StringBuilder();
+        StringBuilder cjk = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            int codePoint = text.codePointAt(i);
+            i += Character.charCount(codePoint);
+            if (isCjk(codePoint)) {
+                flushWord(word, terms);
+                cjk.appendCodePoint(codePoint);
+            } else if (Character.isLetterOrDigit(codePoint)) {
+                flushCjk(cjk, terms);
+                word.appendCodePoint(Character.toLowerCase(codePoint));
+            } else {
+                flushWord(word, terms);
+                flushCjk(cjk, terms);
+            }
+        }
+        flushWord(word, terms);
+        flushCjk(cjk, terms);
+        return terms;
+    }
+
+    private static void flushWord(StringBuilder word, Set<String> terms) {
+        if (word.length() > 0) {
+            terms.add(word.length() > MAX_TERM_LENGTH ? word.substring(0, MAX_TERM_LENGTH) : word.toString());
+            word.setLength(0);
+        }
+    }
+
+    private static void flushCjk(StringBuilder cjk, Set<String> terms) {
+        if (cjk.length() == 0) {
+            return;
+        }
+        int[] codePoints = cjk.codePoints().toArray();
+        if (codePoints.length == 1) {
+            terms.add(new String(codePoints, 0, 1));
+        }
+        for (int i = 0; i + 1 < codePoints.length; i++) {
+            terms.add(new String(codePoints, i, 2));
+        }
+        cjk.setLength(0);
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HANGUL
+                || script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA;
+    }
+}
@@ -0,0 +1,108 @@
+package chatting.chatproducer.domain.search.service;
+
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
+import chatting.chatproducer.domain.room.repository.MergeStatusRepository;
+import chatting.chatproducer.domain.search.dto.MessageSearchResponse;
+import chatting.chatproducer.domain.search.dto.MessageSearchResult;
+import chatting.chatproducer.domain.search.index.MessageSearchIndex;
+import chatting.chatproducer.domain.search.index.SearchHit;
+import chatting.chatproducer.domain.search.index.Tokenizer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 메시지 검색 - 로컬 색인에서 후보 id를 찾고, 본문은 _id로만 조회 (Mongo에 regex 스캔을 보내지 않음)
+ * - 색인의 방은 색인 당시 기준이므로 병합으로 이 방에 옮겨온 소스 방의 포스팅도 함께 찾고,
+ *   현재 Mongo의 roomId가 요청한 방과 다른 결과(옮겨 간 / 롤백된 메시지)는 버린다
+ */
+@Service
+public class MessageSearchService {
+
+    private final MessageSearchIndex messageSearchIndex;
+    private final MongoTemplate mongoTemplate;
+    private final MergeStatusRepository mergeStatusRepository;
+    private final int maxLimit;
+
+    public MessageSearchService(MessageSearchIndex messageSearchIndex,
+                                MongoTemplate mongoTemplate,
+                                MergeStatusRepository mergeStatusRepository,
+                                @Value("${chat.search.max-limit:100}") int maxLimit) {
+        this.messageSearchIndex = messageSearchIndex;
+        this.mongoTemplate = mongoTemplate;
+        this.mergeStatusRepository = mergeStatusRepository;
+        this.maxLimit = maxLimit;
+    }
+
+    public MessageSearchResponse search(String roomId, String keyword, String sender,
+                                        Instant from, Instant to, int limit) {
+        Set<String> terms = Tokenizer.tokenize(keyword);
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("검색어가 비어 있습니다.");
+        }
+        int size = Math.max(1, Math.min(limit, maxLimit));
+        long fromMs = from == null ? Long.MIN_VALUE : from.toEpochMilli();
+        long toMs = to == null ? Long.MAX_VALUE : to.toEpochMilli();
+
+        List<SearchHit> hits = messageSearchIndex.search(indexedRoomIds(roomId), terms, sender, fromMs, toMs, size + 1);
+        boolean hasMore = hits.size() > size;
+        if (hasMore) {
+            hits = hits.subList(0, size);
+        }
+        if (hits.isEmpty()) {
+            return MessageSearchResponse.builder().results(List.of()).hasMore(false).build();
+        }
+
+        List<String> ids = hits.stream().map(SearchHit::getMessageId).toList();
+        Query query = Query.query(Criteria.where("_id").in(ids));
+        query.fields().include("roomId", "seq", "sender", "message", "timestamp");
+        Map<String, ChatMessageDocument> byId = new HashMap<>();
+        for (ChatMessageDocument doc : mongoTemplate.find(query, ChatMessageDocument.class)) {
+            byId.put(doc.getId(), doc);
+        }
+
+        List<MessageSearchResult> results = new ArrayList<>(hits.size());
+        for (SearchHit hit : hits) {
+            ChatMessageDocument doc = byId.get(hit.getMessageId());
+            if (doc == null || !roomId.equals(doc.getRoomId())) {
+                continue; // 롤백 등으로 사라졌거나 병합으로 다른 방에 있는 메시지
+            }
+            results.add(MessageSearchResult.builder()
+                    .id(doc.getId())
+                    .roomId(doc.getRoomId())
+                    .seq(doc.getSeq())
+                    .sender(doc.getSender())
+                    .message(doc.getMessage())
+                    .timestamp(doc.getTimestamp())
+                    .build());
+        }
+        return MessageSearchResponse.builder().results(results).hasMore(hasMore).build();
+    }
+
+    /**
+     * 요청한 방 + 병합으로 메시지가 옮겨온 소스 방 (연쇄 병합 포함)
+     */
+    private Set<String> indexedRoomIds(String roomId) {
+        Set<String> roomIds = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(roomId));
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            if (roomIds.add(current)) {
+                pending.addAll(mergeStatusRepository.findMergedSourceRoomIds(current));
+            }
+        }
+        return roomIds;
+    }
+}
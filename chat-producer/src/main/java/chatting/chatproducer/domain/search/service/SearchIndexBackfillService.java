@@ -0,0 +1,76 @@
+package chatting.chatproducer.domain.search.service;
+
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
+import chatting.chatproducer.domain.search.index.MessageSearchIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+/**
+ * 빈 검색 색인을 Mongo에서 채운다
+ * - chat-message-sent는 보관 기간이 지나면 지워지므로 처음부터 다시 읽는 대신 저장된 메시지를 그대로 색인
+ * - 호출 시점의 Kafka 끝 offset부터는 컨슈머가 이어서 색인 (겹치는 메시지는 검색에서 한 번만 나옴)
+ * - 컨슈머 스레드를 막지 않도록 별도 스레드에서 한 번만 실행
+ */
+@Slf4j
+@Service
+public class SearchIndexBackfillService {
+
+    private final MessageSearchIndex messageSearchIndex;
+    private final MongoTemplate mongoTemplate;
+    private final int batchSize;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    public SearchIndexBackfillService(MessageSearchIndex messageSearchIndex,
+                                      MongoTemplate mongoTemplate,
+                                      @Value("${chat.search.backfill-batch-size:1000}") int batchSize) {
+        this.messageSearchIndex = messageSearchIndex;
+        this.mongoTemplate = mongoTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void startIfNeeded() {
+        if (messageSearchIndex.isBackfilled() || !started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "search-index-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void backfill() {
+        long startedAt = System.currentTimeMillis();
+        long count = 0;
+        Query query = Query.query(Criteria.where("messageType").is("TALK").and("message").ne(null))
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .cursorBatchSize(batchSize);
+        query.fields().include("roomId", "sender", "message", "timestamp");
+        try (Stream<ChatMessageDocument> docs = mongoTemplate.stream(query, ChatMessageDocument.class)) {
+            Iterator<ChatMessageDocument> iterator = docs.iterator();
+            while (iterator.hasNext()) {
+                ChatMessageDocument doc = iterator.next();
+                if (doc.getRoomId() == null || doc.getTimestamp() == null) {
+                    continue;
+                }
+                messageSearchIndex.addBackfill(doc.getId(), doc.getRoomId(), doc.getSender(),
+                        doc.getTimestamp().toEpochMilli(), doc.getMessage());
+                count++;
+            }
+            messageSearchIndex.markBackfilled();
+            log.info("검색 색인 백필 완료: docs={}, elapsedMs={}", count, System.currentTimeMillis() - startedAt);
+        } catch (Exception e) {
+            // 표시 파일이 없으므로 재시작 시 다시 백필
+            log.error("검색 색인 백필 실패: indexed={}", count, e);
+            started.set(false);
+        }
+    }
+}
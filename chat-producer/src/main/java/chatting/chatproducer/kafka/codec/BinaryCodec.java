@@ -0,0 +1,13 @@
+package chatting.chatproducer.kafka.codec;
+
+public interface BinaryCodec<T> {
+
+    /**
+     * 현재 쓰는 스키마 버전
+     */
+    int schemaVersion();
+
+    void encode(T value, BinaryWriter writer);
+
+    T decode(int schemaVersion, BinaryReader reader);
+}
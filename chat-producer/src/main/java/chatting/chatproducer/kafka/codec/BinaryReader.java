@@ -0,0 +1,77 @@
+package chatting.chatproducer.kafka.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+public class BinaryReader {
+
+    private final byte[] buffer;
+    private int position;
+
+    public BinaryReader(byte[] buffer, int offset) {
+        this.buffer = buffer;
+        this.position = offset;
+    }
+
+    public int readByte() {
+        return buffer[position++] & 0xFF;
+    }
+
+    public int readVarInt() {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = buffer[position++];
+            result |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("잘못된 varint");
+    }
+
+    public long readVarLong() {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer[position++];
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("잘못된 varlong");
+    }
+
+    public long readSignedVarLong() {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public String readString() {
+        int length = readVarInt();
+        if (length == 0) {
+            return null;
+        }
+        String value = new String(buffer, position, length - 1, StandardCharsets.UTF_8);
+        position += length - 1;
+        return value;
+    }
+
+    public <E extends Enum<E>> E readEnum(E[] values) {
+        int ordinal = readVarInt();
+        if (ordinal == 0) {
+            return null;
+        }
+        if (ordinal > values.length) {
+            throw new IllegalArgumentException("알 수 없는 enum ordinal: " + (ordinal - 1));
+        }
+        return values[ordinal - 1];
+    }
+
+    public Instant readInstant() {
+        if (readByte() == 0) {
+            return null;
+        }
+        long nanos = readSignedVarLong();
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+}
@@ -0,0 +1,53 @@
+package chatting.chatproducer.kafka.codec;
+
+import chatting.chatproducer.domain.chat.dto.ChatMessage;
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+
+/**
+ * ChatKafkaMessage 바이너리 스키마
+ * v1: roomId, sender, message, timestamp(epoch nanos), messageType(ordinal), clientMessageId
+ * v2: + seq (null은 0, 나머지는 seq + 1)
+ * v3: + messageId
+ * - 필드 추가 시 맨 뒤에 붙이고 버전을 올린다 (이전 버전 레코드는 없는 필드를 null로 읽음)
+ */
+public class ChatKafkaMessageCodec implements BinaryCodec<ChatKafkaMessage> {
+
+    private static final ChatMessage.MessageType[] MESSAGE_TYPES = ChatMessage.MessageType.values();
+
+    @Override
+    public int schemaVersion() {
+        return 3;
+    }
+
+    @Override
+    public void encode(ChatKafkaMessage value, BinaryWriter writer) {
+        writer.writeString(value.getRoomId())
+                .writeString(value.getSender())
+                .writeString(value.getMessage())
+                .writeInstant(value.getTimestamp())
+                .writeEnum(value.getMessageType() == null ? null : ChatMessage.MessageType.valueOf(value.getMessageType()))
+                .writeString(value.getClientMessageId())
+                .writeVarLong(value.getSeq() == null ? 0 : value.getSeq() + 1)
+                .writeString(value.getMessageId());
+    }
+
+    @Override
+    public ChatKafkaMessage decode(int schemaVersion, BinaryReader reader) {
+        ChatKafkaMessage message = new ChatKafkaMessage();
+        message.setRoomId(reader.readString());
+        message.setSender(reader.readString());
+        message.setMessage(reader.readString());
+        message.setTimestamp(reader.readInstant());
+        ChatMessage.MessageType messageType = reader.readEnum(MESSAGE_TYPES);
+        message.setMessageType(messageType == null ? null : messageType.name());
+        message.setClientMessageId(reader.readString());
+        if (schemaVersion >= 2) {
+            long seq = reader.readVarLong();
+            message.setSeq(seq == 0 ? null : seq - 1);
+        }
+        if (schemaVersion >= 3) {
+            message.setMessageId(reader.readString());
+        }
+        return message;
+    }
+}
@@ -0,0 +1,74 @@
+package chatting.chatproducer.kafka.codec;
+
+import chatting.chatproducer.domain.room.event.MergeEventType;
+import chatting.chatproducer.kafka.dto.MergeEventDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MergeEventDTO 바이너리 스키마
+ * v1: mergeId, targetRoomId, sourceRoomIds, eventType(ordinal), initiatedBy,
+ *     migratedMessageCount, migratedUserCount, totalMigratedMessages, totalMigratedUsers,
+ *     failureReason, failedStep
+ */
+public class MergeEventCodec implements BinaryCodec<MergeEventDTO> {
+
+    private static final MergeEventType[] EVENT_TYPES = MergeEventType.values();
+
+    @Override
+    public int schemaVersion() {
+        return 1;
+    }
+
+    @Override
+    public void encode(MergeEventDTO value, BinaryWriter writer) {
+        writer.writeString(value.getMergeId())
+                .writeString(value.getTargetRoomId());
+
+        List<String> sourceRoomIds = value.getSourceRoomIds();
+        // null은 0, 나머지는 (개수 + 1)
+        writer.writeVarInt(sourceRoomIds == null ? 0 : sourceRoomIds.size() + 1);
+        if (sourceRoomIds != null) {
+            for (String sourceRoomId : sourceRoomIds) {
+                writer.writeString(sourceRoomId);
+            }
+        }
+
+        writer.writeEnum(value.getEventType() == null ? null : MergeEventType.valueOf(value.getEventType()))
+                .writeString(value.getInitiatedBy())
+                .writeVarInt(value.getMigratedMessageCount())
+                .writeVarInt(value.getMigratedUserCount())
+                .writeVarInt(value.getTotalMigratedMessages())
+                .writeVarInt(value.getTotalMigratedUsers())
+                .writeString(value.getFailureReason())
+                .writeString(value.getFailedStep());
+    }
+
+    @Override
+    public MergeEventDTO decode(int schemaVersion, BinaryReader reader) {
+        MergeEventDTO event = new MergeEventDTO();
+        event.setMergeId(reader.readString());
+        event.setTargetRoomId(reader.readString());
+
+        int sourceCount = reader.readVarInt();
+        if (sourceCount > 0) {
+            List<String> sourceRoomIds = new ArrayList<>(sourceCount - 1);
+            for (int i = 0; i < sourceCount - 1; i++) {
+                sourceRoomIds.add(reader.readString());
+            }
+            event.setSourceRoomIds(sourceRoomIds);
+        }
+
+        MergeEventType eventType = reader.readEnum(EVENT_TYPES);
+        event.setEventType(eventType == null ? null : eventType.name());
+        event.setInitiatedBy(reader.readString());
+        event.setMigratedMessageCount(reader.readVarInt());
+        event.setMigratedUserCount(reader.readVarInt());
+        event.setTotalMigratedMessages(reader.readVarInt());
+        event.setTotalMigratedUsers(reader.readVarInt());
+        event.setFailureReason(reader.readString());
+        event.setFailedStep(reader.readString());
+        return event;
+    }
+}
@@ -1,8 +1,12 @@
 package chatting.chatproducer.kafka.config;
 
+import chatting.chatproducer.kafka.codec.ChatKafkaMessageCodec;
+import chatting.chatproducer.kafka.codec.MergeEventCodec;
+import chatting.chatproducer.kafka.codec.WireFormatDeserializer;
 import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
 import chatting.chatproducer.kafka.dto.MergeEventDTO;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -23,26 +27,37 @@ public class KafkaConsumerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    /**
+     * chat-message-sent 값 디코더 - 리스너가 key(roomId)로 로컬 구독 여부를 먼저 본 뒤에만 호출
+     */
     @Bean
-    public ConsumerFactory<String, ChatKafkaMessage> consumerFactory() {
-        JsonDeserializer<ChatKafkaMessage> deserializer = new JsonDeserializer<>(ChatKafkaMessage.class);
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.addTrustedPackages("*");
-        deserializer.setUseTypeMapperForKey(true);
+    public WireFormatDeserializer<ChatKafkaMessage> chatKafkaMessageDeserializer() {
+        JsonDeserializer<ChatKafkaMessage> jsonDeserializer = new JsonDeserializer<>(ChatKafkaMessage.class);
+        jsonDeserializer.setRemoveTypeHeaders(false);
+        jsonDeserializer.addTrustedPackages("*");
+        jsonDeserializer.setUseTypeMapperForKey(true);
+        // 헤더로 JSON/BINARY를 구분 (롤아웃 중 두 포맷이 섞여 들어옴)
+        return new WireFormatDeserializer<>(new ChatKafkaMessageCodec(), jsonDeserializer);
+    }
 
+    /**
+     * 값은 byte[] 그대로 받는다 (구독자 없는 방의 레코드는 역직렬화 없이 버림)
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> consumerFactory() {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, "dummy-for-factory");
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, deserializer);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
 
-        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), deserializer);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(), new ByteArrayDeserializer());
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, ChatKafkaMessage> kafkaListenerContainerFactory() {
-        ConcurrentKafkaListenerContainerFactory<String, ChatKafkaMessage> factory =
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory =
                 new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
         return factory;
@@ -50,10 +65,11 @@ public class KafkaConsumerConfig {
 
     @Bean
     public ConsumerFactory<String, MergeEventDTO> mergeEventConsumerFactory() {
-        JsonDeserializer<MergeEventDTO> deserializer = new JsonDeserializer<>(MergeEventDTO.class);
-        deserializer.setRemoveTypeHeaders(false);
-        deserializer.addTrustedPackages("*");
-        deserializer.setUseTypeMapperForKey(true);
+        JsonDeserializer<MergeEventDTO> jsonDeserializer = new JsonDeserializer<>(MergeEventDTO.class);
+        jsonDeserializer.setRemoveTypeHeaders(false);
+        jsonDeserializer.addTrustedPackages("*");
+        jsonDeserializer.setUseTypeMapperForKey(true);
+        WireFormatDeserializer<MergeEventDTO> deserializer = new WireFormatDeserializer<>(new MergeEventCodec(), jsonDeserializer);
 
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
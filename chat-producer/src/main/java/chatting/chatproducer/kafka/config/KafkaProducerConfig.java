@@ -1,5 +1,9 @@
 package chatting.chatproducer.kafka.config;
 
+import chatting.chatproducer.kafka.codec.ChatKafkaMessageCodec;
+import chatting.chatproducer.kafka.codec.MergeEventCodec;
+import chatting.chatproducer.kafka.codec.WireFormat;
+import chatting.chatproducer.kafka.codec.WireFormatSerializer;
 import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
 import chatting.chatproducer.kafka.dto.MergeEventDTO;
 import org.apache.kafka.clients.producer.ProducerConfig;
@@ -10,7 +14,6 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
-import org.springframework.kafka.support.serializer.JsonSerializer;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -21,14 +24,34 @@ public class KafkaProducerConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    @Value("${chat.kafka.linger-ms:5}")
+    private int lingerMs;
+
+    @Value("${chat.kafka.batch-size:65536}")
+    private int batchSize;
+
+    @Value("${chat.kafka.max-block-ms:1000}")
+    private long maxBlockMs;
+
+    // 값 포맷 (json | binary) - 모든 reader가 바이너리를 읽을 수 있게 배포된 뒤에 binary로 전환
+    @Value("${chat.kafka.wire-format:json}")
+    private WireFormat wireFormat;
+
     @Bean
     public ProducerFactory<String, ChatKafkaMessage> producerFactory() {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // 비동기 전송 시 레코드를 모아 보내도록 배치/linger 설정, 재시도 중 순서 보장을 위해 idempotence 사용
+        configProps.put(ProducerConfig.LINGER_MS_CONFIG, lingerMs);
+        configProps.put(ProducerConfig.BATCH_SIZE_CONFIG, batchSize);
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        // 브로커 장애 시 send()가 메타데이터 대기로 오래 막히지 않도록 (실패 건은 저널로 보관)
+        configProps.put(ProducerConfig.MAX_BLOCK_MS_CONFIG, maxBlockMs);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+                new WireFormatSerializer<>(new ChatKafkaMessageCodec(), wireFormat));
     }
 
     @Bean
@@ -41,9 +64,12 @@ public class KafkaProducerConfig {
         Map<String, Object> configProps = new HashMap<>();
         configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(JsonSerializer.ADD_TYPE_INFO_HEADERS, false);
-        return new DefaultKafkaProducerFactory<>(configProps);
+        // OutboxPublisher가 같은 병합의 이벤트를 ack 전에 연달아 보내므로 재시도 중에도 순서 유지
+        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
+        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        configProps.put(ProducerConfig.MAX_IN_FLIGHT_REQUESTS_PER_CONNECTION, 5);
+        return new DefaultKafkaProducerFactory<>(configProps, new StringSerializer(),
+                new WireFormatSerializer<>(new MergeEventCodec(), wireFormat));
     }
 
     @Bean
@@ -1,50 +1,64 @@
 package chatting.chatproducer.kafka.consumer;
 
 import chatting.chatproducer.domain.chat.dto.ChatMessage;
+import chatting.chatproducer.domain.chat.dto.RoomHeadEvent;
+import chatting.chatproducer.domain.chat.dto.RoomRefreshEvent;
+import chatting.chatproducer.domain.chat.sequence.RoomSequenceTracker;
+import chatting.chatproducer.domain.chat.subscription.RoomSubscriptionRegistry;
+import chatting.chatproducer.domain.chatmessage.cache.RecentMessageCache;
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageBucket;
+import chatting.chatproducer.kafka.codec.WireFormatDeserializer;
 import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
-import java.time.Instant;
-
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class KafkaSendMsgConsumer {
 
     private final SimpMessagingTemplate messagingTemplate;
-    private final StringRedisTemplate redisTemplate;
+    private final RoomSequenceTracker roomSequenceTracker;
+    private final RoomSubscriptionRegistry roomSubscriptionRegistry;
+    private final RecentMessageCache recentMessageCache;
+    private final WireFormatDeserializer<ChatKafkaMessage> chatKafkaMessageDeserializer;
 
     @KafkaListener(
             topics = "chat-message-sent",
             groupId = "#{T(java.util.UUID).randomUUID().toString()}",
             containerFactory = "kafkaListenerContainerFactory"
     )
-    public void consumeSent(ChatKafkaMessage message) {
-        String roomId = message.getRoomId();
-        String key = "lastTimestamp:" + roomId;
+    public void consumeSent(ConsumerRecord<String, byte[]> record) {
+        // key(roomId)만 보고 이 인스턴스에 구독자가 없는 방이면 역직렬화 없이 버린다
+        if (!roomSubscriptionRegistry.hasSubscribers(record.key())) {
+            return;
+        }
 
-        String lastTimestampStr = redisTemplate.opsForValue().get(key);
-        boolean isOutOfOrder = false;
+        ChatKafkaMessage message = chatKafkaMessageDeserializer.deserialize(record.topic(), record.headers(), record.value());
+        String roomId = message.getRoomId();
 
-        if (lastTimestampStr != null) {
-            Instant last = Instant.parse(lastTimestampStr);
-            if (last.isAfter(message.getTimestamp())) {
-                isOutOfOrder = true;
+        if (message.getSeq() != null) {
+            long lastSeq = roomSequenceTracker.advance(roomId, message.getSeq());
+            if (lastSeq != RoomSequenceTracker.NONE && message.getSeq() <= lastSeq) {
+                // 이미 전달한 seq 이하면 재전송된 중복
+                log.debug("중복 메시지 무시: roomId={}, seq={}", roomId, message.getSeq());
+                return;
+            }
+            if (lastSeq != RoomSequenceTracker.NONE && message.getSeq() > lastSeq + 1) {
+                // 중간 누락 - 구독자들이 lastSeq 이후만 delta API로 다시 가져가도록 커서를 실어 보낸다
+                log.warn("seq 누락 감지: roomId={}, last={}, current={}", roomId, lastSeq, message.getSeq());
+                recentMessageCache.invalidate(roomId);
+                messagingTemplate.convertAndSend("/sub/chat/room/" + roomId + "/refresh",
+                        RoomRefreshEvent.builder().roomId(roomId).afterSeq(lastSeq).build());
+                return;
             }
         }
 
-        if (isOutOfOrder) {
-            log.warn("순서 꼬임 감지: roomId={}, last={}, current={}", roomId, lastTimestampStr, message.getTimestamp());
-            messagingTemplate.convertAndSend("/sub/chat/room/" + roomId + "/refresh", "refresh");
-            return;
-        }
-
-        // 정상 메시지 전송
+        // 정상 메시지 전송 (seq 없는 메시지는 롤아웃 중인 이전 포맷이므로 그대로 전달)
         messagingTemplate.convertAndSend(
                 "/sub/chat/room/" + roomId,
                 ChatMessage.builder()
@@ -53,10 +67,24 @@ public class KafkaSendMsgConsumer {
                         .message(message.getMessage())
                         .timestamp(message.getTimestamp())
                         .messageType(ChatMessage.MessageType.valueOf(message.getMessageType()))
+                        .seq(message.getSeq())
                         .build()
         );
 
-        // Redis에 최신 timestamp 저장
-        redisTemplate.opsForValue().set(key, message.getTimestamp().toString());
+        // 방 목록 화면의 안 읽은 수 갱신용 (메시지 본문 없이 seq만)
+        if (message.getSeq() != null) {
+            messagingTemplate.convertAndSend("/sub/chat/room/" + roomId + "/head",
+                    RoomHeadEvent.builder().roomId(roomId).seq(message.getSeq()).build());
+        }
+
+        // 최근 메시지 버퍼 갱신 (id 없는 이전 포맷이면 append에서 버퍼를 비운다)
+        recentMessageCache.append(roomId, ChatMessageBucket.Message.builder()
+                .id(message.getMessageId())
+                .seq(message.getSeq())
+                .sender(message.getSender())
+                .message(message.getMessage())
+                .timestamp(message.getTimestamp())
+                .messageType(message.getMessageType())
+                .build());
     }
 }
@@ -0,0 +1,71 @@
+package chatting.chatproducer.kafka.consumer;
+
+import chatting.chatproducer.domain.search.index.MessageSearchIndex;
+import chatting.chatproducer.domain.search.service.SearchIndexBackfillService;
+import chatting.chatproducer.kafka.codec.WireFormatDeserializer;
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.ConsumerSeekAware;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * chat-message-sent 전체를 받아 로컬 검색 색인에 추가 (인스턴스마다 자기 색인을 가지므로 그룹도 인스턴스별)
+ * - 파티션 할당 시 디스크에 기록된 세그먼트의 offset 다음부터 읽는다
+ * - 색인이 비어 있으면 현재 끝부터 읽고 이전 메시지는 Mongo 백필로 채운다 (보관 기간이 지난 메시지 포함)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexConsumer implements ConsumerSeekAware {
+
+    private final MessageSearchIndex messageSearchIndex;
+    private final SearchIndexBackfillService searchIndexBackfillService;
+    private final WireFormatDeserializer<ChatKafkaMessage> chatKafkaMessageDeserializer;
+
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        boolean backfilled = messageSearchIndex.isBackfilled();
+        for (TopicPartition partition : assignments.keySet()) {
+            Long offset = messageSearchIndex.committedOffset(partition.partition());
+            if (offset != null) {
+                callback.seek(partition.topic(), partition.partition(), offset + 1);
+            } else if (backfilled) {
+                // 백필 이후 새로 생긴 파티션
+                callback.seekToBeginning(partition.topic(), partition.partition());
+            } else {
+                callback.seekToEnd(partition.topic(), partition.partition());
+            }
+            log.info("검색 색인 재개 위치: partition={}, offset={}", partition,
+                    offset != null ? offset + 1 : backfilled ? "beginning" : "end (Mongo 백필)");
+        }
+        if (!backfilled) {
+            searchIndexBackfillService.startIfNeeded();
+        }
+    }
+
+    @KafkaListener(
+            topics = "chat-message-sent",
+            groupId = "search-index-${instance.id}",
+            containerFactory = "kafkaListenerContainerFactory"
+    )
+    public void index(ConsumerRecord<String, byte[]> record) {
+        ChatKafkaMessage message = chatKafkaMessageDeserializer.deserialize(record.topic(), record.headers(), record.value());
+        // messageId 없는 이전 포맷은 검색 결과로 돌려줄 수 없으므로 offset만 반영
+        boolean indexable = message.getMessageId() != null && message.getMessage() != null
+                && "TALK".equals(message.getMessageType());
+        messageSearchIndex.add(
+                indexable ? message.getMessageId() : null,
+                message.getRoomId(),
+                message.getSender(),
+                message.getTimestamp() == null ? record.timestamp() : message.getTimestamp().toEpochMilli(),
+                message.getMessage(),
+                record.partition(),
+                record.offset());
+    }
+}
@@ -0,0 +1,370 @@
+package chatting.chatproducer.kafka.journal;
+
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Kafka 장애/지연 시 메시지를 로컬 디스크에 쌓아두는 append-only 저널 (memory-mapped segment)
+ *
+ * 레코드 포맷: [int length][int crc32c][short roomIdLen][roomId][short eventIdLen][eventId][payload(JSON)]
+ * - length는 crc 이후 바이트 수, 0이면 세그먼트의 데이터 끝
+ * - length를 마지막에 기록하므로 중간에 죽어도 반쯤 쓰인 레코드는 읽히지 않는다
+ * - replay 진행 위치는 checkpoint 파일(segmentIndex, position)에 기록
+ */
+@Slf4j
+@Component
+public class SpillJournal {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final int segmentBytes;
+
+    // segmentIndex -> mapping (오래된 순)
+    private final TreeMap<Long, MappedByteBuffer> segments = new TreeMap<>();
+    private long activeSegmentIndex;
+    private int writePosition;
+
+    private long checkpointSegmentIndex;
+    private int checkpointPosition;
+
+    // replay 대기 중인 레코드가 있는 방 (같은 방의 이후 메시지도 저널로 보내 순서를 유지)
+    private final Map<String, AtomicInteger> pendingByRoom = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingTotal = new AtomicInteger();
+
+    public SpillJournal(ObjectMapper objectMapper,
+                        @Value("${chat.journal.dir:./spill-journal}") String directory,
+                        @Value("${chat.journal.segment-bytes:67108864}") int segmentBytes) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.segmentBytes = segmentBytes;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        Files.createDirectories(directory);
+        loadCheckpoint();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                    long index = Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                    if (index < checkpointSegmentIndex) {
+                        Files.deleteIfExists(file); // 이미 replay 완료된 세그먼트
+                    } else {
+                        segments.put(index, map(file));
+                    }
+                }
+            }
+        }
+
+        if (segments.isEmpty()) {
+            activeSegmentIndex = Math.max(checkpointSegmentIndex, 1);
+            segments.put(activeSegmentIndex, map(segmentPath(activeSegmentIndex)));
+            writePosition = 0;
+        } else {
+            activeSegmentIndex = segments.lastKey();
+            writePosition = scanEnd(segments.get(activeSegmentIndex));
+        }
+        if (checkpointSegmentIndex < segments.firstKey()) {
+            checkpointSegmentIndex = segments.firstKey();
+            checkpointPosition = 0;
+        }
+
+        // 재시작 시 replay 대기 건수 복원 - 헤더와 roomId만 읽고 payload는 역직렬화하지 않음
+        scan(Integer.MAX_VALUE, (segment, segmentIndex, position, length, nextPosition, crcValid) -> {
+            if (crcValid) {
+                ByteBuffer body = segment.slice(position + RECORD_HEADER_BYTES, length);
+                String roomId = string(body);
+                if (!roomId.isEmpty()) {
+                    markPending(roomId);
+                }
+            }
+            return true;
+        });
+        log.info("Spill 저널 오픈: dir={}, segments={}, pending={}", directory, segments.size(), pendingTotal.get());
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        segments.values().forEach(MappedByteBuffer::force);
+    }
+
+    /**
+     * 메시지를 저널에 추가 (디스크 page cache에 기록)
+     */
+    public synchronized void append(ChatKafkaMessage message, String eventId) {
+        byte[] room = bytes(message.getRoomId());
+        byte[] event = bytes(eventId);
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(message);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int length = 2 + room.length + 2 + event.length + payload.length;
+        if (RECORD_HEADER_BYTES + length > segmentBytes) {
+            throw new IllegalArgumentException("저널 세그먼트보다 큰 레코드: " + length);
+        }
+        if (writePosition + RECORD_HEADER_BYTES + length > segmentBytes) {
+            roll();
+        }
+
+        ByteBuffer body = ByteBuffer.allocate(length);
+        body.putShort((short) room.length).put(room);
+        body.putShort((short) event.length).put(event);
+        body.put(payload);
+        byte[] bodyBytes = body.array();
+
+        CRC32C crc = new CRC32C();
+        crc.update(bodyBytes, 0, bodyBytes.length);
+
+        MappedByteBuffer segment = segments.get(activeSegmentIndex);
+        segment.put(writePosition + RECORD_HEADER_BYTES, bodyBytes);
+        segment.putInt(writePosition + 4, (int) crc.getValue());
+        segment.putInt(writePosition, length); // 길이를 마지막에 써서 레코드 완성 표시
+        writePosition += RECORD_HEADER_BYTES + length;
+
+        markPending(message.getRoomId());
+    }
+
+    /**
+     * 해당 방에 아직 replay 되지 않은 레코드가 있는지
+     */
+    public boolean hasPending(String roomId) {
+        AtomicInteger count = pendingByRoom.get(roomId);
+        return count != null && count.get() > 0;
+    }
+
+    public int pendingCount() {
+        return pendingTotal.get();
+    }
+
+    /**
+     * 체크포인트 이후 레코드를 순서대로 최대 max 건 읽는다
+     */
+    public synchronized List<SpillRecord> read(int max) {
+        List<SpillRecord> records = new ArrayList<>();
+        scan(max, (segment, segmentIndex, position, length, nextPosition, crcValid) -> {
+            if (!crcValid) {
+                log.error("저널 레코드 CRC 불일치, 건너뜀: segment={}, position={}", segmentIndex, position);
+                records.add(new SpillRecord(segmentIndex, nextPosition, null, null, null));
+                return true;
+            }
+            byte[] body = new byte[length];
+            segment.get(position + RECORD_HEADER_BYTES, body);
+            records.add(decode(segmentIndex, nextPosition, body));
+            return true;
+        });
+        return records;
+    }
+
+    /**
+     * 체크포인트 이후 레코드 헤더를 순서대로 최대 max 건 훑는다 (CRC는 매핑된 영역에서 바로 계산, body 복사 없음)
+     */
+    private void scan(int max, RecordVisitor visitor) {
+        int visited = 0;
+        long segmentIndex = checkpointSegmentIndex;
+        int position = checkpointPosition;
+
+        while (visited < max && segments.containsKey(segmentIndex)) {
+            MappedByteBuffer segment = segments.get(segmentIndex);
+            int limit = segmentIndex == activeSegmentIndex ? writePosition : segmentBytes;
+
+            if (position + RECORD_HEADER_BYTES > limit || segment.getInt(position) <= 0) {
+                // 세그먼트 끝 → 다음 세그먼트
+                Long next = segments.higherKey(segmentIndex);
+                if (next == null) break;
+                segmentIndex = next;
+                position = 0;
+                continue;
+            }
+
+            int length = segment.getInt(position);
+            int storedCrc = segment.getInt(position + 4);
+            if (position + RECORD_HEADER_BYTES + length > limit) {
+                log.error("저널 레코드 길이 손상: segment={}, position={}, length={}", segmentIndex, position, length);
+                position = limit; // 세그먼트 나머지는 건너뜀
+                continue;
+            }
+
+            int nextPosition = position + RECORD_HEADER_BYTES + length;
+            CRC32C crc = new CRC32C();
+            crc.update(segment.slice(position + RECORD_HEADER_BYTES, length));
+            boolean crcValid = (int) crc.getValue() == storedCrc;
+
+            visited++;
+            if (!visitor.visit(segment, segmentIndex, position, length, nextPosition, crcValid)) {
+                break;
+            }
+            position = nextPosition;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordVisitor {
+        /**
+         * @return false면 순회 중단
+         */
+        boolean visit(MappedByteBuffer segment, long segmentIndex, int position, int length, int nextPosition, boolean crcValid);
+    }
+
+    /**
+     * replay 완료된 레코드까지 체크포인트 이동 + 다 읽은 세그먼트 삭제
+     */
+    public synchronized void commit(List<SpillRecord> replayed) {
+        if (replayed.isEmpty()) return;
+
+        for (SpillRecord record : replayed) {
+            if (record.getRoomId() != null) {
+                unmarkPending(record.getRoomId());
+            }
+        }
+
+        SpillRecord last = replayed.get(replayed.size() - 1);
+        checkpointSegmentIndex = last.getSegmentIndex();
+        checkpointPosition = last.getNextPosition();
+        segments.get(checkpointSegmentIndex).force();
+        saveCheckpoint();
+
+        while (!segments.isEmpty() && segments.firstKey() < checkpointSegmentIndex) {
+            long index = segments.pollFirstEntry().getKey();
+            try {
+                Files.deleteIfExists(segmentPath(index));
+                log.info("replay 완료 세그먼트 삭제: segment={}", index);
+            } catch (IOException e) {
+                log.warn("세그먼트 삭제 실패: segment={}", index, e);
+            }
+        }
+    }
+
+    /**
+     * 아직 디스크로 내려가지 않은 변경분 flush
+     */
+    public synchronized void force() {
+        segments.get(activeSegmentIndex).force();
+    }
+
+    private void roll() {
+        segments.get(activeSegmentIndex).force();
+        activeSegmentIndex++;
+        try {
+            segments.put(activeSegmentIndex, map(segmentPath(activeSegmentIndex)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writePosition = 0;
+        log.info("저널 세그먼트 롤링: segment={}", activeSegmentIndex);
+    }
+
+    private SpillRecord decode(long segmentIndex, int nextPosition, byte[] body) {
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        String roomId = string(buffer);
+        String eventId = string(buffer);
+        try {
+            ChatKafkaMessage message = objectMapper.readValue(
+                    body, buffer.position(), buffer.remaining(), ChatKafkaMessage.class);
+            return new SpillRecord(segmentIndex, nextPosition, roomId, eventId.isEmpty() ? null : eventId, message);
+        } catch (IOException e) {
+            log.error("저널 레코드 역직렬화 실패, 건너뜀: segment={}", segmentIndex, e);
+            return new SpillRecord(segmentIndex, nextPosition, roomId, null, null);
+        }
+    }
+
+    private int scanEnd(MappedByteBuffer segment) {
+        int position = 0;
+        while (position + RECORD_HEADER_BYTES <= segmentBytes) {
+            int length = segment.getInt(position);
+            if (length <= 0 || position + RECORD_HEADER_BYTES + length > segmentBytes) break;
+            position += RECORD_HEADER_BYTES + length;
+        }
+        return position;
+    }
+
+    private void markPending(String roomId) {
+        pendingByRoom.computeIfAbsent(roomId, k -> new AtomicInteger()).incrementAndGet();
+        pendingTotal.incrementAndGet();
+    }
+
+    private void unmarkPending(String roomId) {
+        pendingByRoom.computeIfPresent(roomId, (k, count) -> count.decrementAndGet() <= 0 ? null : count);
+        pendingTotal.decrementAndGet();
+    }
+
+    private MappedByteBuffer map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        }
+    }
+
+    private Path segmentPath(long index) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, index, SEGMENT_SUFFIX));
+    }
+
+    private void loadCheckpoint() throws IOException {
+        Path file = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(file)) {
+            checkpointSegmentIndex = 0;
+            checkpointPosition = 0;
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        checkpointSegmentIndex = buffer.getLong();
+        checkpointPosition = buffer.getInt();
+    }
+
+    private void saveCheckpoint() {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(checkpointSegmentIndex).putInt(checkpointPosition);
+        Path tmp = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try {
+            Files.write(tmp, buffer.array());
+            Files.move(tmp, directory.resolve(CHECKPOINT_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.error("저널 체크포인트 저장 실패: segment={}, position={}", checkpointSegmentIndex, checkpointPosition, e);
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(ByteBuffer buffer) {
+        byte[] value = new byte[buffer.getShort()];
+        buffer.get(value);
+        return new String(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,99 @@
+package chatting.chatproducer.kafka.journal;
+
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import chatting.chatproducer.kafka.producer.KafkaChatProducer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 저널에 쌓인 메시지를 브로커 복구 후 chat-message 토픽으로 순서대로 재전송
+ * - 저널 순서대로 보내므로 방(=key) 단위 순서가 유지된다
+ * - 앞에서부터 연속으로 ack 받은 레코드까지만 체크포인트를 옮긴다
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SpillJournalReplayer {
+
+    private static final String TOPIC_NAME = "chat-message";
+
+    private final SpillJournal spillJournal;
+    private final KafkaTemplate<String, ChatKafkaMessage> kafkaTemplate;
+
+    @Value("${chat.journal.replay-batch-size:500}")
+    private int replayBatchSize;
+
+    @Value("${chat.journal.replay-timeout-ms:10000}")
+    private long replayTimeoutMs;
+
+    @Scheduled(fixedDelayString = "${chat.journal.replay-interval-ms:1000}")
+    public void replay() {
+        if (spillJournal.pendingCount() == 0) {
+            return;
+        }
+        try {
+            int replayed;
+            do {
+                replayed = replayBatch();
+            } while (replayed == replayBatchSize);
+        } catch (Exception e) {
+            log.warn("저널 replay 중단 (브로커 미복구): pending={}, reason={}", spillJournal.pendingCount(), e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${chat.journal.flush-interval-ms:200}")
+    public void flush() {
+        spillJournal.force();
+    }
+
+    private int replayBatch() throws Exception {
+        List<SpillRecord> records = spillJournal.read(replayBatchSize);
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<?>> futures = new ArrayList<>(records.size());
+        for (SpillRecord record : records) {
+            if (record.getMessage() == null) {
+                futures.add(CompletableFuture.completedFuture(null)); // 손상 레코드는 건너뜀
+                continue;
+            }
+            ProducerRecord<String, ChatKafkaMessage> producerRecord =
+                    new ProducerRecord<>(TOPIC_NAME, record.getRoomId(), record.getMessage());
+            if (record.getEventId() != null) {
+                producerRecord.headers().add(KafkaChatProducer.EVENT_ID_HEADER,
+                        record.getEventId().getBytes(StandardCharsets.UTF_8));
+            }
+            futures.add(kafkaTemplate.send(producerRecord));
+        }
+
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .get(replayTimeoutMs, TimeUnit.MILLISECONDS);
+        } finally {
+            // 앞에서부터 연속 성공한 구간까지만 커밋
+            int done = 0;
+            while (done < futures.size()
+                    && futures.get(done).isDone()
+                    && !futures.get(done).isCompletedExceptionally()) {
+                done++;
+            }
+            spillJournal.commit(records.subList(0, done));
+            if (done > 0) {
+                log.info("저널 replay: replayed={}, pending={}", done, spillJournal.pendingCount());
+            }
+        }
+        return records.size();
+    }
+}
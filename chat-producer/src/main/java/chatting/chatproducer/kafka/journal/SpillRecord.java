@@ -0,0 +1,18 @@
+package chatting.chatproducer.kafka.journal;
+
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 저널에서 읽어온 레코드 한 건과 그 다음 레코드의 위치 (replay 체크포인트로 사용)
+ */
+@Getter
+@AllArgsConstructor
+public class SpillRecord {
+    private final long segmentIndex;
+    private final int nextPosition;
+    private final String roomId;
+    private final String eventId;
+    private final ChatKafkaMessage message;
+}
@@ -1,43 +1,148 @@
 package chatting.chatproducer.kafka.producer;
 
-import chatting.chatproducer.domain.failedmessage.document.FailedChatMessageDocument;
-import chatting.chatproducer.domain.failedmessage.repository.FailedChatMessageRepository;
+import chatting.chatproducer.domain.chat.dto.DeliveryReceipt;
 import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
-import lombok.RequiredArgsConstructor;
+import chatting.chatproducer.kafka.journal.SpillJournal;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
 @Slf4j
 @Component
-@RequiredArgsConstructor
 public class KafkaChatProducer {
     private final KafkaTemplate<String, ChatKafkaMessage> kafkaTemplate;
-    private final FailedChatMessageRepository failedMessageRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SpillJournal spillJournal;
+
+    // 인스턴스당 동시에 브로커 응답을 기다리는(in-flight) 레코드 수 제한
+    private final Semaphore inFlightPermits;
+    private final int maxInFlight;
+    private final long acquireTimeoutMs;
 
     private static final String TOPIC_NAME = "chat-message";
+    public static final String EVENT_ID_HEADER = "eventId";
+
+    public KafkaChatProducer(KafkaTemplate<String, ChatKafkaMessage> kafkaTemplate,
+                             SimpMessagingTemplate messagingTemplate,
+                             SpillJournal spillJournal,
+                             @Value("${chat.kafka.max-in-flight:2000}") int maxInFlight,
+                             @Value("${chat.kafka.acquire-timeout-ms:200}") long acquireTimeoutMs) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.messagingTemplate = messagingTemplate;
+        this.spillJournal = spillJournal;
+        this.maxInFlight = maxInFlight;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * 비동기 전송. 호출 스레드는 브로커 응답을 기다리지 않고,
+     * in-flight 한도에 걸린 경우에만 acquireTimeoutMs 동안 대기한다 (backpressure)
+     */
+    public CompletableFuture<Void> sendMessage(ChatKafkaMessage message) {
+        return sendMessage(message, null);
+    }
+
+    /**
+     * Outbox 이벤트 전송. eventId를 헤더로 실어 컨슈머 측 멱등 처리에 사용한다
+     * - 전송 실패/한도 초과 시 로컬 저널에 기록하고 정상 완료로 처리 (브로커 복구 후 replay)
+     * - 저널 기록까지 실패한 경우에만 future가 예외로 완료된다
+     */
+    public CompletableFuture<Void> sendMessage(ChatKafkaMessage message, String eventId) {
+        // 같은 방의 메시지가 저널에서 replay 대기 중이면 순서 유지를 위해 저널 뒤에 붙인다
+        if (spillJournal.hasPending(message.getRoomId())) {
+            return spill(message, eventId, "replay 대기 중인 방");
+        }
 
-//    public void sendMessage(ChatKafkaMessage message) {
-//        kafkaTemplate.send(TOPIC_NAME, message);
-//    }
-    public void sendMessage(ChatKafkaMessage message) {
-        log.info(">>> sendMessage called: roomId={}, sender={}, message={}",
-                message.getRoomId(), message.getSender(), message.getMessage());
+        if (!acquirePermit()) {
+            log.warn("Kafka in-flight 한도 초과: roomId={}, maxInFlight={}", message.getRoomId(), maxInFlight);
+            return spill(message, eventId, "Kafka in-flight 한도 초과");
+        }
+
+        CompletableFuture<Void> future;
         try {
             // roomId를 key로 사용하여 메시지 전송
-            var future = kafkaTemplate.send(TOPIC_NAME, message.getRoomId(), message);
-            var result = future.get(); // 동기 대기
-            log.info("Kafka 전송 성공: offset={}, partition={}, key={}, roomId={}, message={}",
-                    result.getRecordMetadata().offset(),
-                    result.getRecordMetadata().partition(),
-                    result.getProducerRecord().key(),
-                    message.getRoomId(),
-                    message.getMessage());
+            ProducerRecord<String, ChatKafkaMessage> record = new ProducerRecord<>(TOPIC_NAME, message.getRoomId(), message);
+            if (eventId != null) {
+                record.headers().add(EVENT_ID_HEADER, eventId.getBytes(StandardCharsets.UTF_8));
+            }
+            future = kafkaTemplate.send(record).handle((result, ex) -> {
+                inFlightPermits.release();
+                if (ex != null) {
+                    log.error("Kafka 전송 실패: roomId={}, msg={}", message.getRoomId(), message.getMessage(), ex);
+                    spillOrThrow(message, eventId, ex.getMessage());
+                    return null;
+                }
+                log.debug("Kafka 전송 성공: offset={}, partition={}, roomId={}",
+                        result.getRecordMetadata().offset(),
+                        result.getRecordMetadata().partition(),
+                        message.getRoomId());
+                sendReceipt(message, DeliveryReceipt.sent(message,
+                        result.getRecordMetadata().partition(),
+                        result.getRecordMetadata().offset()));
+                return null;
+            });
         } catch (Exception e) {
+            inFlightPermits.release();
             log.error("Kafka 전송 실패: roomId={}, msg={}", message.getRoomId(), message.getMessage(), e);
+            return spill(message, eventId, e.getMessage());
         }
+        return future;
     }
 
+    /**
+     * 현재 브로커 응답 대기 중인 레코드 수
+     */
+    public int getInFlightCount() {
+        return maxInFlight - inFlightPermits.availablePermits();
+    }
 
+    private boolean acquirePermit() {
+        try {
+            return inFlightPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
 
+    private CompletableFuture<Void> spill(ChatKafkaMessage message, String eventId, String reason) {
+        try {
+            spillOrThrow(message, eventId, reason);
+            return CompletableFuture.completedFuture(null);
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private void spillOrThrow(ChatKafkaMessage message, String eventId, String reason) {
+        try {
+            spillJournal.append(message, eventId);
+        } catch (Exception e) {
+            log.error("저널 기록 실패: roomId={}, msg={}", message.getRoomId(), message.getMessage(), e);
+            sendReceipt(message, DeliveryReceipt.failed(message, reason));
+            throw new CompletionException(e);
+        }
+        sendReceipt(message, DeliveryReceipt.queued(message, reason));
+    }
+
+    private void sendReceipt(ChatKafkaMessage message, DeliveryReceipt receipt) {
+        if (message.getSender() == null) {
+            return;
+        }
+        try {
+            messagingTemplate.convertAndSend("/sub/user/" + message.getSender() + "/receipt", receipt);
+        } catch (Exception e) {
+            log.warn("전송 확인 알림 실패: sender={}, roomId={}", message.getSender(), message.getRoomId(), e);
+        }
+    }
 }
@@ -1,19 +1,28 @@
 package chatting.chatproducer.kafka.producer;
 
+import chatting.chatproducer.domain.outbox.service.OutboxService;
 import chatting.chatproducer.kafka.dto.MergeEventDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerRecord;
 import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class MergeEventProducer {
     
     private final KafkaTemplate<String, MergeEventDTO> kafkaTemplate;
+    private final OutboxService outboxService;
     private static final String TOPIC_NAME = "merge-events";
 
+    // publish* 메서드는 Outbox에 기록만 하고, 실제 Kafka 발행은 OutboxPublisher가 커밋 이후에 수행
+
     public void publishMergeInitiated(MergeEventDTO event) {
         publishEvent(event, "MERGE_INITIATED");
     }
@@ -35,26 +44,34 @@ public class MergeEventProducer {
     }
 
     public void publishMergeFailed(MergeEventDTO event) {
-        publishEvent(event, "MERGE_FAILED");
+        // 실패 이벤트는 호출자 트랜잭션이 롤백되더라도 남아야 한다
+        event.setEventType("MERGE_FAILED");
+        outboxService.appendMergeEventInNewTransaction(event);
+        log.info("병합 이벤트 Outbox 기록: eventType=MERGE_FAILED, mergeId={}", event.getMergeId());
     }
 
-    private void publishEvent(MergeEventDTO event, String eventType) {
-        event.setEventType(eventType);
+    /**
+     * Outbox 이벤트를 Kafka로 전송 (OutboxPublisher 전용)
+     */
+    public CompletableFuture<SendResult<String, MergeEventDTO>> send(MergeEventDTO event, String eventId) {
+        ProducerRecord<String, MergeEventDTO> record = new ProducerRecord<>(TOPIC_NAME, event.getMergeId(), event);
+        record.headers().add(KafkaChatProducer.EVENT_ID_HEADER, eventId.getBytes(StandardCharsets.UTF_8));
 
-        try {
-            var future = kafkaTemplate.send(TOPIC_NAME, event.getMergeId(), event);
-            var result = future.get(); // 동기 대기
-            
+        return kafkaTemplate.send(record).whenComplete((result, ex) -> {
+            if (ex != null) {
+                log.error("병합 이벤트 발행 실패: eventType={}, mergeId={}", event.getEventType(), event.getMergeId(), ex);
+                return;
+            }
             log.info("병합 이벤트 발행 성공: eventType={}, mergeId={}, offset={}, partition={}",
-                    eventType, event.getMergeId(),
+                    event.getEventType(), event.getMergeId(),
                     result.getRecordMetadata().offset(),
                     result.getRecordMetadata().partition());
-            log.info("=== 병합 이벤트 발행 완료 ===");
-                    
-        } catch (Exception e) {
-            log.error("병합 이벤트 발행 실패: eventType={}, mergeId={}", eventType, event.getMergeId(), e);
-            log.info("=== 병합 이벤트 발행 실패 ===");
-            throw new RuntimeException("병합 이벤트 발행 실패", e);
-        }
-    }
-} 
\ No newline at end of file
+        });
+    }
+
+    private void publishEvent(MergeEventDTO event, String eventType) {
+        event.setEventType(eventType);
+        outboxService.appendMergeEvent(event);
+        log.info("병합 이벤트 Outbox 기록: eventType={}, mergeId={}", eventType, event.getMergeId());
+    }
+}
@@ -1,12 +1,18 @@
 package chatting.chatproducer.system.controller;
 
+import chatting.chatproducer.domain.chatmessage.cache.RecentMessageCache;
+import chatting.chatproducer.domain.chatmessage.dto.HistoryCacheStats;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
+@RequiredArgsConstructor
 public class InfoController {
 
+    private final RecentMessageCache recentMessageCache;
+
     @Value("${instance.id}")
     private String instanceId;
 
@@ -14,5 +20,12 @@ public class InfoController {
     public String getInstanceId() {
         return instanceId;
     }
-}
 
+    /**
+     * 인스턴스별 최근 메시지 버퍼 상태 (적중률, 추정 메모리 사용량)
+     */
+    @GetMapping("/history-cache/stats")
+    public HistoryCacheStats getHistoryCacheStats() {
+        return recentMessageCache.stats();
+    }
+}
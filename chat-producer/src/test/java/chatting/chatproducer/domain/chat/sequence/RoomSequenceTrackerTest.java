@@ -0,0 +1,56 @@
+package chatting.chatproducer.domain.chat.sequence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RoomSequenceTrackerTest {
+
+    private final RoomSequenceTracker tracker = new RoomSequenceTracker(4);
+
+    @Test
+    void returnsNoneForUntrackedRoom() {
+        assertThat(tracker.advance("room-1", 5)).isEqualTo(RoomSequenceTracker.NONE);
+        assertThat(tracker.lastSeq("room-1")).isEqualTo(5L);
+    }
+
+    @Test
+    void returnsPreviousSeqOnAdvance() {
+        tracker.advance("room-1", 1);
+
+        assertThat(tracker.advance("room-1", 2)).isEqualTo(1L);
+        assertThat(tracker.advance("room-1", 5)).isEqualTo(2L); // 3, 4 누락
+        assertThat(tracker.lastSeq("room-1")).isEqualTo(5L);
+    }
+
+    @Test
+    void doesNotMoveBackwardOnDuplicate() {
+        tracker.advance("room-1", 3);
+
+        assertThat(tracker.advance("room-1", 3)).isEqualTo(3L);
+        assertThat(tracker.advance("room-1", 2)).isEqualTo(3L);
+        assertThat(tracker.lastSeq("room-1")).isEqualTo(3L);
+    }
+
+    @Test
+    void forgetRestartsTracking() {
+        tracker.advance("room-1", 3);
+
+        tracker.forget("room-1");
+
+        assertThat(tracker.lastSeq("room-1")).isNull();
+        assertThat(tracker.advance("room-1", 7)).isEqualTo(RoomSequenceTracker.NONE);
+    }
+
+    @Test
+    void tracksRoomsSharingStripeIndependently() {
+        RoomSequenceTracker singleStripe = new RoomSequenceTracker(1);
+        singleStripe.advance("room-1", 10);
+        singleStripe.advance("room-2", 20);
+
+        singleStripe.forget("room-1");
+
+        assertThat(singleStripe.lastSeq("room-1")).isNull();
+        assertThat(singleStripe.lastSeq("room-2")).isEqualTo(20L);
+    }
+}
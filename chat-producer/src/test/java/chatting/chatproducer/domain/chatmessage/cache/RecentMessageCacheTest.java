@@ -0,0 +1,177 @@
+package chatting.chatproducer.domain.chatmessage.cache;
+
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageBucket;
+import chatting.chatproducer.domain.chatmessage.dto.ChatMessageCursor;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecentMessageCacheTest {
+
+    private static final String ROOM = "room-1";
+
+    private final RecentMessageCache cache = new RecentMessageCache(true, 3, Long.MAX_VALUE);
+
+    @Test
+    void returnsLatestPageNewestFirst() {
+        appendRange(1, 3);
+
+        assertThat(seqs(cache.find(ROOM, null, null, 2))).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void ignoresDuplicateSeq() {
+        appendRange(1, 2);
+        cache.append(ROOM, message(2));
+
+        assertThat(seqs(cache.find(ROOM, null, null, 2))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void restartsBufferOnGap() {
+        appendRange(1, 2);
+        cache.append(ROOM, message(5));
+
+        assertThat(seqs(cache.find(ROOM, null, null, 1))).containsExactly(5L);
+        assertThat(cache.find(ROOM, null, null, 2)).isNull();
+    }
+
+    @Test
+    void ringKeepsNewestOnOverflow() {
+        appendRange(1, 5);
+
+        assertThat(seqs(cache.find(ROOM, null, null, 3))).containsExactly(5L, 4L, 3L);
+        assertThat(cache.find(ROOM, null, null, 4)).isNull();
+    }
+
+    @Test
+    void missesShortPageWithoutRoomStart() {
+        cache.seed(ROOM, newestFirst(3, 2), false);
+
+        assertThat(seqs(cache.find(ROOM, null, null, 2))).containsExactly(3L, 2L);
+        assertThat(cache.find(ROOM, null, null, 10)).isNull();
+    }
+
+    @Test
+    void servesShortPageWhenSeededFromRoomStart() {
+        cache.seed(ROOM, newestFirst(2, 1), true);
+
+        assertThat(seqs(cache.find(ROOM, null, null, 10))).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void doesNotTrustSeqOneWithoutRoomStart() {
+        // seq 1부터 있어도 병합으로 옮겨온 더 오래된 메시지가 있을 수 있다
+        appendRange(1, 2);
+
+        assertThat(cache.find(ROOM, null, null, 10)).isNull();
+    }
+
+    @Test
+    void overflowClearsRoomStart() {
+        cache.seed(ROOM, newestFirst(3, 1), true);
+        cache.append(ROOM, message(4));
+
+        assertThat(cache.find(ROOM, null, null, 10)).isNull();
+    }
+
+    @Test
+    void seedPrependsOlderRowsToExistingBuffer() {
+        cache.append(ROOM, message(3));
+
+        cache.seed(ROOM, newestFirst(3, 1), true);
+
+        assertThat(seqs(cache.find(ROOM, null, null, 10))).containsExactly(3L, 2L, 1L);
+    }
+
+    @Test
+    void seedWithoutRoomForAllRowsIsNotComplete() {
+        RecentMessageCache small = new RecentMessageCache(true, 2, Long.MAX_VALUE);
+
+        small.seed(ROOM, newestFirst(3, 1), true);
+
+        assertThat(seqs(small.find(ROOM, null, null, 2))).containsExactly(3L, 2L);
+        assertThat(small.find(ROOM, null, null, 3)).isNull();
+    }
+
+    @Test
+    void ignoresSeedWithNonConsecutiveSeqs() {
+        cache.seed(ROOM, List.of(message(5), message(3)), true);
+
+        assertThat(cache.find(ROOM, null, null, 1)).isNull();
+    }
+
+    @Test
+    void pagesBeforeAndAfterCursor() {
+        cache.seed(ROOM, newestFirst(3, 1), true);
+
+        assertThat(seqs(cache.find(ROOM, cursor(3), null, 10))).containsExactly(2L, 1L);
+        assertThat(seqs(cache.find(ROOM, null, cursor(1), 10))).containsExactly(2L, 3L);
+        assertThat(cache.find(ROOM, cursor(9), null, 10)).isNull();
+    }
+
+    @Test
+    void invalidateDropsRoom() {
+        appendRange(1, 3);
+
+        cache.invalidate(ROOM);
+
+        assertThat(cache.find(ROOM, null, null, 1)).isNull();
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedRoomOverBudget() {
+        RecentMessageCache tight = new RecentMessageCache(true, 3, 150);
+        tight.append("room-a", message(1));
+        tight.append("room-b", message(1));
+
+        assertThat(tight.find("room-a", null, null, 1)).isNull();
+        assertThat(seqs(tight.find("room-b", null, null, 1))).containsExactly(1L);
+        assertThat(tight.stats().getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    void disabledCacheAlwaysMisses() {
+        RecentMessageCache disabled = new RecentMessageCache(false, 3, Long.MAX_VALUE);
+        disabled.append(ROOM, message(1));
+
+        assertThat(disabled.find(ROOM, null, null, 1)).isNull();
+    }
+
+    private void appendRange(long from, long to) {
+        for (long seq = from; seq <= to; seq++) {
+            cache.append(ROOM, message(seq));
+        }
+    }
+
+    private static List<ChatMessageBucket.Message> newestFirst(long newest, long oldest) {
+        List<ChatMessageBucket.Message> rows = new ArrayList<>();
+        for (long seq = newest; seq >= oldest; seq--) {
+            rows.add(message(seq));
+        }
+        return rows;
+    }
+
+    private static ChatMessageBucket.Message message(long seq) {
+        return ChatMessageBucket.Message.builder()
+                .id("id-" + seq)
+                .seq(seq)
+                .sender("alice")
+                .message("m" + seq)
+                .timestamp(Instant.ofEpochMilli(seq))
+                .messageType("TALK")
+                .build();
+    }
+
+    private static ChatMessageCursor cursor(long seq) {
+        return new ChatMessageCursor(Instant.ofEpochMilli(seq), "id-" + seq);
+    }
+
+    private static List<Long> seqs(List<ChatMessageBucket.Message> rows) {
+        return rows.stream().map(ChatMessageBucket.Message::getSeq).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package chatting.chatproducer.domain.chatmessage.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatMessageCursorTest {
+
+    @Test
+    void parsesTimestampAndId() {
+        ChatMessageCursor cursor = ChatMessageCursor.parse("1700000000123_65f0c0ffee00000000000001");
+
+        assertThat(cursor.getTimestamp()).isEqualTo(Instant.ofEpochMilli(1_700_000_000_123L));
+        assertThat(cursor.getId()).isEqualTo("65f0c0ffee00000000000001");
+    }
+
+    @Test
+    void splitsOnFirstSeparatorOnly() {
+        assertThat(ChatMessageCursor.parse("10_a_b").getId()).isEqualTo("a_b");
+    }
+
+    @Test
+    void returnsNullForMissingCursor() {
+        assertThat(ChatMessageCursor.parse(null)).isNull();
+        assertThat(ChatMessageCursor.parse("")).isNull();
+        assertThat(ChatMessageCursor.parse("  ")).isNull();
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        assertThatThrownBy(() -> ChatMessageCursor.parse("1700000000123")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> ChatMessageCursor.parse("abc_id")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void encodeRoundTrips() {
+        Instant timestamp = Instant.ofEpochMilli(1_700_000_000_123L);
+
+        ChatMessageCursor cursor = ChatMessageCursor.parse(ChatMessageCursor.encode(timestamp, "id-1"));
+
+        assertThat(cursor.getTimestamp()).isEqualTo(timestamp);
+        assertThat(cursor.getId()).isEqualTo("id-1");
+    }
+
+    @Test
+    void encodeDropsSubMillisecondPrecision() {
+        Instant timestamp = Instant.ofEpochSecond(1_700_000_000L, 123_456_789);
+
+        assertThat(ChatMessageCursor.encode(timestamp, "id-1")).isEqualTo("1700000000123_id-1");
+    }
+}
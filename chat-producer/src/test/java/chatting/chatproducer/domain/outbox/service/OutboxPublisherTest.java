@@ -0,0 +1,135 @@
+package chatting.chatproducer.domain.outbox.service;
+
+import chatting.chatproducer.domain.outbox.entity.OutboxEvent;
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import chatting.chatproducer.kafka.producer.KafkaChatProducer;
+import chatting.chatproducer.kafka.producer.MergeEventProducer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxPublisherTest {
+
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final KafkaChatProducer kafkaChatProducer = mock(KafkaChatProducer.class);
+    private final ObjectMapper objectMapper = mock(ObjectMapper.class);
+
+    private final OutboxPublisher publisher = new OutboxPublisher(
+            outboxService, kafkaChatProducer, mock(MergeEventProducer.class), objectMapper);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(publisher, "batchSize", 100);
+        ReflectionTestUtils.setField(publisher, "sendTimeoutMs", 50L);
+        ReflectionTestUtils.setField(publisher, "backoffMs", 500L);
+        ReflectionTestUtils.setField(publisher, "maxAttempts", 10);
+        when(objectMapper.readValue(anyString(), eq(ChatKafkaMessage.class))).thenReturn(new ChatKafkaMessage());
+    }
+
+    @Test
+    void sendsClaimedEventsInIdOrderAndMarksThemSent() {
+        claim(event(1, "room-1"), event(2, "room-2"), event(3, "room-1"));
+        ack("e1", "e2", "e3");
+
+        publisher.publishPending();
+
+        InOrder order = inOrder(kafkaChatProducer);
+        order.verify(kafkaChatProducer).sendMessage(any(), eq("e1"));
+        order.verify(kafkaChatProducer).sendMessage(any(), eq("e2"));
+        order.verify(kafkaChatProducer).sendMessage(any(), eq("e3"));
+        verify(outboxService).markSent(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void holdsBackLaterEventsOfRoomWhoseEarlierEventFailed() {
+        claim(event(1, "room-1"), event(2, "room-1"), event(3, "room-2"));
+        when(kafkaChatProducer.sendMessage(any(), eq("e1")))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("저널 기록 실패")));
+        ack("e3");
+
+        publisher.publishPending();
+
+        verify(kafkaChatProducer, never()).sendMessage(any(), eq("e2"));
+        verify(outboxService).markSent(List.of(3L));
+        verify(outboxService).releaseForRetry(eq(List.of(1L)), anyLong(), anyInt());
+        verify(outboxService).unclaim(List.of(2L));
+    }
+
+    @Test
+    void keepsUnackedEventLeasedAndSkipsItsRoomUntilAckArrives() throws InterruptedException {
+        CompletableFuture<Void> unacked = new CompletableFuture<>();
+        when(kafkaChatProducer.sendMessage(any(), eq("e1"))).thenReturn(unacked);
+        ack("e2");
+
+        claim(event(1, "room-1"));
+        publisher.publishPending();
+
+        // 타임아웃 후에도 재시도로 돌리지 않음
+        verify(outboxService, never()).releaseForRetry(any(), anyLong(), anyInt());
+        verify(outboxService, never()).markSent(List.of(1L));
+
+        // ack 대기 중인 방의 건은 다음 배치에서 다시 보내지 않음
+        claim(event(1, "room-1"), event(2, "room-1"));
+        publisher.publishPending();
+        verify(kafkaChatProducer).sendMessage(any(), eq("e1"));
+        verify(kafkaChatProducer, never()).sendMessage(any(), eq("e2"));
+
+        // 늦은 ack 반영 후에는 같은 방의 다음 건 전송
+        unacked.complete(null);
+        verify(outboxService, timeout(1000)).markSent(List.of(1L));
+        awaitNoUnacked();
+
+        claim(event(2, "room-1"));
+        publisher.publishPending();
+        verify(kafkaChatProducer).sendMessage(any(), eq("e2"));
+        verify(outboxService).markSent(List.of(2L));
+    }
+
+    // 늦은 ack 반영은 별도 스레드에서 markSent 후 in-flight 해제
+    private void awaitNoUnacked() throws InterruptedException {
+        Map<?, ?> inFlightAggregates = (Map<?, ?>) ReflectionTestUtils.getField(publisher, "inFlightAggregates");
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!inFlightAggregates.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private void claim(OutboxEvent... events) {
+        when(outboxService.claimBatch(anyInt(), anyLong(), anyLong())).thenReturn(List.of(events));
+    }
+
+    private void ack(String... eventIds) {
+        for (String eventId : eventIds) {
+            when(kafkaChatProducer.sendMessage(any(), eq(eventId))).thenReturn(CompletableFuture.completedFuture(null));
+        }
+    }
+
+    private static OutboxEvent event(long id, String roomId) {
+        return OutboxEvent.builder()
+                .id(id)
+                .eventId("e" + id)
+                .aggregateType(OutboxEvent.AggregateType.CHAT_MESSAGE.name())
+                .aggregateId(roomId)
+                .payload("{}")
+                .status(OutboxEvent.OutboxStatus.PENDING)
+                .build();
+    }
+}
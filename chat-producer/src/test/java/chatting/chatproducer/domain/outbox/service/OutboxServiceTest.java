@@ -0,0 +1,80 @@
+package chatting.chatproducer.domain.outbox.service;
+
+import chatting.chatproducer.domain.outbox.entity.OutboxEvent;
+import chatting.chatproducer.domain.outbox.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class OutboxServiceTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final OutboxService outboxService = new OutboxService(repository, new ObjectMapper());
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(outboxService, "instanceId", "producer1");
+    }
+
+    @Test
+    void claimsFoundIdsAndReturnsOwnPendingRowsInIdOrder() {
+        List<OutboxEvent> owned = List.of(OutboxEvent.builder().id(1L).build(), OutboxEvent.builder().id(2L).build());
+        when(repository.findClaimableIds(eq("producer1"), any(), any(), any(), eq(100))).thenReturn(List.of(1L, 2L));
+        when(repository.claimByIds(eq(List.of(1L, 2L)), eq("producer1"), any(), any())).thenReturn(2);
+        when(repository.findByClaimedByAndStatusOrderByIdAsc("producer1", OutboxEvent.OutboxStatus.PENDING))
+                .thenReturn(owned);
+
+        assertThat(outboxService.claimBatch(100, 150_000, 60_000)).isEqualTo(owned);
+    }
+
+    @Test
+    void returnsNothingWhenAnotherInstanceClaimedTheRowsFirst() {
+        when(repository.findClaimableIds(any(), any(), any(), any(), anyInt())).thenReturn(List.of(1L));
+        when(repository.claimByIds(anyList(), any(), any(), any())).thenReturn(0);
+
+        assertThat(outboxService.claimBatch(100, 150_000, 60_000)).isEmpty();
+        verify(repository, never()).findByClaimedByAndStatusOrderByIdAsc(any(), any());
+    }
+
+    @Test
+    void passesLeaseAndOrphanCutoffsRelativeToNow() {
+        when(repository.findClaimableIds(any(), any(), any(), any(), anyInt())).thenReturn(List.of());
+        LocalDateTime before = LocalDateTime.now();
+
+        outboxService.claimBatch(10, 150_000, 60_000);
+
+        verify(repository).findClaimableIds(eq("producer1"),
+                argThat(now -> !now.isBefore(before)),
+                argThat(orphaned -> !orphaned.isBefore(before.minusSeconds(60))
+                        && orphaned.isBefore(LocalDateTime.now().minusSeconds(59))),
+                argThat(lease -> !lease.isBefore(before.minusSeconds(150))
+                        && lease.isBefore(LocalDateTime.now().minusSeconds(149))),
+                eq(10));
+        verify(repository, never()).claimByIds(anyList(), any(), any(), any());
+    }
+
+    @Test
+    void skipsUpdatesForEmptyIdLists() {
+        outboxService.markSent(List.of());
+        outboxService.releaseForRetry(List.of(), 500, 10);
+        outboxService.unclaim(List.of());
+
+        verifyNoInteractions(repository);
+    }
+}
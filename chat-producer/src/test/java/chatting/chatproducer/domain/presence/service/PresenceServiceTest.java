@@ -0,0 +1,154 @@
+package chatting.chatproducer.domain.presence.service;
+
+import chatting.chatproducer.domain.chat.subscription.RoomSubscriptionRegistry;
+import chatting.chatproducer.domain.presence.dto.PresenceEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class PresenceServiceTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+    private final RoomSubscriptionRegistry roomSubscriptionRegistry = mock(RoomSubscriptionRegistry.class);
+
+    private final PresenceService presenceService = new PresenceService(
+            redisTemplate, messagingTemplate, roomSubscriptionRegistry, "producer1", 30_000);
+
+    @BeforeEach
+    void setUp() {
+        scriptReturns(1L);
+    }
+
+    @Test
+    void joinsOncePerRoomUserAcrossTabs() {
+        presenceService.onSubscribe(subscribe("s1", "sub-0", "/sub/chat/room/room-1", "alice"));
+        presenceService.onSubscribe(subscribe("s2", "sub-0", "/sub/chat/room/room-1", "alice"));
+
+        assertThat(scriptsRun()).containsExactly("JOIN");
+        verify(redisTemplate).convertAndSend(PresenceService.CHANNEL, "J\nroom-1\nalice");
+    }
+
+    @Test
+    void leavesOnlyAfterLastLocalSubscriptionIsGone() {
+        presenceService.onSubscribe(subscribe("s1", "sub-0", "/sub/chat/room/room-1", "alice"));
+        presenceService.onSubscribe(subscribe("s2", "sub-0", "/sub/chat/room/room-1", "alice"));
+
+        presenceService.onUnsubscribe(unsubscribe("s1", "sub-0"));
+        verify(redisTemplate, never()).convertAndSend(PresenceService.CHANNEL, "L\nroom-1\nalice");
+
+        presenceService.onDisconnect(disconnect("s2"));
+        assertThat(scriptsRun()).containsExactly("JOIN", "LEAVE");
+        verify(redisTemplate).convertAndSend(PresenceService.CHANNEL, "L\nroom-1\nalice");
+    }
+
+    @Test
+    void staysSilentWhileAnotherInstanceHoldsTheUser() {
+        scriptReturns(0L);
+
+        presenceService.onSubscribe(subscribe("s1", "sub-0", "/sub/chat/room/room-1", "alice"));
+        presenceService.onDisconnect(disconnect("s1"));
+
+        assertThat(scriptsRun()).containsExactly("JOIN", "LEAVE");
+        verify(redisTemplate, never()).convertAndSend(eq(PresenceService.CHANNEL), anyString());
+    }
+
+    @Test
+    void ignoresSubDestinationsAndAnonymousSubscriptions() {
+        presenceService.onSubscribe(subscribe("s1", "sub-0", "/sub/chat/room/room-1/head", "alice"));
+        presenceService.onSubscribe(subscribe("s1", "sub-1", "/sub/chat/room/room-1", null));
+
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void forwardsPresenceEventsOnlyToRoomsWithLocalSubscribers() {
+        when(roomSubscriptionRegistry.hasSubscribers("room-1")).thenReturn(true);
+
+        presenceService.onMessage(redisMessage("J\nroom-1\nalice"), null);
+        presenceService.onMessage(redisMessage("L\nroom-2\nbob"), null);
+
+        ArgumentCaptor<PresenceEvent> event = ArgumentCaptor.forClass(PresenceEvent.class);
+        verify(messagingTemplate).convertAndSend(eq("/sub/chat/room/room-1/presence"), event.capture());
+        assertThat(event.getValue().getUserId()).isEqualTo("alice");
+        assertThat(event.getValue().getType()).isEqualTo(PresenceEvent.Type.JOIN);
+        verify(messagingTemplate, never()).convertAndSend(eq("/sub/chat/room/room-2/presence"), any(Object.class));
+    }
+
+    private void scriptReturns(Long result) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(result);
+    }
+
+    // 실행된 Lua 스크립트 순서 (ZADD가 있으면 JOIN, 아니면 LEAVE)
+    @SuppressWarnings("unchecked")
+    private List<String> scriptsRun() {
+        ArgumentCaptor<RedisScript<Long>> scripts = ArgumentCaptor.forClass(RedisScript.class);
+        verify(redisTemplate, atLeast(0)).execute(scripts.capture(), anyList(), any(Object[].class));
+        return scripts.getAllValues().stream()
+                .map(script -> script.getScriptAsString().contains("ZADD") ? "JOIN" : "LEAVE")
+                .toList();
+    }
+
+    private static SessionSubscribeEvent subscribe(String sessionId, String subscriptionId,
+                                                   String destination, String userId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        accessor.setSessionAttributes(new HashMap<>());
+        if (userId != null) {
+            accessor.setNativeHeader(PresenceService.USER_ID_HEADER, userId);
+        }
+        return new SessionSubscribeEvent(new Object(), message(accessor));
+    }
+
+    private static SessionUnsubscribeEvent unsubscribe(String sessionId, String subscriptionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        return new SessionUnsubscribeEvent(new Object(), message(accessor));
+    }
+
+    private static SessionDisconnectEvent disconnect(String sessionId) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.DISCONNECT);
+        accessor.setSessionId(sessionId);
+        return new SessionDisconnectEvent(new Object(), message(accessor), sessionId, CloseStatus.NORMAL);
+    }
+
+    private static Message<byte[]> message(StompHeaderAccessor accessor) {
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static DefaultMessage redisMessage(String body) {
+        return new DefaultMessage(PresenceService.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
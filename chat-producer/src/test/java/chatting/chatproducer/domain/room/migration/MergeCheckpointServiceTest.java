@@ -0,0 +1,80 @@
+package chatting.chatproducer.domain.room.migration;
+
+import chatting.chatproducer.domain.room.entity.MessageMigrationChunk;
+import chatting.chatproducer.domain.room.repository.MessageMigrationChunkRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MergeCheckpointServiceTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final MessageMigrationChunkRepository chunkRepository = mock(MessageMigrationChunkRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final MergeCheckpointService service = new MergeCheckpointService(
+            jdbcTemplate, chunkRepository, transactionManager, "producer1", 120_000);
+
+    @Test
+    void claimsOnlyFreshOrStalledMergeAndHeartbeatsIt() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertThat(service.claim("merge-1")).isTrue();
+
+        // heartbeat가 stale 기준(120초)보다 오래된 경우에만 이어받음
+        verify(jdbcTemplate).update(
+                argThat(sql -> sql.startsWith("UPDATE merge_status SET current_step = 'MESSAGES_MIGRATED'")
+                        && sql.contains("current_step = 'ROOMS_LOCKED'")
+                        && sql.contains("heartbeat_at < ?")),
+                eq("producer1"), any(Timestamp.class), eq("merge-1"),
+                argThat((Timestamp staleBefore) -> staleBefore.toLocalDateTime()
+                        .isBefore(LocalDateTime.now().minusSeconds(119))));
+        verify(transactionManager).commit(any());
+        assertThat(service.isActive("merge-1")).isTrue();
+
+        service.heartbeat();
+        verify(jdbcTemplate).update(
+                eq("UPDATE merge_status SET heartbeat_at = ? WHERE merge_id = ? AND owner_instance = ?"),
+                any(Timestamp.class), eq("merge-1"), eq("producer1"));
+
+        service.release("merge-1");
+        assertThat(service.isActive("merge-1")).isFalse();
+    }
+
+    @Test
+    void doesNotTrackMergeClaimedByAnotherInstance() {
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(0);
+
+        assertThat(service.claim("merge-1")).isFalse();
+        assertThat(service.isActive("merge-1")).isFalse();
+    }
+
+    @Test
+    void recordsChunkAndAdvancesCheckpointInOneTransaction() {
+        MessageMigrationChunk chunk = MessageMigrationChunk.of("merge-1", "room-2", "room-1", "m1", "m2", 2);
+
+        service.recordChunk(chunk);
+
+        verify(chunkRepository).save(chunk);
+        verify(jdbcTemplate).update(
+                argThat(sql -> sql.startsWith("INSERT INTO merge_checkpoint")
+                        && sql.contains("last_message_id = VALUES(last_message_id)")
+                        && sql.contains("migrated_count = migrated_count + VALUES(migrated_count)")),
+                eq("merge-1"), eq("room-2"), eq("m2"), eq(2L));
+        verify(transactionManager).commit(any());
+        verify(transactionManager, never()).rollback(any());
+    }
+}
@@ -0,0 +1,130 @@
+package chatting.chatproducer.domain.room.migration;
+
+import chatting.chatproducer.domain.room.dto.SourceTaskProgress;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class MergeTaskRunnerTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private MergeTaskRunner runner;
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    void sumsCountsAndRunsEachSourceInItsOwnTransaction() {
+        runner = new MergeTaskRunner(transactionManager, 4, 4, 4, 60_000);
+
+        MergeStepResult result = runner.runPerSource("merge-1", "USERS", List.of("room-1", "room-2", "room-3"),
+                MergeTaskRunner.Resource.MYSQL, sourceRoomId -> 10);
+
+        assertThat(result.getMigratedCount()).isEqualTo(30);
+        assertThat(result.hasFailures()).isFalse();
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager, times(3)).getTransaction(definitions.capture());
+        assertThat(definitions.getAllValues())
+                .allMatch(definition -> definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void isolatesFailingSource() {
+        runner = new MergeTaskRunner(transactionManager, 4, 4, 4, 60_000);
+
+        MergeStepResult result = runner.runPerSource("merge-1", "MESSAGES", List.of("room-1", "room-2", "room-3"),
+                MergeTaskRunner.Resource.MONGO, false, MergeTaskRunner.NO_TIMEOUT, sourceRoomId -> {
+                    if (sourceRoomId.equals("room-2")) {
+                        throw new IllegalStateException("boom");
+                    }
+                    return 5;
+                });
+
+        assertThat(result.getMigratedCount()).isEqualTo(10);
+        assertThat(result.getFailedRoomIds()).containsExactly("room-2");
+        assertThat(runner.getProgress("merge-1"))
+                .filteredOn(progress -> progress.getSourceRoomId().equals("room-2"))
+                .singleElement()
+                .satisfies(progress -> {
+                    assertThat(progress.getState()).isEqualTo(SourceTaskProgress.State.FAILED);
+                    assertThat(progress.getError()).isEqualTo("boom");
+                });
+    }
+
+    @Test
+    void boundsConcurrencyByResourceBudget() {
+        runner = new MergeTaskRunner(transactionManager, 4, 4, 2, 60_000);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+
+        MergeStepResult result = runner.runPerSource("merge-1", "USERS",
+                List.of("room-1", "room-2", "room-3", "room-4", "room-5", "room-6"),
+                MergeTaskRunner.Resource.MYSQL, false, MergeTaskRunner.NO_TIMEOUT, sourceRoomId -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        running.decrementAndGet();
+                    }
+                    return 1;
+                });
+
+        assertThat(result.getMigratedCount()).isEqualTo(6);
+        assertThat(maxRunning.get()).isBetween(1, 2);
+    }
+
+    @Test
+    void timesOutSlowSourceAndWaitsForItToStop() {
+        runner = new MergeTaskRunner(transactionManager, 2, 2, 2, 50);
+        AtomicInteger stopped = new AtomicInteger();
+
+        MergeStepResult result = runner.runPerSource("merge-1", "MESSAGES", List.of("room-1", "room-2"),
+                MergeTaskRunner.Resource.MONGO, false, 50, sourceRoomId -> {
+                    if (sourceRoomId.equals("room-2")) {
+                        try {
+                            Thread.sleep(10_000);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            stopped.incrementAndGet();
+                        }
+                    }
+                    return 1;
+                });
+
+        assertThat(result.getFailedRoomIds()).containsExactly("room-2");
+        assertThat(result.getMigratedCount()).isEqualTo(1);
+        // 취소한 작업이 실제로 끝난 뒤에 반환
+        assertThat(stopped.get()).isEqualTo(1);
+        assertThat(runner.getProgress("merge-1"))
+                .filteredOn(progress -> progress.getSourceRoomId().equals("room-2"))
+                .singleElement()
+                .satisfies(progress -> assertThat(progress.getError()).contains("작업 시간 초과"));
+    }
+
+    @Test
+    void clearDropsProgress() {
+        runner = new MergeTaskRunner(transactionManager, 1, 1, 1, 60_000);
+        runner.runPerSource("merge-1", "USERS", List.of("room-1"), MergeTaskRunner.Resource.MYSQL, sourceRoomId -> 1);
+
+        runner.clear("merge-1");
+
+        assertThat(runner.getProgress("merge-1")).isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+package chatting.chatproducer.domain.room.service;
+
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
+import chatting.chatproducer.domain.chatmessage.service.ChatMessageBucketService;
+import chatting.chatproducer.domain.room.repository.MessageMigrationChunkRepository;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ChatRoomMergeServiceTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+    @Mock
+    private MessageMigrationChunkRepository messageMigrationChunkRepository;
+    @Mock
+    private ChatMessageBucketService chatMessageBucketService;
+
+    @InjectMocks
+    private ChatRoomMergeService chatRoomMergeService;
+
+    @Test
+    void rollsBackMessagesWithOneUpdatePerSourceByMergeIdTag() {
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(ChatMessageDocument.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        chatRoomMergeService.rollbackMessageMigration("merge-1", "room-1", List.of("room-2", "room-3"));
+
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(queries.capture(), updates.capture(), eq(ChatMessageDocument.class));
+
+        // 타겟 방 안에서 mergeId + originalRoomId 태그로만 찾는다
+        assertThat(queries.getAllValues()).extracting(Query::getQueryObject).containsExactly(
+                Document.parse("{roomId: 'room-1', mergeId: 'merge-1', originalRoomId: 'room-2'}"),
+                Document.parse("{roomId: 'room-1', mergeId: 'merge-1', originalRoomId: 'room-3'}"));
+        assertThat(updates.getAllValues().get(0).getUpdateObject()).isEqualTo(Document.parse(
+                "{$set: {roomId: 'room-2'}, $unset: {mergeId: 1, originalRoomId: 1}}"));
+
+        verify(messageMigrationChunkRepository).markRolledBack(eq("merge-1"), any());
+        verify(chatMessageBucketService).restoreMerge("merge-1");
+    }
+}
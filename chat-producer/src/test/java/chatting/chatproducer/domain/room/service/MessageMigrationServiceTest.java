@@ -0,0 +1,162 @@
+package chatting.chatproducer.domain.room.service;
+
+import chatting.chatproducer.domain.chatmessage.document.ChatMessageDocument;
+import chatting.chatproducer.domain.chatmessage.service.ChatMessageBucketService;
+import chatting.chatproducer.domain.room.entity.MergeCheckpoint;
+import chatting.chatproducer.domain.room.entity.MessageMigrationChunk;
+import chatting.chatproducer.domain.room.migration.MergeCheckpointService;
+import chatting.chatproducer.domain.room.migration.MergeTaskRunner;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class MessageMigrationServiceTest {
+
+    private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+    private final MergeCheckpointService mergeCheckpointService = mock(MergeCheckpointService.class);
+    private final ChatMessageBucketService chatMessageBucketService = mock(ChatMessageBucketService.class);
+    private final MergeTaskRunner mergeTaskRunner =
+            new MergeTaskRunner(mock(PlatformTransactionManager.class), 1, 1, 1, 60_000);
+
+    private final MessageMigrationService service = new MessageMigrationService(
+            mongoTemplate, mergeCheckpointService, chatMessageBucketService, mergeTaskRunner);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "chunkSize", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        mergeTaskRunner.shutdown();
+    }
+
+    @Test
+    void movesSourceRoomInIdRangeChunks() {
+        when(mongoTemplate.find(any(Query.class), eq(ChatMessageDocument.class)))
+                .thenReturn(messages("m1", "m2"), messages("m3"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(ChatMessageDocument.class)))
+                .thenReturn(modified(2), modified(1));
+
+        long migrated = service.migrateMessages("merge-1", "room-1", List.of("room-2"));
+
+        assertThat(migrated).isEqualTo(3);
+
+        // 청크 _id 조회: 처음은 방 전체, 다음은 앞 청크 끝 _id 이후
+        ArgumentCaptor<Query> finds = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(2)).find(finds.capture(), eq(ChatMessageDocument.class));
+        assertThat(finds.getAllValues().get(0).getQueryObject()).isEqualTo(Document.parse("{roomId: 'room-2'}"));
+        assertThat(finds.getAllValues().get(1).getQueryObject())
+                .isEqualTo(Document.parse("{roomId: 'room-2', _id: {$gt: 'm2'}}"));
+        assertThat(finds.getAllValues().get(0).getLimit()).isEqualTo(2);
+        assertThat(finds.getAllValues().get(0).getSortObject()).isEqualTo(Document.parse("{_id: 1}"));
+
+        // 청크마다 (앞 청크 끝, 이번 청크 끝] 범위를 updateMulti 1회로 이동하고 mergeId/originalRoomId를 남김
+        ArgumentCaptor<Query> moves = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(moves.capture(), updates.capture(), eq(ChatMessageDocument.class));
+        assertThat(moves.getAllValues().get(0).getQueryObject())
+                .isEqualTo(Document.parse("{roomId: 'room-2', $and: [{_id: {$lte: 'm2'}}]}"));
+        assertThat(moves.getAllValues().get(1).getQueryObject())
+                .isEqualTo(Document.parse("{roomId: 'room-2', $and: [{_id: {$lte: 'm3', $gt: 'm2'}}]}"));
+        assertThat(updates.getValue().getUpdateObject()).isEqualTo(Document.parse(
+                "{$set: {roomId: 'room-1', mergeId: 'merge-1', originalRoomId: 'room-2'}}"));
+
+        ArgumentCaptor<MessageMigrationChunk> chunks = ArgumentCaptor.forClass(MessageMigrationChunk.class);
+        verify(mergeCheckpointService, times(2)).recordChunk(chunks.capture());
+        assertThat(chunks.getAllValues())
+                .extracting(MessageMigrationChunk::getFirstMessageId, MessageMigrationChunk::getLastMessageId,
+                        MessageMigrationChunk::getMessageCount)
+                .containsExactly(
+                        tuple("m1", "m2", 2L),
+                        tuple("m3", "m3", 1L));
+
+        verify(chatMessageBucketService).moveRoom("merge-1", "room-2", "room-1");
+        verify(mergeCheckpointService).markCompleted("merge-1", "room-2");
+    }
+
+    @Test
+    void resumesAfterCheckpointedLastId() {
+        when(mergeCheckpointService.load("merge-1"))
+                .thenReturn(Map.of("room-2", new MergeCheckpoint("m2", 2, false)));
+        when(mongoTemplate.find(any(Query.class), eq(ChatMessageDocument.class))).thenReturn(messages("m3"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(ChatMessageDocument.class)))
+                .thenReturn(modified(1));
+
+        long migrated = service.migrateMessages("merge-1", "room-1", List.of("room-2"));
+
+        // 이전 실행분 포함
+        assertThat(migrated).isEqualTo(3);
+        ArgumentCaptor<Query> moves = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(argThat(query -> query.getQueryObject()
+                .equals(Document.parse("{roomId: 'room-2', _id: {$gt: 'm2'}}"))), eq(ChatMessageDocument.class));
+        verify(mongoTemplate).updateMulti(moves.capture(), any(Update.class), eq(ChatMessageDocument.class));
+        assertThat(moves.getValue().getQueryObject())
+                .isEqualTo(Document.parse("{roomId: 'room-2', $and: [{_id: {$lte: 'm3', $gt: 'm2'}}]}"));
+        verify(mergeCheckpointService).markCompleted("merge-1", "room-2");
+    }
+
+    @Test
+    void skipsSourceCompletedBeforeRestart() {
+        when(mergeCheckpointService.load("merge-1"))
+                .thenReturn(Map.of("room-2", new MergeCheckpoint("m9", 9, true)));
+
+        long migrated = service.migrateMessages("merge-1", "room-1", List.of("room-2"));
+
+        assertThat(migrated).isEqualTo(9);
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ChatMessageDocument.class));
+        verify(chatMessageBucketService, never()).moveRoom(any(), any(), any());
+    }
+
+    @Test
+    void skipsTargetRoomListedAsSource() {
+        long migrated = service.migrateMessages("merge-1", "room-1", List.of("room-1"));
+
+        assertThat(migrated).isZero();
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), eq(ChatMessageDocument.class));
+    }
+
+    @Test
+    void failsStepWhenSourceRoomFails() {
+        when(mongoTemplate.find(any(Query.class), eq(ChatMessageDocument.class))).thenReturn(messages("m1"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(ChatMessageDocument.class)))
+                .thenThrow(new IllegalStateException("mongo down"));
+
+        assertThatThrownBy(() -> service.migrateMessages("merge-1", "room-1", List.of("room-2")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("room-2");
+        verify(mergeCheckpointService, never()).markCompleted(any(), any());
+    }
+
+    private static List<ChatMessageDocument> messages(String... ids) {
+        return Arrays.stream(ids).map(id -> ChatMessageDocument.builder().id(id).build()).toList();
+    }
+
+    private static UpdateResult modified(long count) {
+        return UpdateResult.acknowledged(count, count, null);
+    }
+}
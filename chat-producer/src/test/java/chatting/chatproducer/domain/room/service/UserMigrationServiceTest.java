@@ -0,0 +1,110 @@
+package chatting.chatproducer.domain.room.service;
+
+import chatting.chatproducer.domain.chatmessage.document.RoomSequence;
+import chatting.chatproducer.domain.chatmessage.repository.RoomSequenceRepository;
+import chatting.chatproducer.domain.room.cache.RoomCacheInvalidator;
+import chatting.chatproducer.domain.room.repository.RoomUserRepository;
+import chatting.chatproducer.kafka.producer.MergeEventProducer;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserMigrationServiceTest {
+
+    private final RoomSequenceRepository roomSequenceRepository = mock(RoomSequenceRepository.class);
+    private final RoomCacheInvalidator roomCacheInvalidator = mock(RoomCacheInvalidator.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    private final UserMigrationService service = new UserMigrationService(mock(RoomUserRepository.class),
+            roomSequenceRepository, mock(MergeEventProducer.class), roomCacheInvalidator, jdbcTemplate);
+
+    @Test
+    void migratesAllSourcesWithOneStatementPerStep() {
+        when(roomSequenceRepository.findById("room-1")).thenReturn(Optional.of(new RoomSequence("room-1", 42)));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(2L);
+
+        long added = service.migrateUsers("merge-1", "room-1", List.of("room-2", "room-3"));
+
+        assertThat(added).isEqualTo(2);
+        List<Statement> updates = updates();
+        assertThat(updates).hasSize(3);
+
+        Statement snapshot = updates.get(0);
+        assertThat(snapshot.sql()).startsWith("INSERT IGNORE INTO user_migration_log").endsWith("WHERE s.room_id IN (?, ?)");
+        assertThat(snapshot.args()).containsExactly("merge-1", "room-1", snapshot.args()[2], "room-1", "room-2", "room-3");
+
+        Statement upsert = updates.get(1);
+        assertThat(upsert.sql()).startsWith("INSERT INTO room_user").contains("WHERE s.room_id IN (?, ?)");
+        assertThat(upsert.args()).containsExactly("room-1", upsert.args()[1], 42L, "room-2", "room-3");
+
+        Statement delete = updates.get(2);
+        assertThat(delete.sql()).isEqualTo("DELETE FROM room_user WHERE room_id IN (?, ?)");
+        assertThat(delete.args()).containsExactly("room-2", "room-3");
+
+        verify(roomCacheInvalidator).invalidateRooms(List.of("room-2", "room-3", "room-1"));
+    }
+
+    @Test
+    void newMembersStartAtTargetHeadAndExistingMembersKeepTheirReadPosition() {
+        when(roomSequenceRepository.findById("room-1")).thenReturn(Optional.empty());
+
+        service.migrateUsers("merge-1", "room-1", List.of("room-2"));
+
+        Statement upsert = updates().get(1);
+        // 소스 방 읽음 위치는 옮기지 않고, 충돌 시에는 역할만 우선순위로 갱신
+        assertThat(upsert.sql()).contains("SELECT ?, s.user_id, ?, s.role, ? FROM room_user s");
+        assertThat(upsert.sql().substring(upsert.sql().indexOf("ON DUPLICATE KEY UPDATE")))
+                .contains("role = IF(FIELD(VALUES(role), 'MEMBER', 'ADMIN', 'OWNER') > FIELD(role, 'MEMBER', 'ADMIN', 'OWNER')")
+                .doesNotContain("last_read_seq")
+                .doesNotContain("GREATEST");
+        assertThat(upsert.args()[2]).isEqualTo(0L);
+    }
+
+    @Test
+    void doesNothingWithoutSourceRooms() {
+        assertThat(service.migrateUsers("merge-1", "room-1", List.of())).isZero();
+        assertThat(updates()).isEmpty();
+    }
+
+    @Test
+    void rollsBackInReverseOrderFromSnapshot() {
+        service.rollbackUsers("merge-1");
+
+        List<Statement> updates = updates();
+        assertThat(updates).extracting(statement -> statement.sql().substring(0, statement.sql().indexOf(' ', 7)))
+                .containsExactly("DELETE t", "UPDATE room_user", "INSERT INTO", "UPDATE user_migration_log");
+        assertThat(updates.get(0).sql()).contains("was_member_in_to = FALSE");
+        assertThat(updates.get(1).sql()).contains("SET t.role = l.prev_role_in_to");
+        assertThat(updates.get(2).sql()).contains("l.prev_last_read_seq_in_from").contains("was_member_in_from = TRUE");
+        assertThat(updates).allMatch(statement -> Arrays.asList(statement.args()).contains("merge-1"));
+    }
+
+    // jdbcTemplate.update(sql, args...) 호출 순서대로
+    private List<Statement> updates() {
+        return mockingDetails(jdbcTemplate).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("update"))
+                .map(UserMigrationServiceTest::toStatement)
+                .toList();
+    }
+
+    private static Statement toStatement(Invocation invocation) {
+        Object[] raw = invocation.getRawArguments();
+        return new Statement((String) raw[0], (Object[]) raw[1]);
+    }
+
+    private record Statement(String sql, Object[] args) {
+    }
+}
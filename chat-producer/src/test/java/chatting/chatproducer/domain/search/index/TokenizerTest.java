@@ -0,0 +1,45 @@
+package chatting.chatproducer.domain.search.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenizerTest {
+
+    @Test
+    void splitsLatinWordsOnPunctuationAndLowercases() {
+        assertThat(Tokenizer.tokenize("Hello, World! v2.0")).containsExactly("hello", "world", "v2", "0");
+    }
+
+    @Test
+    void splitsHangulIntoBigrams() {
+        assertThat(Tokenizer.tokenize("안녕하세요")).containsExactly("안녕", "녕하", "하세", "세요");
+    }
+
+    @Test
+    void keepsSingleHangulCharacter() {
+        assertThat(Tokenizer.tokenize("네 ok")).containsExactly("네", "ok");
+    }
+
+    @Test
+    void separatesHangulFromAdjacentLatin() {
+        assertThat(Tokenizer.tokenize("카톡ID abc123")).containsExactly("카톡", "id", "abc123");
+    }
+
+    @Test
+    void deduplicatesTerms() {
+        assertThat(Tokenizer.tokenize("hi HI hi")).containsExactly("hi");
+    }
+
+    @Test
+    void truncatesLongWords() {
+        assertThat(Tokenizer.tokenize("a".repeat(100))).containsExactly("a".repeat(64));
+    }
+
+    @Test
+    void returnsEmptyForBlankText() {
+        assertThat(Tokenizer.tokenize(null)).isEmpty();
+        assertThat(Tokenizer.tokenize("")).isEmpty();
+        assertThat(Tokenizer.tokenize(" !? ")).isEmpty();
+    }
+}
@@ -0,0 +1,138 @@
+package chatting.chatproducer.kafka.codec;
+
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ChatKafkaMessageCodecTest {
+
+    private static final String TOPIC = "chat-message-sent";
+
+    // chat-consumer의 ChatKafkaMessageCodecTest와 같은 값 - 한쪽 포맷만 바뀌면 양쪽 중 하나가 깨진다
+    static final String GOLDEN_V3_HEX = "cb0307726f6f6d2d3106616c6963650aec9588eb859520686901aab4aed8c7bfce972f02"
+            + "04632d312b19363566306330666665653030303030303030303030303031";
+
+    private final WireFormatSerializer<ChatKafkaMessage> serializer =
+            new WireFormatSerializer<>(new ChatKafkaMessageCodec(), WireFormat.BINARY);
+    private final WireFormatDeserializer<ChatKafkaMessage> deserializer =
+            new WireFormatDeserializer<>(new ChatKafkaMessageCodec(), jsonDeserializer());
+
+    @Test
+    void roundTripsCurrentVersionWithHeaders() {
+        Headers headers = new RecordHeaders();
+        byte[] data = serializer.serialize(TOPIC, headers, golden());
+
+        assertThat(new String(headers.lastHeader(WireFormat.FORMAT_HEADER).value(), StandardCharsets.UTF_8)).isEqualTo("BINARY");
+        assertThat(new String(headers.lastHeader(WireFormat.SCHEMA_VERSION_HEADER).value(), StandardCharsets.UTF_8)).isEqualTo("3");
+        assertThat(deserializer.deserialize(TOPIC, headers, data)).isEqualTo(golden());
+    }
+
+    @Test
+    void roundTripsNullFields() {
+        ChatKafkaMessage message = new ChatKafkaMessage();
+
+        byte[] data = serializer.serialize(TOPIC, message);
+
+        assertThat(deserializer.deserialize(TOPIC, data)).isEqualTo(message);
+    }
+
+    @Test
+    void keepsSeqZeroDistinctFromNull() {
+        ChatKafkaMessage message = golden();
+        message.setSeq(0L);
+
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, message)).getSeq()).isZero();
+    }
+
+    @Test
+    void encodesGoldenBytes() {
+        assertThat(HexFormat.of().formatHex(serializer.serialize(TOPIC, golden()))).isEqualTo(GOLDEN_V3_HEX);
+    }
+
+    @Test
+    void decodesGoldenBytes() {
+        assertThat(deserializer.deserialize(TOPIC, HexFormat.of().parseHex(GOLDEN_V3_HEX))).isEqualTo(golden());
+    }
+
+    @Test
+    void decodesVersion1WithoutSeqAndMessageId() {
+        byte[] data = writeV1(new BinaryWriter(64).writeByte(WireFormat.BINARY_MAGIC).writeByte(1)).toByteArray();
+
+        ChatKafkaMessage decoded = deserializer.deserialize(TOPIC, data);
+
+        ChatKafkaMessage expected = golden();
+        expected.setSeq(null);
+        expected.setMessageId(null);
+        assertThat(decoded).isEqualTo(expected);
+    }
+
+    @Test
+    void decodesVersion2WithoutMessageId() {
+        byte[] data = writeV1(new BinaryWriter(64).writeByte(WireFormat.BINARY_MAGIC).writeByte(2))
+                .writeVarLong(42 + 1)
+                .toByteArray();
+
+        ChatKafkaMessage decoded = deserializer.deserialize(TOPIC, data);
+
+        ChatKafkaMessage expected = golden();
+        expected.setMessageId(null);
+        assertThat(decoded).isEqualTo(expected);
+    }
+
+    @Test
+    void rejectsNewerSchemaVersion() {
+        byte[] data = HexFormat.of().parseHex(GOLDEN_V3_HEX);
+        data[1] = 4;
+
+        assertThatThrownBy(() -> deserializer.deserialize(TOPIC, data)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void fallsBackToJsonWithoutHeader() {
+        WireFormatSerializer<ChatKafkaMessage> jsonSerializer =
+                new WireFormatSerializer<>(new ChatKafkaMessageCodec(), WireFormat.JSON);
+
+        byte[] data = jsonSerializer.serialize(TOPIC, golden());
+
+        assertThat(deserializer.deserialize(TOPIC, new RecordHeaders(), data)).isEqualTo(golden());
+    }
+
+    static ChatKafkaMessage golden() {
+        return ChatKafkaMessage.builder()
+                .roomId("room-1")
+                .sender("alice")
+                .message("안녕 hi")
+                .timestamp(Instant.ofEpochSecond(1_700_000_000L, 123_456_789))
+                .messageType("TALK")
+                .clientMessageId("c-1")
+                .seq(42L)
+                .messageId("65f0c0ffee00000000000001")
+                .build();
+    }
+
+    private static BinaryWriter writeV1(BinaryWriter writer) {
+        ChatKafkaMessage message = golden();
+        return writer.writeString(message.getRoomId())
+                .writeString(message.getSender())
+                .writeString(message.getMessage())
+                .writeInstant(message.getTimestamp())
+                .writeVarInt(2) // TALK ordinal + 1
+                .writeString(message.getClientMessageId());
+    }
+
+    private static JsonDeserializer<ChatKafkaMessage> jsonDeserializer() {
+        JsonDeserializer<ChatKafkaMessage> jsonDeserializer = new JsonDeserializer<>(ChatKafkaMessage.class);
+        jsonDeserializer.addTrustedPackages("*");
+        return jsonDeserializer;
+    }
+}
@@ -0,0 +1,47 @@
+package chatting.chatproducer.kafka.codec;
+
+import chatting.chatproducer.kafka.dto.MergeEventDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MergeEventCodecTest {
+
+    private static final String TOPIC = "merge-events";
+
+    private final WireFormatSerializer<MergeEventDTO> serializer =
+            new WireFormatSerializer<>(new MergeEventCodec(), WireFormat.BINARY);
+    private final WireFormatDeserializer<MergeEventDTO> deserializer =
+            new WireFormatDeserializer<>(new MergeEventCodec(), new JsonDeserializer<>(MergeEventDTO.class));
+
+    @Test
+    void roundTripsAllFields() {
+        MergeEventDTO event = MergeEventDTO.builder()
+                .mergeId("merge-1")
+                .targetRoomId("room-1")
+                .sourceRoomIds(List.of("room-2", "room-3"))
+                .eventType("MESSAGES_MIGRATED")
+                .initiatedBy("admin")
+                .migratedMessageCount(300)
+                .migratedUserCount(7)
+                .totalMigratedMessages(1_000_000)
+                .totalMigratedUsers(12)
+                .failureReason("timeout")
+                .failedStep("USERS_MIGRATE")
+                .build();
+
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, event))).isEqualTo(event);
+    }
+
+    @Test
+    void keepsEmptySourceListDistinctFromNull() {
+        MergeEventDTO empty = MergeEventDTO.builder().mergeId("merge-1").sourceRoomIds(List.of()).build();
+        MergeEventDTO absent = MergeEventDTO.builder().mergeId("merge-1").build();
+
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, empty)).getSourceRoomIds()).isEmpty();
+        assertThat(deserializer.deserialize(TOPIC, serializer.serialize(TOPIC, absent)).getSourceRoomIds()).isNull();
+    }
+}
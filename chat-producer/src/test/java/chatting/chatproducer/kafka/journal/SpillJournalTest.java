@@ -0,0 +1,170 @@
+package chatting.chatproducer.kafka.journal;
+
+import chatting.chatproducer.kafka.dto.ChatKafkaMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SpillJournalTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsAppendedRecordsInOrder() throws IOException {
+        SpillJournal journal = open();
+        journal.append(message("room-a", "m1"), "e1");
+        journal.append(message("room-b", "m2"), null);
+
+        List<SpillRecord> records = journal.read(10);
+
+        assertThat(records).extracting(SpillRecord::getRoomId).containsExactly("room-a", "room-b");
+        assertThat(records).extracting(SpillRecord::getEventId).containsExactly("e1", null);
+        assertThat(records).extracting(record -> record.getMessage().getMessage()).containsExactly("m1", "m2");
+        assertThat(journal.pendingCount()).isEqualTo(2);
+        assertThat(journal.hasPending("room-a")).isTrue();
+    }
+
+    @Test
+    void readStopsAtMax() throws IOException {
+        SpillJournal journal = open();
+        for (int i = 0; i < 5; i++) {
+            journal.append(message("room-a", "m" + i), null);
+        }
+
+        assertThat(journal.read(3)).hasSize(3);
+    }
+
+    @Test
+    void commitMovesCheckpointAndClearsPending() throws IOException {
+        SpillJournal journal = open();
+        journal.append(message("room-a", "m1"), null);
+        journal.append(message("room-b", "m2"), null);
+
+        journal.commit(journal.read(1));
+
+        assertThat(journal.hasPending("room-a")).isFalse();
+        assertThat(journal.hasPending("room-b")).isTrue();
+        assertThat(journal.read(10)).extracting(record -> record.getMessage().getMessage()).containsExactly("m2");
+    }
+
+    @Test
+    void restoresCheckpointAndPendingCountsOnReopen() throws IOException {
+        SpillJournal journal = open();
+        journal.append(message("room-a", "m1"), null);
+        journal.append(message("room-a", "m2"), null);
+        journal.append(message("room-b", "m3"), null);
+        journal.commit(journal.read(1));
+        journal.close();
+
+        SpillJournal reopened = open();
+
+        assertThat(reopened.pendingCount()).isEqualTo(2);
+        assertThat(reopened.hasPending("room-a")).isTrue();
+        assertThat(reopened.hasPending("room-b")).isTrue();
+        assertThat(reopened.read(10)).extracting(record -> record.getMessage().getMessage()).containsExactly("m2", "m3");
+    }
+
+    @Test
+    void rollsSegmentsAndDeletesReplayedOnes() throws IOException {
+        SpillJournal journal = open();
+        for (int i = 0; i < 10; i++) {
+            journal.append(message("room-a", "m" + i + "-" + "x".repeat(200)), null);
+        }
+        long segmentsBefore = segmentFiles();
+        assertThat(segmentsBefore).isGreaterThan(1);
+
+        List<SpillRecord> all = journal.read(100);
+        assertThat(all).hasSize(10);
+        assertThat(all).extracting(record -> record.getMessage().getMessage()).allMatch(text -> text.startsWith("m"));
+
+        journal.commit(all.subList(0, 7));
+
+        assertThat(segmentFiles()).isLessThan(segmentsBefore);
+        assertThat(journal.pendingCount()).isEqualTo(3);
+
+        journal.close();
+        SpillJournal reopened = open();
+        assertThat(reopened.read(100)).extracting(record -> record.getMessage().getMessage().substring(0, 2))
+                .containsExactly("m7", "m8", "m9");
+    }
+
+    @Test
+    void skipsRecordWithCrcMismatch() throws IOException {
+        SpillJournal journal = open();
+        journal.append(message("room-a", "m1"), null);
+        journal.append(message("room-b", "m2"), null);
+        journal.close();
+
+        // 첫 레코드 payload 한 바이트를 뒤집는다
+        try (FileChannel channel = FileChannel.open(firstSegment(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, 30);
+            one.put(0, (byte) ~one.get(0)).rewind();
+            channel.write(one, 30);
+        }
+
+        SpillJournal reopened = open();
+        List<SpillRecord> records = reopened.read(10);
+
+        assertThat(records).hasSize(2);
+        assertThat(records.get(0).getMessage()).isNull();
+        assertThat(records.get(1).getMessage().getMessage()).isEqualTo("m2");
+        // 깨진 레코드는 방을 알 수 없으므로 대기 건수에 포함하지 않는다
+        assertThat(reopened.pendingCount()).isEqualTo(1);
+        assertThat(reopened.hasPending("room-a")).isFalse();
+    }
+
+    @Test
+    void rejectsRecordLargerThanSegment() throws IOException {
+        SpillJournal journal = open();
+
+        assertThatThrownBy(() -> journal.append(message("room-a", "x".repeat(SEGMENT_BYTES)), null))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private SpillJournal open() throws IOException {
+        SpillJournal journal = new SpillJournal(objectMapper, directory.toString(), SEGMENT_BYTES);
+        journal.open();
+        return journal;
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+
+    private Path firstSegment() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("segment-")).sorted().findFirst().orElseThrow();
+        }
+    }
+
+    private static ChatKafkaMessage message(String roomId, String text) {
+        return ChatKafkaMessage.builder()
+                .roomId(roomId)
+                .sender("alice")
+                .message(text)
+                .timestamp(Instant.ofEpochMilli(1_700_000_000_000L))
+                .messageType("TALK")
+                .build();
+    }
+}